@@ -0,0 +1,165 @@
+package org.nextprot.commons.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * This stream compresses its content as a sequence of independent gzip members of a fixed uncompressed size.
+ *
+ * Each member gives its total size in its header extra field, so members can be located without being
+ * inflated and decompressed in parallel by {@link ParallelGzipInputStream}.
+ * The output remains a valid multi-member gzip file readable by any gzip tool.
+ */
+public class BlockGzipOutputStream extends FilterOutputStream {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	private static final int HEADER_SIZE = 10 + 2 + 4 + GzipMember.NX_SLEN;
+	private static final int TRAILER_SIZE = 8;
+	private static final int OS_UNKNOWN = 255;
+
+	private final byte[] block;
+	private final Deflater deflater;
+	private final CRC32 crc = new CRC32();
+	private byte[] deflated;
+	private int count;
+	private boolean memberWritten;
+	private boolean closed;
+
+	public BlockGzipOutputStream(OutputStream out) {
+
+		this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param out the underlying output stream
+	 * @param blockSize the uncompressed size of members
+	 * @param level the compression level (0-9)
+	 */
+	public BlockGzipOutputStream(OutputStream out, int blockSize, int level) {
+
+		super(out);
+
+		if (blockSize <= 0 || blockSize > Integer.MAX_VALUE / 2) {
+			throw new IllegalArgumentException("blockSize="+blockSize+": should be in ]0, " + (Integer.MAX_VALUE / 2) + "]");
+		}
+
+		this.block = new byte[blockSize];
+		this.deflated = new byte[blockSize + blockSize / 8 + 64];
+		this.deflater = new Deflater(level, true);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+
+		if (count == block.length) {
+			writeMember();
+		}
+		block[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+
+		while (len > 0) {
+
+			if (count == block.length) {
+				writeMember();
+			}
+
+			int n = Math.min(len, block.length - count);
+			System.arraycopy(b, off, block, count, n);
+			count += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Compress the pending content in a (possibly smaller) member and flush the underlying stream
+	 */
+	@Override
+	public void flush() throws IOException {
+
+		if (count > 0) {
+			writeMember();
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			// an empty content is still written as a valid gzip member
+			if (count > 0 || !memberWritten) {
+				writeMember();
+			}
+			out.flush();
+		} finally {
+			deflater.end();
+			out.close();
+		}
+	}
+
+	private void writeMember() throws IOException {
+
+		deflater.reset();
+		deflater.setInput(block, 0, count);
+		deflater.finish();
+
+		int deflatedSize = 0;
+		while (!deflater.finished()) {
+			if (deflatedSize == deflated.length) {
+				deflated = Arrays.copyOf(deflated, deflated.length * 2);
+			}
+			deflatedSize += deflater.deflate(deflated, deflatedSize, deflated.length - deflatedSize);
+		}
+
+		crc.reset();
+		crc.update(block, 0, count);
+
+		long memberSize = HEADER_SIZE + deflatedSize + TRAILER_SIZE;
+
+		out.write(GzipMember.ID1);
+		out.write(GzipMember.ID2);
+		out.write(GzipMember.CM_DEFLATE);
+		out.write(GzipMember.FEXTRA);
+		writeInt(0); // MTIME
+		out.write(0); // XFL
+		out.write(OS_UNKNOWN);
+		writeShort(4 + GzipMember.NX_SLEN); // XLEN
+		out.write(GzipMember.NX_SI1);
+		out.write(GzipMember.NX_SI2);
+		writeShort(GzipMember.NX_SLEN);
+		writeInt((int) memberSize);
+		out.write(deflated, 0, deflatedSize);
+		writeInt((int) crc.getValue());
+		writeInt(count);
+
+		count = 0;
+		memberWritten = true;
+	}
+
+	private void writeShort(int value) throws IOException {
+
+		out.write(value & 0xff);
+		out.write((value >>> 8) & 0xff);
+	}
+
+	private void writeInt(int value) throws IOException {
+
+		writeShort(value);
+		writeShort(value >>> 16);
+	}
+}
@@ -0,0 +1,197 @@
+package org.nextprot.commons.io;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * A gzip member (RFC 1952) whose total size is given in a subfield of the header extra field.
+ *
+ * Two subfields are understood: 'NX' written by {@link BlockGzipOutputStream} (4 bytes, total size)
+ * and the BGZF 'BC' subfield of samtools/htslib (2 bytes, total size - 1).
+ */
+final class GzipMember {
+
+	static final int ID1 = 0x1f;
+	static final int ID2 = 0x8b;
+	static final int CM_DEFLATE = 8;
+
+	static final int FHCRC = 2;
+	static final int FEXTRA = 4;
+	static final int FNAME = 8;
+	static final int FCOMMENT = 16;
+
+	static final byte NX_SI1 = 'N';
+	static final byte NX_SI2 = 'X';
+	static final int NX_SLEN = 4;
+
+	private static final byte BGZF_SI1 = 'B';
+	private static final byte BGZF_SI2 = 'C';
+	private static final int BGZF_SLEN = 2;
+
+	private static final int FIXED_HEADER_SIZE = 10;
+	private static final int TRAILER_SIZE = 8;
+
+	private final byte[] deflated;
+	private final int crc;
+	private final int inflatedSize;
+
+	private GzipMember(byte[] deflated, int crc, int inflatedSize) {
+
+		this.deflated = deflated;
+		this.crc = crc;
+		this.inflatedSize = inflatedSize;
+	}
+
+	/**
+	 * Read the next member
+	 * @return the member or null at the end of input
+	 * @throws IOException if the member size is not given in its header
+	 */
+	static GzipMember read(DataInputStream in) throws IOException {
+
+		int id1 = in.read();
+		if (id1 < 0) {
+			return null;
+		}
+
+		byte[] header = new byte[FIXED_HEADER_SIZE];
+		header[0] = (byte) id1;
+		in.readFully(header, 1, FIXED_HEADER_SIZE - 1);
+
+		if ((header[0] & 0xff) != ID1 || (header[1] & 0xff) != ID2 || header[2] != CM_DEFLATE) {
+			throw new IOException("not a gzip member");
+		}
+
+		int flags = header[3] & 0xff;
+		if ((flags & FEXTRA) == 0) {
+			throw new IOException("not a block gzip member (missing header extra field)");
+		}
+
+		int extraLength = readUnsignedShort(in);
+		byte[] extra = new byte[extraLength];
+		in.readFully(extra);
+
+		long memberSize = findMemberSize(extra, 0, extraLength);
+		if (memberSize < 0) {
+			throw new IOException("not a block gzip member (missing member size subfield)");
+		}
+
+		long headerSize = FIXED_HEADER_SIZE + 2 + extraLength;
+		if ((flags & FNAME) != 0) headerSize += skipZeroTerminated(in);
+		if ((flags & FCOMMENT) != 0) headerSize += skipZeroTerminated(in);
+		if ((flags & FHCRC) != 0) headerSize += in.skipBytes(2);
+
+		long deflatedSize = memberSize - headerSize - TRAILER_SIZE;
+		if (deflatedSize < 0 || deflatedSize > Integer.MAX_VALUE) {
+			throw new IOException("invalid block gzip member size " + memberSize);
+		}
+
+		byte[] deflated = new byte[(int) deflatedSize];
+		in.readFully(deflated);
+
+		int crc = readInt(in);
+		int inflatedSize = readInt(in);
+		if (inflatedSize < 0) {
+			throw new IOException("block gzip members larger than 2GB are not supported");
+		}
+		return new GzipMember(deflated, crc, inflatedSize);
+	}
+
+	/**
+	 * @return the total size of the member given in the header extra field or -1 if not found
+	 */
+	static long findMemberSize(byte[] extra, int offset, int length) {
+
+		int end = offset + length;
+		int i = offset;
+
+		while (i + 4 <= end) {
+
+			byte si1 = extra[i];
+			byte si2 = extra[i + 1];
+			int subfieldLength = (extra[i + 2] & 0xff) | (extra[i + 3] & 0xff) << 8;
+			i += 4;
+
+			if (i + subfieldLength > end) {
+				return -1;
+			}
+			if (si1 == NX_SI1 && si2 == NX_SI2 && subfieldLength == NX_SLEN) {
+				return (extra[i] & 0xffL) | (extra[i + 1] & 0xffL) << 8 | (extra[i + 2] & 0xffL) << 16 | (extra[i + 3] & 0xffL) << 24;
+			}
+			if (si1 == BGZF_SI1 && si2 == BGZF_SI2 && subfieldLength == BGZF_SLEN) {
+				return ((extra[i] & 0xff) | (extra[i + 1] & 0xff) << 8) + 1;
+			}
+			i += subfieldLength;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the uncompressed content of this member
+	 * @throws IOException if the content is corrupted
+	 */
+	byte[] inflate() throws IOException {
+
+		byte[] inflated = new byte[inflatedSize];
+		Inflater inflater = new Inflater(true);
+
+		try {
+			inflater.setInput(deflated);
+
+			int count = 0;
+			while (count < inflatedSize) {
+
+				int n = inflater.inflate(inflated, count, inflatedSize - count);
+				if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				count += n;
+			}
+
+			if (count != inflatedSize) {
+				throw new IOException("corrupted gzip member (" + count + " bytes inflated, " + inflatedSize + " expected)");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("corrupted gzip member", e);
+		} finally {
+			inflater.end();
+		}
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(inflated, 0, inflatedSize);
+		if ((int) crc32.getValue() != crc) {
+			throw new IOException("corrupted gzip member (CRC mismatch)");
+		}
+		return inflated;
+	}
+
+	private static int skipZeroTerminated(DataInputStream in) throws IOException {
+
+		int count = 0;
+		int b;
+		do {
+			b = in.read();
+			if (b < 0) throw new EOFException("unexpected end of gzip header");
+			count++;
+		} while (b != 0);
+
+		return count;
+	}
+
+	private static int readUnsignedShort(DataInputStream in) throws IOException {
+
+		int b0 = in.readUnsignedByte();
+		int b1 = in.readUnsignedByte();
+		return b0 | b1 << 8;
+	}
+
+	private static int readInt(DataInputStream in) throws IOException {
+
+		return readUnsignedShort(in) | readUnsignedShort(in) << 16;
+	}
+}
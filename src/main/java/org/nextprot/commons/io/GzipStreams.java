@@ -0,0 +1,127 @@
+package org.nextprot.commons.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Transparent decompression of gzip contents
+ */
+public class GzipStreams {
+
+	private static final int IO_BUFFER_SIZE = 64 * 1024;
+	// fixed header, XLEN and the largest extra field
+	private static final int MAX_HEADER_PEEK = 10 + 2 + 0xffff;
+
+	/**
+	 * Decompress the given content if gzipped, inflating block gzip members on all available processors
+	 * @see #decompress(InputStream, int)
+	 */
+	public static InputStream decompress(InputStream in) throws IOException {
+
+		return decompress(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Decompress the given content if gzipped.
+	 *
+	 * Block gzip contents are inflated in parallel by a {@link ParallelGzipInputStream}, other gzip contents
+	 * by a {@link GZIPInputStream} and non gzip contents are returned as is.
+	 *
+	 * @param in the content
+	 * @param threadCount the number of threads inflating block gzip members
+	 * @return the uncompressed content
+	 */
+	public static InputStream decompress(InputStream in, int threadCount) throws IOException {
+
+		InputStream markable = (in.markSupported()) ? in : new BufferedInputStream(in, IO_BUFFER_SIZE);
+
+		markable.mark(MAX_HEADER_PEEK);
+		Format format = detectFormat(new DataInputStream(markable));
+		markable.reset();
+
+		switch (format) {
+			case BLOCK_GZIP:
+				return new ParallelGzipInputStream(markable, threadCount);
+			case GZIP:
+				return new GZIPInputStream(markable, IO_BUFFER_SIZE);
+			default:
+				return markable;
+		}
+	}
+
+	/** @return true if the file content is gzipped */
+	public static boolean isGzip(Path path) throws IOException {
+
+		try (InputStream in = Files.newInputStream(path)) {
+			return isGzip(in.read(), in.read());
+		}
+	}
+
+	/** @return true if the channel content is gzipped (the position of the channel is left unchanged) */
+	public static boolean isGzip(SeekableByteChannel channel) throws IOException {
+
+		long position = channel.position();
+		ByteBuffer magic = ByteBuffer.allocate(2);
+
+		channel.position(0);
+		while (magic.hasRemaining() && channel.read(magic) >= 0) {
+			// read the 2 first bytes
+		}
+		channel.position(position);
+
+		return isGzip(magic.array(), 0, magic.position());
+	}
+
+	/** @return true if the stream was returned by {@link #decompress} to inflate a gzip content */
+	public static boolean isDecompressing(Object in) {
+
+		return in instanceof GZIPInputStream || in instanceof ParallelGzipInputStream;
+	}
+
+	/** @return true if the content is gzipped */
+	public static boolean isGzip(byte[] content, int offset, int length) {
+
+		return length >= 2 && isGzip(content[offset] & 0xff, content[offset + 1] & 0xff);
+	}
+
+	private static boolean isGzip(int byte0, int byte1) {
+
+		return byte0 == GzipMember.ID1 && byte1 == GzipMember.ID2;
+	}
+
+	private static Format detectFormat(DataInputStream in) throws IOException {
+
+		byte[] header = new byte[10];
+		int count = 0;
+		int n;
+		while (count < header.length && (n = in.read(header, count, header.length - count)) > 0) {
+			count += n;
+		}
+
+		if (count < header.length || !isGzip(header, 0, count)) {
+			return Format.NONE;
+		}
+		if ((header[3] & GzipMember.FEXTRA) == 0) {
+			return Format.GZIP;
+		}
+
+		int extraLength = in.readUnsignedByte() | in.readUnsignedByte() << 8;
+		byte[] extra = new byte[extraLength];
+		in.readFully(extra);
+
+		return (GzipMember.findMemberSize(extra, 0, extraLength) >= 0) ? Format.BLOCK_GZIP : Format.GZIP;
+	}
+
+	private enum Format {
+
+		NONE, GZIP, BLOCK_GZIP
+	}
+}
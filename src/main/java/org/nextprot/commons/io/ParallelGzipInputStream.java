@@ -0,0 +1,190 @@
+package org.nextprot.commons.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This stream decompresses the members of a block gzip content in parallel and delivers them in order.
+ *
+ * Members are located from the size given in their header (see {@link BlockGzipOutputStream}), read sequentially
+ * by the consuming thread and inflated on a pool, a bounded number of members ahead of the consumer.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final DataInputStream in;
+	private final ExecutorService executor;
+	private final boolean executorOwned;
+	private final int maxPendingMembers;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+	private byte[] member = EMPTY;
+	private int position;
+	private boolean endOfInput;
+	private boolean closed;
+
+	public ParallelGzipInputStream(InputStream in) {
+
+		this(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param in the block gzip content
+	 * @param threadCount the number of threads inflating members (pool shut down on close)
+	 */
+	public ParallelGzipInputStream(InputStream in, int threadCount) {
+
+		this(in, newDaemonPool(threadCount), 2 * threadCount, true);
+	}
+
+	/**
+	 * @param in the block gzip content
+	 * @param executor the executor inflating members (not shut down on close)
+	 * @param maxPendingMembers the maximum number of members inflated ahead of the consumer
+	 */
+	public ParallelGzipInputStream(InputStream in, ExecutorService executor, int maxPendingMembers) {
+
+		this(in, executor, maxPendingMembers, false);
+	}
+
+	private ParallelGzipInputStream(InputStream in, ExecutorService executor, int maxPendingMembers, boolean executorOwned) {
+
+		if (maxPendingMembers <= 0) {
+			throw new IllegalArgumentException("maxPendingMembers="+maxPendingMembers+": cannot define a negative (or 0) number of pending members");
+		}
+
+		this.in = new DataInputStream(in);
+		this.executor = executor;
+		this.maxPendingMembers = maxPendingMembers;
+		this.executorOwned = executorOwned;
+	}
+
+	private static ExecutorService newDaemonPool(int threadCount) {
+
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+		}
+
+		return Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "gzip-inflater");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		if (position == member.length && !nextMember()) {
+			return -1;
+		}
+		return member[position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+
+		if (len == 0) {
+			return 0;
+		}
+		if (position == member.length && !nextMember()) {
+			return -1;
+		}
+
+		int n = Math.min(len, member.length - position);
+		System.arraycopy(member, position, b, off, n);
+		position += n;
+
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+
+		return member.length - position;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		pending.forEach(future -> future.cancel(true));
+		pending.clear();
+
+		if (executorOwned) {
+			executor.shutdownNow();
+		}
+		in.close();
+	}
+
+	/**
+	 * Make the next non empty member current
+	 * @return false if no more members
+	 */
+	private boolean nextMember() throws IOException {
+
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+
+		do {
+			submitMembers();
+
+			if (pending.isEmpty()) {
+				if (executorOwned) {
+					executor.shutdown();
+				}
+				return false;
+			}
+
+			member = await(pending.poll());
+			position = 0;
+		}
+		while (member.length == 0);
+
+		return true;
+	}
+
+	private void submitMembers() throws IOException {
+
+		while (!endOfInput && pending.size() < maxPendingMembers) {
+
+			GzipMember next = GzipMember.read(in);
+
+			if (next == null) {
+				endOfInput = true;
+			}
+			else {
+				pending.add(executor.submit(next::inflate));
+			}
+		}
+	}
+
+	private byte[] await(Future<byte[]> future) throws IOException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while inflating gzip members", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+}
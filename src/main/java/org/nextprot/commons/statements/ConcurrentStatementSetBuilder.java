@@ -0,0 +1,116 @@
+package org.nextprot.commons.statements;
+
+import org.nextprot.commons.statements.sort.StatementSortKey;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collector;
+
+
+/**
+ * Accumulates statements from concurrent workers into a {@link StatementSet}, deduplicated by STATEMENT_ID
+ * (the first statement added with an id is kept).
+ *
+ * Statements are held in a concurrent hash map whose bins are locked independently, so that workers adding
+ * statements of different ids do not contend. {@link #freeze()} orders the statements by STATEMENT_ID,
+ * whatever the order in which workers added them.
+ */
+public class ConcurrentStatementSetBuilder {
+
+	private static final StatementSortKey ORDER = StatementSortKey.of(CoreStatementField.STATEMENT_ID);
+
+	private final ConcurrentHashMap<String, Statement> statements;
+	private volatile boolean frozen;
+
+	public ConcurrentStatementSetBuilder() {
+
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize the expected number of distinct statements
+	 */
+	public ConcurrentStatementSetBuilder(int expectedSize) {
+
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize="+expectedSize+": cannot define a negative size");
+		}
+		this.statements = new ConcurrentHashMap<>(expectedSize, 0.75f, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return a collector of (parallel) streams of statements into a frozen set
+	 */
+	public static Collector<Statement, ConcurrentStatementSetBuilder, StatementSet> toStatementSet() {
+
+		return Collector.of(ConcurrentStatementSetBuilder::new, ConcurrentStatementSetBuilder::add,
+				(builder, other) -> {
+					builder.addAll(other.statements.values());
+					return builder;
+				},
+				ConcurrentStatementSetBuilder::freeze, Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * @return true if no statement with the same STATEMENT_ID was added before
+	 * @throws IllegalArgumentException if the statement has no STATEMENT_ID
+	 * @throws IllegalStateException if the builder was frozen
+	 */
+	public boolean add(Statement statement) {
+
+		checkNotFrozen();
+
+		String statementId = statement.getStatementId();
+		if (statementId == null) {
+			throw new IllegalArgumentException("cannot add a statement without " + CoreStatementField.STATEMENT_ID.getName() + ": " + statement);
+		}
+		return statements.putIfAbsent(statementId, statement) == null;
+	}
+
+	/**
+	 * @return the number of statements added (not already added)
+	 */
+	public int addAll(Collection<Statement> statements) {
+
+		int count = 0;
+		for (Statement statement : statements) {
+			if (add(statement)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of distinct statements added so far
+	 */
+	public int size() {
+
+		return statements.size();
+	}
+
+	public boolean isFrozen() {
+
+		return frozen;
+	}
+
+	/**
+	 * Stop accumulating statements (all additions must have completed)
+	 * @return the statements ordered by STATEMENT_ID
+	 */
+	public StatementSet freeze() {
+
+		frozen = true;
+
+		return new StatementSet(Arrays.asList(ORDER.sort(statements.values())));
+	}
+
+	private void checkNotFrozen() {
+
+		if (frozen) {
+			throw new IllegalStateException("cannot add statements to a frozen builder");
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package org.nextprot.commons.statements;
+
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.BitSet;
+
+
+/**
+ * An immutable set of row ids (statement ranks in a {@link StatementSet}), compressed to the smallest of a sorted
+ * array of ids (sparse sets) or a bitmap (dense sets).
+ */
+final class RowIdSet {
+
+	private static final int[] NO_IDS = new int[0];
+
+	static final RowIdSet EMPTY = new RowIdSet(NO_IDS, null, 0);
+
+	// one of them is null
+	private final int[] ids;
+	private final BitSet bits;
+	private final int cardinality;
+
+	private RowIdSet(int[] ids, BitSet bits, int cardinality) {
+
+		this.ids = ids;
+		this.bits = bits;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * @param ids the row ids in increasing order
+	 * @param rowCount the number of rows
+	 */
+	static RowIdSet of(TIntArrayList ids, int rowCount) {
+
+		int words = (rowCount + 63) >>> 6;
+
+		// an int per id against a bit per row
+		if (ids.size() <= 2 * words) {
+			return new RowIdSet(ids.toArray(), null, ids.size());
+		}
+
+		BitSet bits = new BitSet(rowCount);
+		for (int i = 0; i < ids.size(); i++) {
+			bits.set(ids.getQuick(i));
+		}
+		return new RowIdSet(null, bits, ids.size());
+	}
+
+	int cardinality() {
+
+		return cardinality;
+	}
+
+	/**
+	 * Set the bits of the ids in the given bitmap
+	 */
+	void addTo(BitSet target) {
+
+		if (bits != null) {
+			target.or(bits);
+		}
+		else {
+			for (int id : ids) {
+				target.set(id);
+			}
+		}
+	}
+
+	/**
+	 * @return the estimated heap size in bytes
+	 */
+	long getMemoryUsage() {
+
+		return (bits != null) ? 32 + 16 + 8L * ((bits.size() + 63) >>> 6) : 24 + 16 + 4L * ids.length;
+	}
+}
@@ -0,0 +1,258 @@
+package org.nextprot.commons.statements;
+
+import gnu.trove.map.hash.TObjectLongHashMap;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Counts, distinct values and groups of statements by the values of one or more fields, computed in parallel
+ * over chunks of statements on a shared executor (the common fork-join pool by default), so that aggregating
+ * repeatedly does not create threads.
+ *
+ * Each chunk is aggregated in its own primitive counter map, the maps being merged at the end.
+ * Statements missing a field have a null value, counted (or grouped) as such or ignored
+ * depending on the {@link NullValues} policy.
+ */
+public class StatementAggregator {
+
+	public enum NullValues {
+
+		/** null values are aggregated as any other value (null keys or null elements of keys) */
+		INCLUDE,
+		/** statements with a null value are ignored */
+		EXCLUDE
+	}
+
+	private final StatementChunks chunks;
+	private final NullValues nullValues;
+
+	private StatementAggregator(Builder builder) {
+
+		this.chunks = new StatementChunks(builder.threadCount, builder.minChunkSize, builder.executor);
+		this.nullValues = builder.nullValues;
+	}
+
+	/**
+	 * @return the number of statements by value of the field
+	 */
+	public Map<String, Long> count(StatementSet statements, StatementField field) {
+
+		Counts<String> counts = chunks.process(statements.toArray(), chunk -> countValues(chunk, field), Counts::merge);
+
+		Map<String, Long> result = new HashMap<>(counts.values.size() * 4 / 3 + 2);
+		counts.values.forEachEntry((value, count) -> {
+			result.put(value, count);
+			return true;
+		});
+		if (counts.nullCount > 0) {
+			result.put(null, counts.nullCount);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of statements by values of the fields (in the order of the fields)
+	 */
+	public Map<List<String>, Long> countGroups(StatementSet statements, StatementField... fields) {
+
+		Counts<List<String>> counts = chunks.process(statements.toArray(), chunk -> countGroups(chunk, fields), Counts::merge);
+
+		Map<List<String>, Long> result = new HashMap<>(counts.values.size() * 4 / 3 + 1);
+		counts.values.forEachEntry((values, count) -> {
+			result.put(values, count);
+			return true;
+		});
+		return result;
+	}
+
+	/**
+	 * @return the distinct values of the field
+	 */
+	public Set<String> distinct(StatementSet statements, StatementField field) {
+
+		return chunks.process(statements.toArray(), chunk -> {
+			Set<String> values = new HashSet<>();
+			for (Statement statement : chunk) {
+				String value = statement.getValue(field);
+				if (value != null || nullValues == NullValues.INCLUDE) {
+					values.add(value);
+				}
+			}
+			return values;
+		}, StatementAggregator::union);
+	}
+
+	/**
+	 * @return the distinct values of the fields (in the order of the fields)
+	 */
+	public Set<List<String>> distinctGroups(StatementSet statements, StatementField... fields) {
+
+		return chunks.process(statements.toArray(), chunk -> {
+			Set<List<String>> groups = new HashSet<>();
+			for (Statement statement : chunk) {
+				List<String> values = getValues(statement, fields);
+				if (values != null) {
+					groups.add(values);
+				}
+			}
+			return groups;
+		}, StatementAggregator::union);
+	}
+
+	/**
+	 * @return the statements by values of the fields, groups and statements in the order of the set
+	 */
+	public Map<List<String>, List<Statement>> groupBy(StatementSet statements, StatementField... fields) {
+
+		return chunks.process(statements.toArray(), chunk -> {
+			Map<List<String>, List<Statement>> groups = new LinkedHashMap<>();
+			for (Statement statement : chunk) {
+				List<String> values = getValues(statement, fields);
+				if (values != null) {
+					groups.computeIfAbsent(values, k -> new ArrayList<>()).add(statement);
+				}
+			}
+			return groups;
+		}, (groups, other) -> {
+			other.forEach((values, chunk) -> groups.computeIfAbsent(values, k -> new ArrayList<>()).addAll(chunk));
+			return groups;
+		});
+	}
+
+	private Counts<String> countValues(List<Statement> statements, StatementField field) {
+
+		Counts<String> counts = new Counts<>();
+
+		for (Statement statement : statements) {
+			String value = statement.getValue(field);
+			if (value != null) {
+				counts.values.adjustOrPutValue(value, 1, 1);
+			}
+			else if (nullValues == NullValues.INCLUDE) {
+				counts.nullCount++;
+			}
+		}
+		return counts;
+	}
+
+	private Counts<List<String>> countGroups(List<Statement> statements, StatementField... fields) {
+
+		Counts<List<String>> counts = new Counts<>();
+
+		for (Statement statement : statements) {
+			List<String> values = getValues(statement, fields);
+			if (values != null) {
+				counts.values.adjustOrPutValue(values, 1, 1);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return the values of the fields or null if any is null and null values are excluded
+	 */
+	private List<String> getValues(Statement statement, StatementField... fields) {
+
+		String[] values = new String[fields.length];
+
+		for (int i = 0; i < fields.length; i++) {
+			values[i] = statement.getValue(fields[i]);
+			if (values[i] == null && nullValues == NullValues.EXCLUDE) {
+				return null;
+			}
+		}
+		return Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	private static <T> Set<T> union(Set<T> set, Set<T> other) {
+
+		set.addAll(other);
+		return set;
+	}
+
+	/**
+	 * The counts of the non null values and the count of null values
+	 */
+	private static class Counts<T> {
+
+		private final TObjectLongHashMap<T> values = new TObjectLongHashMap<>();
+		private long nullCount;
+
+		private Counts<T> merge(Counts<T> other) {
+
+			other.values.forEachEntry((value, count) -> {
+				values.adjustOrPutValue(value, count, count);
+				return true;
+			});
+			nullCount += other.nullCount;
+			return this;
+		}
+	}
+
+	public static class Builder {
+
+		private int threadCount = Runtime.getRuntime().availableProcessors();
+		private int minChunkSize = 10000;
+		private NullValues nullValues = NullValues.INCLUDE;
+		private ExecutorService executor = ForkJoinPool.commonPool();
+
+		/**
+		 * Set the maximum number of chunks of statements aggregated concurrently
+		 */
+		public Builder withThreads(int threadCount) {
+
+			if (threadCount <= 0) {
+				throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+			}
+			this.threadCount = threadCount;
+			return this;
+		}
+
+		/**
+		 * Set the minimum number of statements of a chunk (smaller sets are aggregated in the calling thread)
+		 */
+		public Builder withMinChunkSize(int minChunkSize) {
+
+			if (minChunkSize <= 0) {
+				throw new IllegalArgumentException("minChunkSize="+minChunkSize+": cannot define a negative (or 0) number for the chunk size");
+			}
+			this.minChunkSize = minChunkSize;
+			return this;
+		}
+
+		/**
+		 * Aggregate chunks on an external executor (instead of the common fork-join pool), not shut down by the aggregator
+		 */
+		public Builder withExecutor(ExecutorService executor) {
+
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Set how statements with null values are aggregated (default is {@link NullValues#INCLUDE})
+		 */
+		public Builder withNullValues(NullValues nullValues) {
+
+			this.nullValues = nullValues;
+			return this;
+		}
+
+		public StatementAggregator build() {
+
+			return new StatementAggregator(this);
+		}
+	}
+}
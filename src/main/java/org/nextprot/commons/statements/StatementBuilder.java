@@ -34,6 +34,7 @@ import java.util.stream.Collectors;
 import org.nextprot.commons.algo.MD5Algo;
 import org.nextprot.commons.constants.QualityQualifier;
 import org.nextprot.commons.statements.constants.UniqueKey;
+import org.nextprot.commons.statements.metrics.StatementMetricsListener;
 import org.nextprot.commons.statements.specs.CoreStatementField;
 import org.nextprot.commons.statements.specs.MutableStatementSpecifications;
 import org.nextprot.commons.statements.specs.StatementField;
@@ -48,6 +49,8 @@ public class StatementBuilder {
 	private StatementSpecifications specifications;
 	private final Map<StatementField, String> keyValues;
 	private boolean withAnnotationHash;
+	private boolean withTrustedIds;
+	private StatementMetricsListener listener = StatementMetricsListener.NOOP;
 
 	static {
 		System.out.println("StatementBuilder version 1.2");
@@ -70,6 +73,23 @@ public class StatementBuilder {
 		return this;
 	}
 
+	/**
+	 * Keep the STATEMENT_ID and ANNOTATION_ID values given as fields instead of computing them.
+	 * No MD5 is computed at build time, a missing id stays missing.
+	 */
+	public StatementBuilder withTrustedIds() {
+		withTrustedIds = true;
+		return this;
+	}
+
+	/**
+	 * Report build and id hashing times to the given listener
+	 */
+	public StatementBuilder withListener(StatementMetricsListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
 	public StatementBuilder removeField(StatementField statementField) {
 		this.keyValues.remove(statementField);
 		return this;
@@ -184,6 +204,10 @@ public class StatementBuilder {
 
 	public Statement build() {
 
+		boolean timed = listener != StatementMetricsListener.NOOP;
+		long startNanos = (timed) ? System.nanoTime() : 0;
+		long hashNanos = 0;
+
 		Statement statement = new Statement(keyValues);
 		
 		// tag StatementExtractionTest
@@ -193,16 +217,26 @@ public class StatementBuilder {
 		if (keyValues.isEmpty()) throw new IllegalStateException("cannot build empty statement");
 
 		statement.setSpecifications((specifications == null) ? buildSpecifications(statement) : specifications);
-		statement.putValue(CoreStatementField.STATEMENT_ID, MD5Algo.computeMD5(extractUniqueFieldValues(statement, UniqueKey.STATEMENT)));
-		if (withAnnotationHash) {
-			statement.putValue(CoreStatementField.ANNOTATION_ID,
-					MD5Algo.computeMD5(extractUniqueFieldValues(statement, UniqueKey.ENTRY)));
+		if (!withTrustedIds) {
+			long hashStartNanos = (timed) ? System.nanoTime() : 0;
+			statement.putValue(CoreStatementField.STATEMENT_ID, MD5Algo.computeMD5(extractUniqueFieldValues(statement, UniqueKey.STATEMENT)));
+			if (withAnnotationHash) {
+				statement.putValue(CoreStatementField.ANNOTATION_ID,
+						MD5Algo.computeMD5(extractUniqueFieldValues(statement, UniqueKey.ENTRY)));
+			}
+			if (timed) {
+				hashNanos = System.nanoTime() - hashStartNanos;
+				listener.onIdsHashed(hashNanos);
+			}
 		}
 
 		// tag StatementExtractionTest
 		// uncomment line below for StatementExtractionTest
 		//if (!statement.getStatementId().equals(initialSmtId)) System.out.println("ERROR stmt id " + initialSmtId + " has changed" );
-		
+
+		if (timed) {
+			listener.onStatementBuilt(System.nanoTime() - startNanos - hashNanos);
+		}
 		return statement;
 	}
 
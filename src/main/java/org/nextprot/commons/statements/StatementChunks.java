@@ -0,0 +1,71 @@
+package org.nextprot.commons.statements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+
+/**
+ * Processes contiguous chunks of statements in parallel on a shared executor (the first chunk in the calling thread),
+ * partial results being merged in the order of the chunks
+ */
+final class StatementChunks {
+
+	private final int threadCount;
+	private final int minChunkSize;
+	private final ExecutorService executor;
+
+	/**
+	 * @param threadCount the maximum number of chunks processed concurrently
+	 * @param minChunkSize the minimum number of statements of a chunk (smaller arrays are processed in the calling thread)
+	 * @param executor the executor processing the chunks, not shut down
+	 */
+	StatementChunks(int threadCount, int minChunkSize, ExecutorService executor) {
+
+		this.threadCount = threadCount;
+		this.minChunkSize = minChunkSize;
+		this.executor = executor;
+	}
+
+	<R> R process(Statement[] statements, Function<List<Statement>, R> processor, BinaryOperator<R> merger) {
+
+		int chunkCount = Math.max(1, Math.min(threadCount, statements.length / minChunkSize));
+		List<Statement> all = Arrays.asList(statements);
+
+		if (chunkCount == 1) {
+			return processor.apply(all);
+		}
+
+		List<Future<R>> futures = new ArrayList<>(chunkCount - 1);
+		try {
+			for (int i = 1; i < chunkCount; i++) {
+				List<Statement> chunk = all.subList((int) ((long) i * statements.length / chunkCount),
+						(int) ((long) (i + 1) * statements.length / chunkCount));
+				futures.add(executor.submit(() -> processor.apply(chunk)));
+			}
+
+			R result = processor.apply(all.subList(0, statements.length / chunkCount));
+			for (Future<R> future : futures) {
+				result = merger.apply(result, future.get());
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while processing statements", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("cannot process statements", e.getCause());
+		} finally {
+			for (Future<R> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package org.nextprot.commons.statements;
+
+import gnu.trove.list.array.TIntArrayList;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * An inverted index of the values of a field in a {@link StatementSet}, mapping each value to its row ids.
+ * Statements missing the field are indexed under the null value.
+ */
+final class StatementFieldIndex {
+
+	// hash map entry and reference to the value (shared with the statements)
+	private static final long ENTRY_SIZE = 48;
+
+	private final StatementField field;
+	private final Map<String, RowIdSet> rowIds;
+	private final long memoryUsage;
+
+	private StatementFieldIndex(StatementField field, Map<String, RowIdSet> rowIds) {
+
+		this.field = field;
+		this.rowIds = rowIds;
+
+		long size = 48;
+		for (RowIdSet ids : rowIds.values()) {
+			size += ENTRY_SIZE + ids.getMemoryUsage();
+		}
+		this.memoryUsage = size;
+	}
+
+	static StatementFieldIndex build(StatementField field, Statement[] rows) {
+
+		Map<String, TIntArrayList> ids = new HashMap<>();
+
+		for (int row = 0; row < rows.length; row++) {
+			ids.computeIfAbsent(rows[row].getValue(field), value -> new TIntArrayList()).add(row);
+		}
+
+		Map<String, RowIdSet> rowIds = new HashMap<>(ids.size() * 4 / 3 + 1);
+		for (Map.Entry<String, TIntArrayList> entry : ids.entrySet()) {
+			rowIds.put(entry.getKey(), RowIdSet.of(entry.getValue(), rows.length));
+		}
+		return new StatementFieldIndex(field, rowIds);
+	}
+
+	StatementField getField() {
+
+		return field;
+	}
+
+	/**
+	 * @return the row ids of the given value (null for statements missing the field)
+	 */
+	RowIdSet getRowIds(String value) {
+
+		return rowIds.getOrDefault(value, RowIdSet.EMPTY);
+	}
+
+	/**
+	 * @return the row ids by value
+	 */
+	Map<String, RowIdSet> getRowIds() {
+
+		return Collections.unmodifiableMap(rowIds);
+	}
+
+	/**
+	 * @return the estimated heap size in bytes
+	 */
+	long getMemoryUsage() {
+
+		return memoryUsage;
+	}
+}
@@ -0,0 +1,290 @@
+package org.nextprot.commons.statements;
+
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+
+/**
+ * A composable condition on statements, evaluated lazily by the views of {@link StatementSet#filter(StatementFilter)}.
+ *
+ * Field value conditions are answered from the field indexes of the filtered set when possible, other conditions
+ * being tested in a single pass over the remaining candidates.
+ */
+public abstract class StatementFilter {
+
+	/**
+	 * @return a filter accepting the statements having one of the given values (null for a missing field)
+	 */
+	public static StatementFilter in(StatementField field, String... values) {
+
+		return new In(field, new HashSet<>(Arrays.asList(values)));
+	}
+
+	/**
+	 * @return a filter accepting the statements satisfying the predicate
+	 */
+	public static StatementFilter matching(Predicate<Statement> predicate) {
+
+		return new Matching(Objects.requireNonNull(predicate));
+	}
+
+	public StatementFilter and(StatementFilter other) {
+
+		return new And(concat(this, other, And.class));
+	}
+
+	public StatementFilter or(StatementFilter other) {
+
+		return new Or(concat(this, other, Or.class));
+	}
+
+	public StatementFilter not() {
+
+		return new Not(this);
+	}
+
+	public abstract boolean test(Statement statement);
+
+	/**
+	 * @return a superset of the rows accepted by this filter computed from the indexes or null for all rows
+	 */
+	abstract BitSet selectCandidates(StatementSetIndexes indexes);
+
+	/**
+	 * @return true if the candidate rows are exactly the accepted ones (all conditions being indexed)
+	 */
+	abstract boolean isSelectedExactly(StatementSetIndexes indexes);
+
+	private static List<StatementFilter> concat(StatementFilter left, StatementFilter right, Class<? extends Composite> type) {
+
+		List<StatementFilter> filters = new ArrayList<>();
+
+		for (StatementFilter filter : Arrays.asList(left, right)) {
+			// flattened
+			if (type.isInstance(filter)) {
+				filters.addAll(((Composite) filter).filters);
+			}
+			else {
+				filters.add(filter);
+			}
+		}
+		return filters;
+	}
+
+	private static class In extends StatementFilter {
+
+		private final StatementField field;
+		private final Set<String> values;
+
+		private In(StatementField field, Set<String> values) {
+
+			this.field = field;
+			this.values = values;
+		}
+
+		@Override
+		public boolean test(Statement statement) {
+
+			return values.contains(statement.getValue(field));
+		}
+
+		@Override
+		BitSet selectCandidates(StatementSetIndexes indexes) {
+
+			StatementFieldIndex index = indexes.getIndex(field);
+
+			if (index == null) {
+				return null;
+			}
+
+			BitSet rows = new BitSet(indexes.getRows().length);
+			for (String value : values) {
+				index.getRowIds(value).addTo(rows);
+			}
+			return rows;
+		}
+
+		@Override
+		boolean isSelectedExactly(StatementSetIndexes indexes) {
+
+			return indexes.getIndex(field) != null;
+		}
+	}
+
+	private static class Matching extends StatementFilter {
+
+		private final Predicate<Statement> predicate;
+
+		private Matching(Predicate<Statement> predicate) {
+
+			this.predicate = predicate;
+		}
+
+		@Override
+		public boolean test(Statement statement) {
+
+			return predicate.test(statement);
+		}
+
+		@Override
+		BitSet selectCandidates(StatementSetIndexes indexes) {
+
+			return null;
+		}
+
+		@Override
+		boolean isSelectedExactly(StatementSetIndexes indexes) {
+
+			return false;
+		}
+	}
+
+	private static class Not extends StatementFilter {
+
+		private final StatementFilter filter;
+
+		private Not(StatementFilter filter) {
+
+			this.filter = filter;
+		}
+
+		@Override
+		public StatementFilter not() {
+
+			return filter;
+		}
+
+		@Override
+		public boolean test(Statement statement) {
+
+			return !filter.test(statement);
+		}
+
+		/**
+		 * @return the complement of the rows of the negated filter if selected exactly
+		 */
+		@Override
+		BitSet selectCandidates(StatementSetIndexes indexes) {
+
+			BitSet rows = filter.selectCandidates(indexes);
+
+			if (rows == null || !filter.isSelectedExactly(indexes)) {
+				return null;
+			}
+			rows.flip(0, indexes.getRows().length);
+			return rows;
+		}
+
+		@Override
+		boolean isSelectedExactly(StatementSetIndexes indexes) {
+
+			return filter.isSelectedExactly(indexes);
+		}
+	}
+
+	private abstract static class Composite extends StatementFilter {
+
+		final List<StatementFilter> filters;
+
+		private Composite(List<StatementFilter> filters) {
+
+			this.filters = Collections.unmodifiableList(filters);
+		}
+
+		@Override
+		boolean isSelectedExactly(StatementSetIndexes indexes) {
+
+			for (StatementFilter filter : filters) {
+				if (!filter.isSelectedExactly(indexes)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class And extends Composite {
+
+		private And(List<StatementFilter> filters) {
+
+			super(filters);
+		}
+
+		@Override
+		public boolean test(Statement statement) {
+
+			for (StatementFilter filter : filters) {
+				if (!filter.test(statement)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return the intersection of the rows of the indexed conditions
+		 */
+		@Override
+		BitSet selectCandidates(StatementSetIndexes indexes) {
+
+			BitSet rows = null;
+
+			for (StatementFilter filter : filters) {
+				BitSet selected = filter.selectCandidates(indexes);
+				if (selected == null) {
+					continue;
+				}
+				if (rows == null) {
+					rows = selected;
+				}
+				else {
+					rows.and(selected);
+				}
+			}
+			return rows;
+		}
+	}
+
+	private static class Or extends Composite {
+
+		private Or(List<StatementFilter> filters) {
+
+			super(filters);
+		}
+
+		@Override
+		public boolean test(Statement statement) {
+
+			for (StatementFilter filter : filters) {
+				if (filter.test(statement)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		BitSet selectCandidates(StatementSetIndexes indexes) {
+
+			BitSet rows = new BitSet(indexes.getRows().length);
+
+			for (StatementFilter filter : filters) {
+				BitSet selected = filter.selectCandidates(indexes);
+				if (selected == null) {
+					return null;
+				}
+				rows.or(selected);
+			}
+			return rows;
+		}
+	}
+}
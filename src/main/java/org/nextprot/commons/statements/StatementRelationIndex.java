@@ -0,0 +1,249 @@
+package org.nextprot.commons.statements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * A hash index of the statements of a {@link StatementSet} by STATEMENT_ID and ANNOTATION_ID, resolving
+ * the subject (SUBJECT_STATEMENT_IDS) and object (OBJECT_STATEMENT_IDS) statements of statements by their ids.
+ *
+ * The index is built once and joins of whole sets are done in parallel over chunks of statements, on a shared
+ * executor (the common fork-join pool by default), or in the calling thread for small sets.
+ */
+public class StatementRelationIndex {
+
+	private final StatementChunks chunks;
+	private final Map<String, Statement> byStatementId;
+	private final Map<String, List<Statement>> byAnnotationId;
+
+	private StatementRelationIndex(Builder builder) {
+
+		this.chunks = new StatementChunks(builder.threadCount, builder.minChunkSize, builder.executor);
+
+		Statement[] statements = builder.statements.toArray();
+
+		this.byStatementId = chunks.process(statements, chunk -> {
+			Map<String, Statement> index = new HashMap<>();
+			for (Statement statement : chunk) {
+				if (statement.getStatementId() != null) {
+					index.putIfAbsent(statement.getStatementId(), statement);
+				}
+			}
+			return index;
+		}, (index, other) -> {
+			// the first statement of an id is kept
+			other.forEach(index::putIfAbsent);
+			return index;
+		});
+
+		this.byAnnotationId = chunks.process(statements, chunk -> {
+			Map<String, List<Statement>> index = new HashMap<>();
+			for (Statement statement : chunk) {
+				if (statement.getAnnotationId() != null) {
+					index.computeIfAbsent(statement.getAnnotationId(), id -> new ArrayList<>(1)).add(statement);
+				}
+			}
+			return index;
+		}, (index, other) -> {
+			other.forEach((id, group) -> index.computeIfAbsent(id, k -> new ArrayList<>(group.size())).addAll(group));
+			return index;
+		});
+	}
+
+	/**
+	 * @return the statement of the given STATEMENT_ID or null if not indexed
+	 */
+	public Statement getStatement(String statementId) {
+
+		return byStatementId.get(statementId);
+	}
+
+	/**
+	 * @return the statements of the given ANNOTATION_ID in the order of the set
+	 */
+	public List<Statement> getStatementsByAnnotationId(String annotationId) {
+
+		return Collections.unmodifiableList(byAnnotationId.getOrDefault(annotationId, Collections.emptyList()));
+	}
+
+	/**
+	 * @return the subjects and object of the statement
+	 */
+	public Relations join(Statement statement) {
+
+		List<Statement> subjects = Collections.emptyList();
+		List<String> unresolvedIds = Collections.emptyList();
+
+		String[] subjectIds = statement.getSubjectStatementIdsArray();
+		if (subjectIds != null) {
+			subjects = new ArrayList<>(subjectIds.length);
+			for (String id : subjectIds) {
+				Statement subject = byStatementId.get(id.trim());
+				if (subject != null) {
+					subjects.add(subject);
+				}
+				else {
+					unresolvedIds = add(unresolvedIds, id.trim());
+				}
+			}
+		}
+
+		Statement object = null;
+		String objectId = statement.getObjectStatementId();
+		if (objectId != null) {
+			object = byStatementId.get(objectId.trim());
+			if (object == null) {
+				unresolvedIds = add(unresolvedIds, objectId.trim());
+			}
+		}
+		return new Relations(statement, subjects, object, unresolvedIds);
+	}
+
+	/**
+	 * Attach their subjects and object to the statements of the set
+	 * @return the relations of each statement in the order of the set
+	 */
+	public List<Relations> join(StatementSet statements) {
+
+		return chunks.process(statements.toArray(), chunk -> {
+			List<Relations> relations = new ArrayList<>(chunk.size());
+			for (Statement statement : chunk) {
+				relations.add(join(statement));
+			}
+			return relations;
+		}, (relations, other) -> {
+			relations.addAll(other);
+			return relations;
+		});
+	}
+
+	/**
+	 * Attach their subjects and object to the statements of the set having a modified subject
+	 * (see {@link Statement#hasModifiedSubject()})
+	 * @return the relations of the statements in the order of the set
+	 */
+	public List<Relations> joinModifiedSubjects(StatementSet statements) {
+
+		return join(statements.filter(Statement::hasModifiedSubject));
+	}
+
+	private static List<String> add(List<String> ids, String id) {
+
+		List<String> list = ids.isEmpty() ? new ArrayList<>(1) : ids;
+		list.add(id);
+		return list;
+	}
+
+	/**
+	 * A statement with its resolved subjects and object
+	 */
+	public static class Relations {
+
+		private final Statement statement;
+		private final List<Statement> subjects;
+		private final Statement object;
+		private final List<String> unresolvedIds;
+
+		private Relations(Statement statement, List<Statement> subjects, Statement object, List<String> unresolvedIds) {
+
+			this.statement = statement;
+			this.subjects = Collections.unmodifiableList(subjects);
+			this.object = object;
+			this.unresolvedIds = Collections.unmodifiableList(unresolvedIds);
+		}
+
+		public Statement getStatement() {
+
+			return statement;
+		}
+
+		/**
+		 * @return the resolved subjects in the order of SUBJECT_STATEMENT_IDS
+		 */
+		public List<Statement> getSubjects() {
+
+			return subjects;
+		}
+
+		/**
+		 * @return the resolved object or null
+		 */
+		public Statement getObject() {
+
+			return object;
+		}
+
+		/**
+		 * @return the subject and object ids not found in the index
+		 */
+		public List<String> getUnresolvedIds() {
+
+			return unresolvedIds;
+		}
+
+		public boolean isFullyResolved() {
+
+			return unresolvedIds.isEmpty();
+		}
+	}
+
+	public static class Builder {
+
+		private final StatementSet statements;
+		private int threadCount = Runtime.getRuntime().availableProcessors();
+		private int minChunkSize = 10000;
+		private ExecutorService executor = ForkJoinPool.commonPool();
+
+		/**
+		 * @param statements the statements to index
+		 */
+		public Builder(StatementSet statements) {
+
+			this.statements = statements;
+		}
+
+		/**
+		 * Set the maximum number of chunks of statements indexed or joined concurrently
+		 */
+		public Builder withThreads(int threadCount) {
+
+			if (threadCount <= 0) {
+				throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+			}
+			this.threadCount = threadCount;
+			return this;
+		}
+
+		/**
+		 * Set the minimum number of statements of a chunk (smaller sets are processed in the calling thread)
+		 */
+		public Builder withMinChunkSize(int minChunkSize) {
+
+			if (minChunkSize <= 0) {
+				throw new IllegalArgumentException("minChunkSize="+minChunkSize+": cannot define a negative (or 0) number for the chunk size");
+			}
+			this.minChunkSize = minChunkSize;
+			return this;
+		}
+
+		/**
+		 * Build the index and join sets on an external executor (instead of the common fork-join pool), not shut down by the index
+		 */
+		public Builder withExecutor(ExecutorService executor) {
+
+			this.executor = executor;
+			return this;
+		}
+
+		public StatementRelationIndex build() {
+
+			return new StatementRelationIndex(this);
+		}
+	}
+}
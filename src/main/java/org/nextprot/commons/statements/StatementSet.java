@@ -1,63 +1,240 @@
 package org.nextprot.commons.statements;
 
+import org.nextprot.commons.statements.sort.StatementSortKey;
 import org.nextprot.commons.statements.specs.StatementField;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+/**
+ * An ordered set of statements.
+ *
+ * Equality filters and counts by field are answered from per-field inverted indexes (value to compressed row ids),
+ * built on request with {@link #index(StatementField...)}; other fields are scanned. The indexes are bounded by a memory
+ * budget, the least recently used ones being dropped to fit it; a field whose index alone exceeds the budget is not indexed.
+ *
+ * Filters return views of the statements of this set, composed with the filters of their parent and evaluated once
+ * in a single pass when first needed (iteration, count...).
+ */
 public class StatementSet{
 
-	private LinkedHashSet<Statement> statements;
+	public static final long DEFAULT_INDEX_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+	private static final StatementAggregator AGGREGATOR = new StatementAggregator.Builder().build();
+
+	private final StatementSetIndexes indexes;
+	// null for all statements
+	private final StatementFilter filter;
+	private final Set<Statement> allStatements;
+	private volatile BitSet selectedRows;
+	private volatile Set<Statement> statements;
 
 	public StatementSet(Collection<Statement> statements){
-		this.statements = new LinkedHashSet<>(statements);
+		this.allStatements = Collections.unmodifiableSet(new LinkedHashSet<>(statements));
+		this.statements = allStatements;
+		this.indexes = new StatementSetIndexes(allStatements.toArray(new Statement[0]));
+		this.filter = null;
+	}
+
+	private StatementSet(StatementSet parent, StatementFilter filter) {
+		this.allStatements = parent.allStatements;
+		this.indexes = parent.indexes;
+		this.filter = (parent.filter != null) ? parent.filter.and(filter) : filter;
 	}
 
 	public boolean contains(Statement statement) {
-		return statements.contains(statement);
+		return allStatements.contains(statement) && (filter == null || filter.test(statement));
 	}
 
 	public boolean isEmpty() {
-		return statements.isEmpty();
+		return count() == 0;
 	}
 
 	public int count() {
-		return statements.size();
+		return (filter == null) ? allStatements.size() : getSelectedRows().cardinality();
 	}
 
+	/**
+	 * @return an unmodifiable view of the statements
+	 */
 	public Set<Statement> getStatements() {
+
+		if (statements == null) {
+			Set<Statement> selected = new LinkedHashSet<>();
+			forEach(selected::add);
+			statements = Collections.unmodifiableSet(selected);
+		}
 		return statements;
 	}
 
 	public Stream<Statement> stream() {
-		return statements.stream();
+
+		if (filter == null) {
+			return allStatements.stream();
+		}
+		Statement[] rows = indexes.getRows();
+		return getSelectedRows().stream().mapToObj(row -> rows[row]);
 	}
 
 	public void forEach(Consumer<Statement> action) {
-		statements.forEach(action);
+
+		if (filter == null) {
+			allStatements.forEach(action);
+		}
+		else {
+			Statement[] rows = indexes.getRows();
+			BitSet selected = getSelectedRows();
+			for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+				action.accept(rows[row]);
+			}
+		}
+	}
+
+	/**
+	 * Set the maximum estimated heap size of the field indexes (shared with the filtered views), dropping the least
+	 * recently used ones to fit it
+	 */
+	public void setIndexMemoryBudget(long indexMemoryBudget) {
+
+		if (indexMemoryBudget < 0) {
+			throw new IllegalArgumentException("indexMemoryBudget="+indexMemoryBudget+": cannot define a negative memory budget");
+		}
+		indexes.setMemoryBudget(indexMemoryBudget);
+	}
+
+	public long getIndexMemoryBudget() {
+		return indexes.getMemoryBudget();
+	}
+
+	/**
+	 * @return the estimated heap size of the field indexes in bytes
+	 */
+	public long getIndexMemoryUsage() {
+		return indexes.getMemoryUsage();
+	}
+
+	public Set<StatementField> getIndexedFields() {
+		return indexes.getIndexedFields();
+	}
+
+	/**
+	 * Build the indexes of the given fields now (within the memory budget)
+	 * @return this set
+	 */
+	public StatementSet index(StatementField... fields) {
+
+		for (StatementField field : fields) {
+			indexes.buildIndex(field);
+		}
+		return this;
 	}
 
 	// Utility
+
+	/**
+	 * @return the number of statements by value of the field (statements missing the field are counted under null)
+	 * @see StatementAggregator for other aggregations
+	 */
 	public Map<String, Long> countByField(StatementField field){
-		return statements.stream().map(s -> s.getValue(field))
-				.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
 
+		StatementFieldIndex index = (filter == null) ? indexes.getIndex(field) : null;
+
+		if (index != null) {
+			Map<String, Long> counts = new HashMap<>();
+			index.getRowIds().forEach((value, ids) -> counts.put(value, (long) ids.cardinality()));
+			return counts;
+		}
+		return AGGREGATOR.count(this, field);
 	}
+
+	/**
+	 * @return a view of the statements accepted by the filter, in order
+	 */
+	public StatementSet filter(StatementFilter filter) {
+		return new StatementSet(this, filter);
+	}
+
+	/**
+	 * @return a view of the statements satisfying the predicate, in order
+	 */
+	public StatementSet filter(Predicate<Statement> predicate) {
+		return filter(StatementFilter.matching(predicate));
+	}
+
+	/**
+	 * @return a view of the statements having one of the given values, in order
+	 */
 	public StatementSet filter(StatementField field, String ... possibleValues){
-		Set<String> possibleValuesSet = new LinkedHashSet<>(Arrays.asList(possibleValues));
-		return new StatementSet(statements.stream()
-				.filter(s -> possibleValuesSet.contains(s.getValue(field)))
-				.collect(Collectors.toSet()));
+		return filter(StatementFilter.in(field, possibleValues));
 	}
 
+	/**
+	 * @return a view of the statements not having the given value (including the ones missing the field), in order
+	 */
 	public StatementSet filterNot(StatementField field, String value) {
-		return new StatementSet(statements.stream()
-				.filter(s -> !value.equals(s.getValue(field)))
-				.collect(Collectors.toSet()));
+		return filter(StatementFilter.in(field, value).not());
 	}
 
+	/**
+	 * @return the statements ordered by the values of the given fields (missing values first), keys being encoded once per statement
+	 */
+	public StatementSet sort(StatementField... fields) {
+		return new StatementSet(Arrays.asList(StatementSortKey.of(fields).sort(getStatements())));
+	}
+
+	/**
+	 * @return the statements in order (not to be modified)
+	 */
+	Statement[] toArray() {
+
+		if (filter == null) {
+			return indexes.getRows();
+		}
+
+		Statement[] rows = indexes.getRows();
+		BitSet selected = getSelectedRows();
+		Statement[] statements = new Statement[selected.cardinality()];
 
+		for (int i = 0, row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+			statements[i++] = rows[row];
+		}
+		return statements;
+	}
+
+	/**
+	 * @return the rows accepted by the filter, evaluated once
+	 */
+	private BitSet getSelectedRows() {
+
+		if (selectedRows == null) {
+
+			BitSet candidates = filter.selectCandidates(indexes);
+
+			if (candidates == null || !filter.isSelectedExactly(indexes)) {
+
+				Statement[] rows = indexes.getRows();
+				BitSet selected = new BitSet(rows.length);
+
+				if (candidates == null) {
+					for (int row = 0; row < rows.length; row++) {
+						if (filter.test(rows[row])) {
+							selected.set(row);
+						}
+					}
+				}
+				else {
+					for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+						if (filter.test(rows[row])) {
+							selected.set(row);
+						}
+					}
+				}
+				candidates = selected;
+			}
+			selectedRows = candidates;
+		}
+		return selectedRows;
+	}
 }
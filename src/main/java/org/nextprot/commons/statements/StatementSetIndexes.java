@@ -0,0 +1,93 @@
+package org.nextprot.commons.statements;
+
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+
+/**
+ * The field indexes of the statements of a {@link StatementSet} (shared with its filtered views), bounded by a memory
+ * budget and dropped in least recently used order to fit it.
+ */
+final class StatementSetIndexes {
+
+	private final Statement[] rows;
+	// in access order
+	private final LinkedHashMap<StatementField, StatementFieldIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+	private final Set<StatementField> unindexableFields = new HashSet<>();
+	private long memoryBudget = StatementSet.DEFAULT_INDEX_MEMORY_BUDGET;
+	private long memoryUsage;
+
+	StatementSetIndexes(Statement[] rows) {
+
+		this.rows = rows;
+	}
+
+	Statement[] getRows() {
+
+		return rows;
+	}
+
+	synchronized void setMemoryBudget(long memoryBudget) {
+
+		this.memoryBudget = memoryBudget;
+		unindexableFields.clear();
+		evict();
+	}
+
+	synchronized long getMemoryBudget() {
+
+		return memoryBudget;
+	}
+
+	synchronized long getMemoryUsage() {
+
+		return memoryUsage;
+	}
+
+	synchronized Set<StatementField> getIndexedFields() {
+
+		return new HashSet<>(indexes.keySet());
+	}
+
+	/**
+	 * @return the index of the field or null if the field is scanned (not indexed)
+	 */
+	synchronized StatementFieldIndex getIndex(StatementField field) {
+
+		return indexes.get(field);
+	}
+
+	/**
+	 * Build the index of the field if not already built and fitting in the memory budget
+	 */
+	synchronized void buildIndex(StatementField field) {
+
+		if (!indexes.containsKey(field) && !unindexableFields.contains(field)) {
+
+			StatementFieldIndex index = StatementFieldIndex.build(field, rows);
+
+			// the field is scanned
+			if (index.getMemoryUsage() > memoryBudget) {
+				unindexableFields.add(field);
+				return;
+			}
+			indexes.put(field, index);
+			memoryUsage += index.getMemoryUsage();
+			evict();
+		}
+	}
+
+	private void evict() {
+
+		Iterator<StatementFieldIndex> lru = indexes.values().iterator();
+
+		while (memoryUsage > memoryBudget && lru.hasNext()) {
+			memoryUsage -= lru.next().getMemoryUsage();
+			lru.remove();
+		}
+	}
+}
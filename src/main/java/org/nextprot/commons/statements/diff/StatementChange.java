@@ -0,0 +1,107 @@
+package org.nextprot.commons.statements.diff;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A statement added, removed or changed between two releases
+ */
+public class StatementChange {
+
+	public enum Type {
+
+		ADDED,
+		REMOVED,
+		CHANGED
+	}
+
+	private final Type type;
+	private final Statement oldStatement;
+	private final Statement newStatement;
+	private final List<FieldDelta> fieldDeltas;
+
+	StatementChange(Type type, Statement oldStatement, Statement newStatement, List<FieldDelta> fieldDeltas) {
+
+		this.type = type;
+		this.oldStatement = oldStatement;
+		this.newStatement = newStatement;
+		this.fieldDeltas = Collections.unmodifiableList(fieldDeltas);
+	}
+
+	public Type getType() {
+
+		return type;
+	}
+
+	/**
+	 * @return the statement of the old release (null if added)
+	 */
+	public Statement getOldStatement() {
+
+		return oldStatement;
+	}
+
+	/**
+	 * @return the statement of the new release (null if removed)
+	 */
+	public Statement getNewStatement() {
+
+		return newStatement;
+	}
+
+	/**
+	 * @return the changed fields in field order (empty unless changed)
+	 */
+	public List<FieldDelta> getFieldDeltas() {
+
+		return fieldDeltas;
+	}
+
+	@Override
+	public String toString() {
+
+		return type + ((type == Type.CHANGED) ? " " + fieldDeltas : "");
+	}
+
+	/**
+	 * The old and new values of a field (null if missing)
+	 */
+	public static class FieldDelta {
+
+		private final StatementField field;
+		private final String oldValue;
+		private final String newValue;
+
+		FieldDelta(StatementField field, String oldValue, String newValue) {
+
+			this.field = field;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+
+		public StatementField getField() {
+
+			return field;
+		}
+
+		public String getOldValue() {
+
+			return oldValue;
+		}
+
+		public String getNewValue() {
+
+			return newValue;
+		}
+
+		@Override
+		public String toString() {
+
+			return field.getName() + ": " + oldValue + " -> " + newValue;
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package org.nextprot.commons.statements.diff;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.reader.StatementReader;
+import org.nextprot.commons.statements.sort.EncodedSortKey;
+import org.nextprot.commons.statements.sort.StatementSortKey;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Computes the statements added, removed or changed between two releases with a merge walk over two readers
+ * sorted by the same key, ANNOTATION_ID by default (see
+ * {@link org.nextprot.commons.statements.sort.ExternalStatementSorter} to sort a release).
+ *
+ * STATEMENT_ID is never compared: computed from all the fields of a statement, it differs as soon as any field
+ * changes. A diff keyed by STATEMENT_ID therefore reports changed statements as removed and added.
+ *
+ * Only the statements of the current key are held in memory. Statements sharing a key are matched
+ * unchanged first, then paired in order as changed, the remaining ones being removed or added.
+ * Readers not sorted by the key are reported with an IOException when the disorder is met.
+ */
+public class StatementDiff {
+
+	private final StatementSortKey key;
+	private final Set<String> ignoredFieldNames;
+
+	private StatementDiff(Builder builder) {
+
+		this.key = builder.key;
+		this.ignoredFieldNames = builder.ignoredFieldNames;
+	}
+
+	public StatementSortKey getKey() {
+
+		return key;
+	}
+
+	/**
+	 * Walk both readers (not closed) and pass each change to the handler in key order
+	 * @param oldReader the statements of the old release sorted by key
+	 * @param newReader the statements of the new release sorted by key
+	 * @return the number of statements by kind of change
+	 */
+	public Summary diff(StatementReader oldReader, StatementReader newReader, Handler handler) throws IOException {
+
+		Cursor olds = new Cursor(oldReader, "old");
+		Cursor news = new Cursor(newReader, "new");
+		Summary summary = new Summary();
+
+		while (olds.hasNext() || news.hasNext()) {
+
+			int cmp = !olds.hasNext() ? 1 : !news.hasNext() ? -1 : olds.headKey.compareTo(news.headKey);
+
+			if (cmp < 0) {
+				for (Statement statement : olds.nextGroup()) {
+					summary.removed++;
+					handler.onChange(new StatementChange(StatementChange.Type.REMOVED, statement, null, Collections.emptyList()));
+				}
+			}
+			else if (cmp > 0) {
+				for (Statement statement : news.nextGroup()) {
+					summary.added++;
+					handler.onChange(new StatementChange(StatementChange.Type.ADDED, null, statement, Collections.emptyList()));
+				}
+			}
+			else {
+				diff(olds.nextGroup(), news.nextGroup(), handler, summary);
+			}
+		}
+		return summary;
+	}
+
+	/**
+	 * @return the changes of the statements of both releases
+	 */
+	public List<StatementChange> diff(StatementReader oldReader, StatementReader newReader) throws IOException {
+
+		List<StatementChange> changes = new ArrayList<>();
+		diff(oldReader, newReader, changes::add);
+		return changes;
+	}
+
+	/**
+	 * @return the changed fields (not ignored) in field name order
+	 */
+	public List<StatementChange.FieldDelta> getFieldDeltas(Statement oldStatement, Statement newStatement) {
+
+		List<StatementChange.FieldDelta> deltas = new ArrayList<>();
+
+		Iterator<Map.Entry<StatementField, String>> olds = oldStatement.entrySet().iterator();
+		Iterator<Map.Entry<StatementField, String>> news = newStatement.entrySet().iterator();
+		Map.Entry<StatementField, String> oldField = next(olds);
+		Map.Entry<StatementField, String> newField = next(news);
+
+		// both are sorted by field name
+		while (oldField != null || newField != null) {
+
+			int cmp = (oldField == null) ? 1 : (newField == null) ? -1 : oldField.getKey().getName().compareTo(newField.getKey().getName());
+
+			if (cmp < 0) {
+				addDelta(deltas, oldField.getKey(), oldField.getValue(), null);
+				oldField = next(olds);
+			}
+			else if (cmp > 0) {
+				addDelta(deltas, newField.getKey(), null, newField.getValue());
+				newField = next(news);
+			}
+			else {
+				addDelta(deltas, newField.getKey(), oldField.getValue(), newField.getValue());
+				oldField = next(olds);
+				newField = next(news);
+			}
+		}
+		return deltas;
+	}
+
+	private void addDelta(List<StatementChange.FieldDelta> deltas, StatementField field, String oldValue, String newValue) {
+
+		if (!ignoredFieldNames.contains(field.getName()) && (oldValue == null ? newValue != null : !oldValue.equals(newValue))) {
+			deltas.add(new StatementChange.FieldDelta(field, oldValue, newValue));
+		}
+	}
+
+	private static Map.Entry<StatementField, String> next(Iterator<Map.Entry<StatementField, String>> fields) {
+
+		return fields.hasNext() ? fields.next() : null;
+	}
+
+	/**
+	 * Diff the statements of the same key
+	 */
+	private void diff(List<Statement> olds, List<Statement> news, Handler handler, Summary summary) throws IOException {
+
+		// common case
+		if (olds.size() == 1 && news.size() == 1) {
+			pair(olds.get(0), news.get(0), handler, summary);
+			return;
+		}
+
+		List<Statement> remainingNews = new ArrayList<>(news);
+		List<Statement> remainingOlds = new ArrayList<>();
+
+		for (Statement old : olds) {
+			int unchanged = -1;
+			for (int i = 0; i < remainingNews.size() && unchanged < 0; i++) {
+				if (getFieldDeltas(old, remainingNews.get(i)).isEmpty()) {
+					unchanged = i;
+				}
+			}
+			if (unchanged >= 0) {
+				remainingNews.remove(unchanged);
+				summary.unchanged++;
+			}
+			else {
+				remainingOlds.add(old);
+			}
+		}
+
+		int pairs = Math.min(remainingOlds.size(), remainingNews.size());
+		for (int i = 0; i < pairs; i++) {
+			pair(remainingOlds.get(i), remainingNews.get(i), handler, summary);
+		}
+		for (int i = pairs; i < remainingOlds.size(); i++) {
+			summary.removed++;
+			handler.onChange(new StatementChange(StatementChange.Type.REMOVED, remainingOlds.get(i), null, Collections.emptyList()));
+		}
+		for (int i = pairs; i < remainingNews.size(); i++) {
+			summary.added++;
+			handler.onChange(new StatementChange(StatementChange.Type.ADDED, null, remainingNews.get(i), Collections.emptyList()));
+		}
+	}
+
+	private void pair(Statement old, Statement statement, Handler handler, Summary summary) throws IOException {
+
+		List<StatementChange.FieldDelta> deltas = getFieldDeltas(old, statement);
+
+		if (deltas.isEmpty()) {
+			summary.unchanged++;
+		}
+		else {
+			summary.changed++;
+			handler.onChange(new StatementChange(StatementChange.Type.CHANGED, old, statement, deltas));
+		}
+	}
+
+	/**
+	 * The statements of a reader grouped by key
+	 */
+	private class Cursor {
+
+		private final String name;
+		private final BufferableStatementReader bufferable;
+		private final Iterator<Statement> iterator;
+		private Statement head;
+		private EncodedSortKey headKey;
+
+		private Cursor(StatementReader reader, String name) throws IOException {
+
+			this.name = name;
+
+			if (reader instanceof BufferableStatementReader) {
+				this.bufferable = (BufferableStatementReader) reader;
+				this.iterator = null;
+			}
+			else {
+				// all statements are read at once
+				this.bufferable = null;
+				this.iterator = reader.readStatements().iterator();
+			}
+			advance();
+		}
+
+		private boolean hasNext() {
+
+			return head != null;
+		}
+
+		/**
+		 * @return the statements of the head key
+		 */
+		private List<Statement> nextGroup() throws IOException {
+
+			List<Statement> group = new ArrayList<>(1);
+			EncodedSortKey groupKey = headKey;
+
+			do {
+				group.add(head);
+				advance();
+			} while (head != null && headKey.compareTo(groupKey) == 0);
+
+			if (head != null && headKey.compareTo(groupKey) < 0) {
+				throw new IOException("statements of the " + name + " reader are not sorted by " + key.getFields()
+						+ " (" + key.getFields().get(0).getName() + "=" + head.getValue(key.getFields().get(0)) + " after "
+						+ group.get(0).getValue(key.getFields().get(0)) + ")");
+			}
+			return group;
+		}
+
+		private void advance() throws IOException {
+
+			head = null;
+
+			if (bufferable != null) {
+				if (bufferable.hasStatement()) {
+					head = bufferable.nextStatement();
+				}
+			}
+			else if (iterator.hasNext()) {
+				head = iterator.next();
+			}
+			headKey = (head != null) ? key.encode(head) : null;
+		}
+	}
+
+	/**
+	 * Receives the changes in key order
+	 */
+	@FunctionalInterface
+	public interface Handler {
+
+		void onChange(StatementChange change) throws IOException;
+	}
+
+	/**
+	 * The number of statements by kind of change
+	 */
+	public static class Summary {
+
+		private long added;
+		private long removed;
+		private long changed;
+		private long unchanged;
+
+		public long getAdded() {
+
+			return added;
+		}
+
+		public long getRemoved() {
+
+			return removed;
+		}
+
+		public long getChanged() {
+
+			return changed;
+		}
+
+		public long getUnchanged() {
+
+			return unchanged;
+		}
+
+		@Override
+		public String toString() {
+
+			return "added=" + added + ", removed=" + removed + ", changed=" + changed + ", unchanged=" + unchanged;
+		}
+	}
+
+	public static class Builder {
+
+		private final StatementSortKey key;
+		private final Set<String> ignoredFieldNames = new HashSet<>(Collections.singleton(CoreStatementField.STATEMENT_ID.getName()));
+
+		/**
+		 * @param key the key both releases are sorted by
+		 */
+		public Builder(StatementSortKey key) {
+
+			this.key = key;
+		}
+
+		/**
+		 * @param keyFields the fields both releases are sorted by (ANNOTATION_ID by default)
+		 */
+		public Builder(StatementField... keyFields) {
+
+			this((keyFields.length == 0) ? StatementSortKey.of(CoreStatementField.ANNOTATION_ID) : StatementSortKey.of(keyFields));
+		}
+
+		/**
+		 * Do not compare the given fields (release specific values for instance), in addition to STATEMENT_ID
+		 */
+		public Builder ignoring(StatementField... fields) {
+
+			for (StatementField field : fields) {
+				ignoredFieldNames.add(field.getName());
+			}
+			return this;
+		}
+
+		public StatementDiff build() {
+
+			return new StatementDiff(this);
+		}
+	}
+}
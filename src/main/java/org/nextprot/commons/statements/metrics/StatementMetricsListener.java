@@ -0,0 +1,49 @@
+package org.nextprot.commons.statements.metrics;
+
+
+/**
+ * Receives measures from statement readers and builders.
+ *
+ * All methods do nothing by default. Readers and builders only read the clock when a listener other than
+ * {@link #NOOP} is set, so the default costs nothing.
+ * Implementations may be called concurrently by readers running on different threads.
+ */
+public interface StatementMetricsListener {
+
+	/** The listener ignoring all measures (default) */
+	StatementMetricsListener NOOP = new StatementMetricsListener() {};
+
+	/**
+	 * @param byteCount the number of bytes consumed by the parser (chars for char contents)
+	 */
+	default void onBytesRead(long byteCount) {}
+
+	/**
+	 * A statement object was tokenized (whether rejected by a filter or not)
+	 * @param nanos the time spent tokenizing it
+	 */
+	default void onStatementTokenized(long nanos) {}
+
+	/**
+	 * A statement was read
+	 */
+	default void onStatementRead() {}
+
+	/**
+	 * A statement was built
+	 * @param nanos the time spent building it, id hashing excluded
+	 */
+	default void onStatementBuilt(long nanos) {}
+
+	/**
+	 * The ids of a statement were computed
+	 * @param nanos the time spent hashing
+	 */
+	default void onIdsHashed(long nanos) {}
+
+	/**
+	 * A batch of statements was read
+	 * @param statementCount the number of statements in the batch
+	 */
+	default void onBatchRead(int statementCount) {}
+}
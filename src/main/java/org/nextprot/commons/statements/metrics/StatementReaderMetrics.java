@@ -0,0 +1,132 @@
+package org.nextprot.commons.statements.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Accumulates the measures of statement readers, safely shared between concurrent readers.
+ *
+ * Throughputs are computed over the time elapsed since this object was created.
+ * Batch sizes are counted in power of two buckets.
+ */
+public class StatementReaderMetrics implements StatementMetricsListener {
+
+	private static final int BUCKET_COUNT = Integer.SIZE;
+
+	private final long startNanos = System.nanoTime();
+
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder statementsTokenized = new LongAdder();
+	private final LongAdder statementsRead = new LongAdder();
+	private final LongAdder tokenizeNanos = new LongAdder();
+	private final LongAdder buildNanos = new LongAdder();
+	private final LongAdder hashNanos = new LongAdder();
+	// bucket 0 counts empty batches, bucket i > 0 counts sizes in [2^(i-1), 2^i[
+	private final AtomicLongArray batchSizeBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+	@Override
+	public void onBytesRead(long byteCount) {
+		bytesRead.add(byteCount);
+	}
+
+	@Override
+	public void onStatementTokenized(long nanos) {
+		statementsTokenized.increment();
+		tokenizeNanos.add(nanos);
+	}
+
+	@Override
+	public void onStatementRead() {
+		statementsRead.increment();
+	}
+
+	@Override
+	public void onStatementBuilt(long nanos) {
+		buildNanos.add(nanos);
+	}
+
+	@Override
+	public void onIdsHashed(long nanos) {
+		hashNanos.add(nanos);
+	}
+
+	@Override
+	public void onBatchRead(int statementCount) {
+		batchSizeBuckets.incrementAndGet(BUCKET_COUNT - Integer.numberOfLeadingZeros(statementCount));
+	}
+
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	/** @return the number of statement objects tokenized, including the ones rejected by filters */
+	public long getStatementsTokenized() {
+		return statementsTokenized.sum();
+	}
+
+	public long getStatementsRead() {
+		return statementsRead.sum();
+	}
+
+	public long getTokenizeTime(TimeUnit unit) {
+		return unit.convert(tokenizeNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/** @return the time spent building statements, id hashing excluded */
+	public long getBuildTime(TimeUnit unit) {
+		return unit.convert(buildNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getHashTime(TimeUnit unit) {
+		return unit.convert(hashNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getElapsedTime(TimeUnit unit) {
+		return unit.convert(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public double getStatementsPerSecond() {
+		return perSecond(getStatementsRead());
+	}
+
+	public double getBytesPerSecond() {
+		return perSecond(getBytesRead());
+	}
+
+	/**
+	 * @return the number of batches by lower bound of their size bucket (0, 1, 2, 4, 8, ...), empty buckets excluded
+	 */
+	public Map<Integer, Long> getBatchSizeHistogram() {
+
+		Map<Integer, Long> histogram = new TreeMap<>();
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			long count = batchSizeBuckets.get(i);
+			if (count > 0) {
+				histogram.put((i == 0) ? 0 : 1 << (i - 1), count);
+			}
+		}
+		return histogram;
+	}
+
+	private double perSecond(long count) {
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		return (elapsedNanos > 0) ? count * 1e9 / elapsedNanos : 0;
+	}
+
+	@Override
+	public String toString() {
+
+		return "statements=" + getStatementsRead() + " (" + String.format("%.1f", getStatementsPerSecond()) + "/s)"
+				+ ", bytes=" + getBytesRead() + " (" + String.format("%.1f", getBytesPerSecond()) + "/s)"
+				+ ", tokenize=" + getTokenizeTime(TimeUnit.MILLISECONDS) + "ms"
+				+ ", build=" + getBuildTime(TimeUnit.MILLISECONDS) + "ms"
+				+ ", hash=" + getHashTime(TimeUnit.MILLISECONDS) + "ms"
+				+ ", batch sizes=" + getBatchSizeHistogram();
+	}
+}
@@ -1,10 +1,19 @@
 package org.nextprot.commons.statements.reader;
 
 import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.metrics.StatementMetricsListener;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.StatementField;
 import org.nextprot.commons.statements.specs.StatementSpecifications;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -13,12 +22,86 @@ import java.util.List;
 public abstract class AbstractJsonStatementReader implements StatementReader {
 
 	private final StatementSpecifications specifications;
+	private Set<String> projection;
+	private StatementIdPolicy statementIdPolicy = StatementIdPolicy.recompute();
+	private StatementFieldFilter filter;
+	private StatementMetricsListener listener = StatementMetricsListener.NOOP;
+	private long statementCount;
 
 	public AbstractJsonStatementReader(StatementSpecifications specifications) {
 
 		this.specifications = specifications;
 	}
 
+	/**
+	 * Restrict the fields read to the given ones (should be set before reading).
+	 *
+	 * Values of the other fields are skipped by the parser without being decoded.
+	 * As ids cannot be computed again on partial content, statements keep the STATEMENT_ID and ANNOTATION_ID
+	 * found in the content, these fields being always part of the projection.
+	 *
+	 * @param fields the fields to read
+	 */
+	public void setProjection(Collection<? extends StatementField> fields) {
+
+		projection = new HashSet<>();
+		projection.add(CoreStatementField.STATEMENT_ID.getName());
+		projection.add(CoreStatementField.ANNOTATION_ID.getName());
+		fields.forEach(field -> projection.add(field.getName()));
+	}
+
+	public void setProjection(StatementField... fields) {
+
+		setProjection(Arrays.asList(fields));
+	}
+
+	/**
+	 * Set how the ids found in the content are handled (should be set before reading, default is to recompute them)
+	 */
+	public void setStatementIdPolicy(StatementIdPolicy statementIdPolicy) {
+
+		this.statementIdPolicy = statementIdPolicy;
+	}
+
+	public StatementIdPolicy getStatementIdPolicy() {
+
+		return statementIdPolicy;
+	}
+
+	/**
+	 * Only read statements satisfying the filter (should be set before reading).
+	 * Statements are skipped while parsing as soon as they are known to fail.
+	 */
+	public void setFilter(StatementFieldFilter filter) {
+
+		this.filter = filter;
+	}
+
+	/** @return the filter or null if all statements are read */
+	public StatementFieldFilter getFilter() {
+
+		return filter;
+	}
+
+	/**
+	 * Report bytes read, batch sizes and the time spent tokenizing, building and hashing statements to the given listener
+	 */
+	public void setListener(StatementMetricsListener listener) {
+
+		this.listener = listener;
+	}
+
+	public StatementMetricsListener getListener() {
+
+		return listener;
+	}
+
+	/** @return true if only a projection of the fields is read */
+	public boolean hasProjection() {
+
+		return projection != null;
+	}
+
 	@Override
 	public final StatementSpecifications getSpecifications() {
 		return specifications;
@@ -31,4 +114,67 @@ public abstract class AbstractJsonStatementReader implements StatementReader {
 		buffer.addAll(statements);
 		return statements.size();
 	}
+
+	/**
+	 * @return true if the value of the given json key has to be read
+	 */
+	protected boolean isFieldRead(String key) {
+
+		return projection == null || projection.contains(key);
+	}
+
+	/** @return the number of statements built so far */
+	long getStatementCount() {
+
+		return statementCount;
+	}
+
+	/** Set the number of statements built before the content read (when resuming a partially read content) */
+	void setStatementCount(long statementCount) {
+
+		this.statementCount = statementCount;
+	}
+
+	/**
+	 * Build the statement from the fields read
+	 * @throws IOException if a verified statement id does not match the content
+	 */
+	protected Statement buildStatement(StatementBuilder statementBuilder) throws IOException {
+
+		long statementIndex = statementCount++;
+		statementBuilder.withListener(listener);
+
+		if (hasProjection()) {
+			return statementBuilder.withTrustedIds().build();
+		}
+		if (statementIdPolicy.getMode() == StatementIdPolicy.Mode.RECOMPUTE) {
+			return statementBuilder.build();
+		}
+
+		Statement statement = statementBuilder.withTrustedIds().build();
+		String statementId = statement.getStatementId();
+
+		if (statementId == null || statementIdPolicy.isVerified(statementIndex)) {
+
+			Statement rebuilt = new StatementBuilder(statement).withListener(listener).build();
+
+			if (statementId != null && !statementId.equals(rebuilt.getStatementId())) {
+				throw new IOException("invalid statement id "+statementId+" at statement #"+statementIndex
+						+" (expected "+rebuilt.getStatementId()+")");
+			}
+			return rebuilt;
+		}
+		return statement;
+	}
+
+	/**
+	 * @return the field specified with the given json key or a new custom field if not specified
+	 */
+	protected StatementField getStatementField(String key) {
+
+		if (specifications.hasField(key)) {
+			return specifications.getField(key);
+		}
+		return new CustomStatementField(key);
+	}
 }
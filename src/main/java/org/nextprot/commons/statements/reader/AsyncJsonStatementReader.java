@@ -0,0 +1,225 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.nextprot.commons.io.GzipStreams;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+
+/**
+ * This reader reads statements from a json file without ever blocking a thread on I/O.
+ *
+ * Bytes are read through an {@code AsynchronousFileChannel} and fed into a jackson non-blocking parser.
+ * Statements are passed to a callback as soon as they are parsed, from the thread completing the I/O.
+ * Sharing the same executor between many readers lets a single thread multiplex many statement sources.
+ *
+ * Gzipped files are not decompressed (the non-blocking parser is fed the raw bytes) and are rejected with an
+ * IOException: read them with a {@link BufferedJsonStatementReader}.
+ */
+public class AsyncJsonStatementReader extends AbstractJsonStatementReader {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final AsynchronousFileChannel channel;
+	private final int bufferSize;
+	private final AtomicBoolean started = new AtomicBoolean(false);
+
+	public AsyncJsonStatementReader(Path path) throws IOException {
+
+		this(AsynchronousFileChannel.open(path, StandardOpenOption.READ), new Specifications.Builder().build(), DEFAULT_BUFFER_SIZE);
+	}
+
+	public AsyncJsonStatementReader(Path path, ExecutorService executor, StatementSpecifications specifications, int bufferSize) throws IOException {
+
+		this(AsynchronousFileChannel.open(path, Collections.singleton(StandardOpenOption.READ), executor), specifications, bufferSize);
+	}
+
+	public AsyncJsonStatementReader(AsynchronousFileChannel channel, StatementSpecifications specifications, int bufferSize) {
+
+		super(specifications);
+
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("bufferSize="+bufferSize+": cannot define a negative (or 0) number for the buffer size ");
+		}
+
+		this.channel = channel;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Start reading statements asynchronously and return immediately.
+	 *
+	 * @param consumer the callback receiving each statement in file order
+	 * @return a future completed with the number of statements read, or exceptionally if an error occurred
+	 * (the channel being closed)
+	 */
+	public CompletableFuture<Integer> readStatements(Consumer<Statement> consumer) {
+
+		CompletableFuture<Integer> future = new CompletableFuture<>();
+
+		if (!started.compareAndSet(false, true)) {
+			future.completeExceptionally(new IOException("Stream closed"));
+			return future;
+		}
+
+		try {
+			new ReadHandler(consumer, future).readFrom(0);
+		} catch (IOException | RuntimeException e) {
+			closeChannel(e);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Read all statements and wait for the end of the file
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		try {
+			readStatements(statements::add).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		return statements;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		channel.close();
+	}
+
+	private void closeChannel(Throwable cause) {
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Feed the parser with each chunk of bytes read and issue the next read
+	 */
+	private class ReadHandler implements CompletionHandler<Integer, Long> {
+
+		private final Consumer<Statement> consumer;
+		private final CompletableFuture<Integer> future;
+		private final byte[] bytes = new byte[bufferSize];
+		private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		private final JsonParser parser;
+		private final ByteArrayFeeder feeder;
+		private final JsonStatementAssembler assembler;
+		private boolean hasContent = false;
+		private int count = 0;
+
+		private ReadHandler(Consumer<Statement> consumer, CompletableFuture<Integer> future) throws IOException {
+
+			this.consumer = consumer;
+			this.future = future;
+			this.parser = new JsonFactory().createNonBlockingByteArrayParser();
+			this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+			this.assembler = new JsonStatementAssembler(AsyncJsonStatementReader.this);
+		}
+
+		private void readFrom(long position) {
+
+			buffer.clear();
+			channel.read(buffer, position, position, this);
+		}
+
+		@Override
+		public void completed(Integer bytesRead, Long position) {
+
+			try {
+				if (bytesRead < 0) {
+					feeder.endOfInput();
+					parseAvailableTokens();
+					parser.close();
+
+					if (!hasContent || assembler.isInStatement()) {
+						throw new IOException("not a valid json content");
+					}
+					future.complete(count);
+				}
+				else {
+					if (position == 0 && GzipStreams.isGzip(bytes, 0, bytesRead)) {
+						throw new IOException("cannot read a compressed content asynchronously");
+					}
+					feeder.feedInput(bytes, 0, bytesRead);
+					parseAvailableTokens();
+					readFrom(position + bytesRead);
+				}
+			} catch (IOException | RuntimeException e) {
+				fail(e);
+			}
+		}
+
+		@Override
+		public void failed(Throwable e, Long position) {
+
+			fail(e);
+		}
+
+		/**
+		 * Close the parser and the channel and complete the future with the error
+		 */
+		private void fail(Throwable cause) {
+
+			try {
+				parser.close();
+			} catch (IOException e) {
+				cause.addSuppressed(e);
+			}
+			closeChannel(cause);
+			future.completeExceptionally(cause);
+		}
+
+		/**
+		 * Parse the tokens of the bytes fed, the time waiting for the next bytes not being measured as tokenize time
+		 */
+		private void parseAvailableTokens() throws IOException {
+
+			assembler.resumeTimer();
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+
+				hasContent = true;
+				Statement statement = assembler.handleToken(parser, token);
+
+				if (statement != null) {
+					count++;
+					consumer.accept(statement);
+				}
+			}
+			assembler.pauseTimer();
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package org.nextprot.commons.statements.reader;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+import org.nextprot.commons.statements.writer.BinaryStatementWriter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * This reader reads statements written by {@link BinaryStatementWriter}, one by one or n at a time
+ * and close it self when all have been red.
+ *
+ * Statements are built as written, their ids are never computed again.
+ */
+public class BinaryStatementReader implements BufferableStatementReader {
+
+	private static final int DEFAULT_MAX_BUFFER_SIZE = 100;
+	private static final int DEFAULT_IO_BUFFER_SIZE = 64 * 1024;
+
+	private final DataInputStream in;
+	private final StatementSpecifications specifications;
+	private final int maxBufferSize;
+	private final List<StatementField> fields = new ArrayList<>();
+	// the current record
+	private byte[] record = new byte[1024];
+	private int recordLength;
+	private int position;
+	private boolean closed;
+
+	public BinaryStatementReader(InputStream inputStream) throws IOException {
+
+		this(inputStream, new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param inputStream the binary statements
+	 * @param specifications the specifications of the statements (fields are resolved by name)
+	 * @param maxBufferSize the maximum number of statements read at once
+	 */
+	public BinaryStatementReader(InputStream inputStream, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		if (maxBufferSize <= 0) {
+			throw new IllegalArgumentException("maxBufferSize="+maxBufferSize+": cannot define a negative (or 0) number for the buffer size ");
+		}
+
+		this.in = new DataInputStream(new BufferedInputStream(inputStream, DEFAULT_IO_BUFFER_SIZE));
+		this.specifications = specifications;
+		this.maxBufferSize = maxBufferSize;
+
+		try {
+			if (in.readInt() != BinaryStatementWriter.MAGIC_NUMBER) {
+				throw new IOException("not a binary statement content");
+			}
+			int version = in.readInt();
+			if (version != BinaryStatementWriter.VERSION) {
+				throw new IOException("unsupported binary statement version " + version);
+			}
+		} catch (EOFException e) {
+			throw new IOException("not a binary statement content", e);
+		}
+
+		readNextRecord();
+	}
+
+	public static BinaryStatementReader fromPath(Path path) throws IOException {
+
+		return new BinaryStatementReader(Files.newInputStream(path));
+	}
+
+	@Override
+	public StatementSpecifications getSpecifications() {
+
+		return specifications;
+	}
+
+	@Override
+	public boolean hasStatement() {
+
+		return !closed;
+	}
+
+	@Override
+	public Statement nextStatement() throws IOException {
+
+		if (closed) {
+			return null;
+		}
+
+		Statement statement = decodeRecord();
+
+		try {
+			readNextRecord();
+		} catch (EOFException e) {
+			close();
+			throw new IOException("not a valid binary statement content (unexpected end of content)", e);
+		}
+		return statement;
+	}
+
+	/**
+	 * @return a list of at most n statements
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		Statement statement;
+		while (statements.size() < maxBufferSize && (statement = nextStatement()) != null) {
+			statements.add(statement);
+		}
+		return statements;
+	}
+
+	/**
+	 * Read and push at most n statements into the buffer
+	 * @return the number of statements red or -1 if it was closed
+	 */
+	@Override
+	public int readStatements(List<Statement> buffer) throws IOException {
+
+		if (closed) {
+			return -1;
+		}
+
+		List<Statement> statements = readStatements();
+		buffer.addAll(statements);
+		return statements.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		closed = true;
+		in.close();
+	}
+
+	/** Read the next record or close at the end of content */
+	private void readNextRecord() throws IOException {
+
+		int first = in.read();
+
+		if (first < 0) {
+			close();
+			return;
+		}
+
+		int length = first & 0x7F;
+		for (int shift = 7, b = first; (b & 0x80) != 0; shift += 7) {
+			b = in.readUnsignedByte();
+			length |= (b & 0x7F) << shift;
+		}
+
+		if (length > record.length) {
+			record = new byte[Math.max(length, 2 * record.length)];
+		}
+		in.readFully(record, 0, length);
+		recordLength = length;
+		position = 0;
+	}
+
+	private Statement decodeRecord() throws IOException {
+
+		StatementBuilder builder = new StatementBuilder();
+
+		int fieldCount = readVarInt();
+		for (int i = 0; i < fieldCount; i++) {
+
+			StatementField field = readField();
+			int length = readVarInt() - 1;
+
+			builder.addField(field, (length < 0) ? null : readString(length));
+		}
+		if (position != recordLength) {
+			throw new IOException("not a valid binary statement content (record of " + recordLength + " bytes, " + position + " decoded)");
+		}
+		return builder.withTrustedIds().build();
+	}
+
+	private StatementField readField() throws IOException {
+
+		int ref = readVarInt();
+
+		if (ref > 0) {
+			if (ref > fields.size()) {
+				throw new IOException("not a valid binary statement content (undefined field #" + ref + ")");
+			}
+			return fields.get(ref - 1);
+		}
+
+		int kind = readByte();
+		String name = readString(readVarInt());
+		StatementField field;
+
+		if (kind == BinaryStatementWriter.CORE_FIELD && CoreStatementField.hasKey(name)) {
+			field = CoreStatementField.valueOf(name);
+		}
+		else if (specifications.hasField(name)) {
+			field = specifications.getField(name);
+		}
+		else {
+			field = new CustomStatementField(name, kind == BinaryStatementWriter.CUSTOM_UNICITY_FIELD);
+		}
+		fields.add(field);
+
+		return field;
+	}
+
+	private int readByte() throws IOException {
+
+		if (position >= recordLength) {
+			throw new IOException("not a valid binary statement content (truncated record)");
+		}
+		return record[position++] & 0xFF;
+	}
+
+	private int readVarInt() throws IOException {
+
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	private String readString(int length) throws IOException {
+
+		if (length > recordLength - position) {
+			throw new IOException("not a valid binary statement content (truncated record)");
+		}
+		String value = new String(record, position, length, StandardCharsets.UTF_8);
+		position += length;
+
+		return value;
+	}
+}
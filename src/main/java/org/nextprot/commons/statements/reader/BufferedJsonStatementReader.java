@@ -3,15 +3,24 @@ package org.nextprot.commons.statements.reader;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import org.nextprot.commons.io.GzipStreams;
 import org.nextprot.commons.statements.Statement;
-import org.nextprot.commons.statements.StatementBuilder;
-import org.nextprot.commons.statements.specs.CustomStatementField;
 import org.nextprot.commons.statements.specs.Specifications;
-import org.nextprot.commons.statements.specs.StatementField;
 import org.nextprot.commons.statements.specs.StatementSpecifications;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,8 +33,20 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 
 	private static final int DEFAULT_MAX_BUFFER_SIZE = 100;
 
+	private static final byte[] ARRAY_START = { '[' };
+
 	private final JsonParser parser;
+	private final JsonStatementAssembler assembler;
 	private final int maxBufferSize;
+	private final boolean inTopLevelArray;
+	// true if the parser content is inflated from a gzip content
+	private final boolean compressed;
+	// offset of the parser content in the underlying byte content
+	private long byteOffsetShift;
+	// the statement read ahead by hasStatement() and the position it was read from
+	private Statement nextStatement;
+	private long nextStatementByteOffset;
+	private long nextStatementCount;
 
 	public BufferedJsonStatementReader(Reader url) throws IOException {
 
@@ -39,10 +60,36 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 
 	public BufferedJsonStatementReader(Reader url, StatementSpecifications specifications, int maxBufferSize) throws IOException {
 
+		this(JsonParserSource.of(url), specifications, maxBufferSize);
+	}
+
+	public BufferedJsonStatementReader(InputStream inputStream) throws IOException {
+
+		this(JsonParserSource.of(inputStream), new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	public BufferedJsonStatementReader(InputStream inputStream, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		this(JsonParserSource.of(inputStream), specifications, maxBufferSize);
+	}
+
+	public BufferedJsonStatementReader(byte[] content, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		this(JsonParserSource.of(content), specifications, maxBufferSize);
+	}
+
+	public BufferedJsonStatementReader(ByteBuffer content, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		this(JsonParserSource.of(content), specifications, maxBufferSize);
+	}
+
+	BufferedJsonStatementReader(JsonParserSource source, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
 		super(specifications);
 		JsonFactory factory = new JsonFactory();
 
-		parser = factory.createParser(url);
+		parser = source.createParser(factory);
+		compressed = GzipStreams.isDecompressing(parser.getInputSource());
 
 		// consume and test the first token
 		JsonToken token = parser.nextToken();
@@ -51,6 +98,21 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 			throw new IOException("not a valid json content");
 		}
 
+		assembler = new JsonStatementAssembler(this);
+		assembler.handleToken(parser, token);
+		inTopLevelArray = token == JsonToken.START_ARRAY;
+
+		// position the parser on the first statement of the array
+		if (inTopLevelArray) {
+			token = parser.nextToken();
+			if (token != null) {
+				assembler.handleToken(parser, token);
+			}
+			if (token == null || token == JsonToken.END_ARRAY) {
+				parser.close();
+			}
+		}
+
 		if (maxBufferSize <= 0) {
 			throw new IllegalArgumentException("maxBufferSize="+maxBufferSize+": cannot define a negative (or 0) number for the buffer size ");
 		}
@@ -59,43 +121,174 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 	}
 
 	/**
+	 * Create a reader on a UTF-8 json file parsed directly from bytes
+	 * @param path the json file
+	 * @param specifications the statement specifications
+	 * @param maxBufferSize the maximum number of statements read at once
+	 * @param ioBufferSize the number of bytes read from the file at once
+	 */
+	public static BufferedJsonStatementReader fromPath(Path path, StatementSpecifications specifications, int maxBufferSize, int ioBufferSize) throws IOException {
+
+		return new BufferedJsonStatementReader(JsonParserSource.of(path, ioBufferSize), specifications, maxBufferSize);
+	}
+
+	public static BufferedJsonStatementReader fromPath(Path path) throws IOException {
+
+		return fromPath(path, new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE, JsonParserSource.DEFAULT_IO_BUFFER_SIZE);
+	}
+
+	/**
+	 * Resume reading a json file from a checkpoint, seeking the file to the checkpoint offset
+	 * @param path the json file the checkpoint was taken on
+	 * @param checkpoint the checkpoint
+	 * @param specifications the statement specifications
+	 * @param maxBufferSize the maximum number of statements read at once
+	 * @param ioBufferSize the number of bytes read from the file at once
+	 */
+	public static BufferedJsonStatementReader resume(Path path, StatementReaderCheckpoint checkpoint,
+	                                                 StatementSpecifications specifications, int maxBufferSize, int ioBufferSize) throws IOException {
+
+		if (GzipStreams.isGzip(path)) {
+			throw new IOException(path + ": cannot seek a compressed file");
+		}
+		return resume(Files.newByteChannel(path, StandardOpenOption.READ), checkpoint, specifications, maxBufferSize, ioBufferSize);
+	}
+
+	/**
+	 * Resume reading a json content from a checkpoint, seeking the channel to the checkpoint offset
+	 * @param channel the channel on the json content the checkpoint was taken on (closed with the reader)
+	 * @throws IOException if the channel content is gzipped
+	 */
+	public static BufferedJsonStatementReader resume(SeekableByteChannel channel, StatementReaderCheckpoint checkpoint,
+	                                                 StatementSpecifications specifications, int maxBufferSize, int ioBufferSize) throws IOException {
+
+		if (GzipStreams.isGzip(channel)) {
+			channel.close();
+			throw new IOException("cannot seek a compressed content");
+		}
+
+		if (checkpoint.isCompleted()) {
+			channel.close();
+			BufferedJsonStatementReader reader = new BufferedJsonStatementReader(JsonParserSource.of("[]".getBytes(StandardCharsets.UTF_8)), specifications, maxBufferSize);
+			reader.setStatementCount(checkpoint.getStatementCount());
+			return reader;
+		}
+
+		channel.position(checkpoint.getByteOffset());
+		InputStream inputStream = new BufferedInputStream(Channels.newInputStream(channel), ioBufferSize);
+
+		// restore the parser state: the next statement is an element of the top-level array
+		if (checkpoint.isInTopLevelArray()) {
+			inputStream = new SequenceInputStream(new ByteArrayInputStream(ARRAY_START), inputStream);
+		}
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(JsonParserSource.of(inputStream), specifications, maxBufferSize);
+		reader.byteOffsetShift = checkpoint.getByteOffset() - ((checkpoint.isInTopLevelArray()) ? ARRAY_START.length : 0);
+		reader.setStatementCount(checkpoint.getStatementCount());
+
+		return reader;
+	}
+
+	/**
+	 * Get the current position of this reader, always located between two statements
+	 * @return the checkpoint to resume reading from
+	 * @throws IllegalStateException if the content is not read from bytes, or is decompressed
+	 * (offsets in the decompressed content cannot be sought in the compressed one)
+	 */
+	public StatementReaderCheckpoint getCheckpoint() {
+
+		if (compressed) {
+			throw new IllegalStateException("checkpoints are not available on compressed content");
+		}
+
+		long offset;
+		long statementCount;
+
+		// resume from the statement read ahead
+		if (nextStatement != null) {
+			offset = nextStatementByteOffset;
+			statementCount = nextStatementCount;
+		}
+		else if (!hasToken()) {
+			return new StatementReaderCheckpoint(0, getStatementCount(), inTopLevelArray, true);
+		}
+		else {
+			offset = parser.getTokenLocation().getByteOffset();
+			statementCount = getStatementCount();
+		}
+
+		if (offset < 0) {
+			throw new IllegalStateException("checkpoints are only available on byte content");
+		}
+		return new StatementReaderCheckpoint(byteOffsetShift + offset, statementCount, inTopLevelArray, false);
+	}
+
+	/**
+	 * Read ahead the next statement accepted by the filter, if any
 	 * @return true if some more statements to read
 	 */
 	@Override
-	public boolean hasStatement() {
+	public boolean hasStatement() throws IOException {
 
-		return !parser.isClosed() && parser.getCurrentToken() != null
-				&& parser.getCurrentToken() != JsonToken.END_ARRAY;
+		if (nextStatement == null && hasToken()) {
+
+			nextStatementByteOffset = parser.getTokenLocation().getByteOffset();
+			nextStatementCount = getStatementCount();
+			nextStatement = readStatement();
+		}
+		return nextStatement != null;
 	}
 
+	/**
+	 * @return the next statement or null if no more statements
+	 */
 	@Override
 	public Statement nextStatement() throws IOException {
 
-		if (parser.isClosed()) {
+		if (!hasStatement()) {
 			return null;
 		}
 
-		StatementBuilder statementBuilder = new StatementBuilder();
+		Statement statement = nextStatement;
+		nextStatement = null;
 
-		JsonToken token;
-		while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+		return statement;
+	}
 
-			if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+	/**
+	 * @return true if the parser is positioned on a statement
+	 */
+	private boolean hasToken() {
 
-				String key = parser.getCurrentName();
-				String value = parser.getValueAsString();
-				statementBuilder.addField(getKey(key), value);
-			}
+		return !parser.isClosed() && parser.getCurrentToken() != null
+				&& parser.getCurrentToken() != JsonToken.END_ARRAY;
+	}
+
+	/**
+	 * @return the next statement accepted by the filter or null if no more statements
+	 */
+	private Statement readStatement() throws IOException {
+
+		Statement statement = null;
+
+		JsonToken token;
+		while (statement == null && (token = parser.nextToken()) != null) {
+
+			statement = assembler.handleToken(parser, token);
 		}
 
-		// consume next token (should be either null, } or ])
+		// consume next token (should be either null, { or ])
 		token = parser.nextToken();
 
+		if (token != null) {
+			assembler.handleToken(parser, token);
+		}
+
 		if (token == null || token == JsonToken.END_ARRAY) {
 			parser.close();
 		}
 
-		return statementBuilder.build();
+		return statement;
 	}
 
 	/**
@@ -118,6 +311,7 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 			}
 		}
 
+		getListener().onBatchRead(statements.size());
 		return statements;
 	}
 
@@ -129,7 +323,7 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 	@Override
 	public int readStatements(List<Statement> buffer) throws IOException {
 
-		if (parser.isClosed()) {
+		if (!hasStatement()) {
 			return -1;
 		}
 		return super.readStatements(buffer);
@@ -139,12 +333,4 @@ public class BufferedJsonStatementReader extends AbstractJsonStatementReader imp
 	public void close() throws IOException {
 		parser.close();
 	}
-
-	private StatementField getKey(String key) {
-
-		if (getSpecifications().hasField(key)) {
-			return getSpecifications().getField(key);
-		}
-		return new CustomStatementField(key);
-	}
 }
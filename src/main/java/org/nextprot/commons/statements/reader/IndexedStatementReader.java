@@ -0,0 +1,141 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reads the statements of a json dump by values of indexed fields, seeking and parsing only
+ * the byte ranges given by a {@link StatementOffsetIndex}.
+ */
+public class IndexedStatementReader extends AbstractJsonStatementReader {
+
+	private final FileChannel channel;
+	private final StatementOffsetIndex index;
+	private final JsonFactory factory = new JsonFactory();
+	private boolean isClosed = false;
+
+	/**
+	 * Create a reader on a dump indexed in its sidecar file
+	 * @param dump the json dump
+	 * @throws IOException if the sidecar index cannot be read or is out of date
+	 */
+	public IndexedStatementReader(Path dump) throws IOException {
+
+		this(dump, StatementOffsetIndex.read(StatementOffsetIndex.getSidecarPath(dump)), new Specifications.Builder().build());
+	}
+
+	public IndexedStatementReader(Path dump, StatementOffsetIndex index, StatementSpecifications specifications) throws IOException {
+
+		super(specifications);
+
+		if (!index.isUpToDate(dump)) {
+			throw new IOException(dump + ": the statement offset index is out of date");
+		}
+
+		this.channel = FileChannel.open(dump, StandardOpenOption.READ);
+		this.index = index;
+	}
+
+	public StatementOffsetIndex getIndex() {
+
+		return index;
+	}
+
+	/**
+	 * @return the statements having the given value for an indexed field, in dump order
+	 */
+	public List<Statement> readStatements(StatementField field, String value) throws IOException {
+
+		if (isClosed) {
+			throw new IOException("Stream closed");
+		}
+
+		List<Statement> statements = new ArrayList<>();
+
+		for (StatementOffsetIndex.ByteRange range : index.getByteRanges(field, value)) {
+
+			Statement statement = readStatement(range);
+			if (statement != null) {
+				statements.add(statement);
+			}
+		}
+		getListener().onBatchRead(statements.size());
+		return statements;
+	}
+
+	/**
+	 * @return all statements having a value for the first indexed field, sorted by this value
+	 * (the reader is then closed)
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		if (isClosed) {
+			throw new IOException("Stream closed");
+		}
+
+		StatementField field = getStatementField(index.getIndexedFieldNames().get(0));
+
+		List<Statement> statements = new ArrayList<>();
+		for (String value : index.getValues(field)) {
+			statements.addAll(readStatements(field, value));
+		}
+		close();
+
+		return statements;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		isClosed = true;
+		channel.close();
+	}
+
+	/**
+	 * @return the statement of the given range or null if rejected by the filter
+	 */
+	private Statement readStatement(StatementOffsetIndex.ByteRange range) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(range.getLength());
+		long position = range.getOffset();
+
+		while (buffer.hasRemaining()) {
+			int count = channel.read(buffer, position);
+			if (count < 0) {
+				throw new EOFException("unexpected end of dump at offset " + position + " while reading " + range);
+			}
+			position += count;
+		}
+
+		try (JsonParser parser = factory.createParser(buffer.array())) {
+
+			JsonStatementAssembler assembler = new JsonStatementAssembler(this);
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+
+				Statement statement = assembler.handleToken(parser, token);
+				if (statement != null) {
+					return statement;
+				}
+			}
+		}
+		return null;
+	}
+}
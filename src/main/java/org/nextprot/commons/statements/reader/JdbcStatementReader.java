@@ -0,0 +1,397 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+/**
+ * This reader streams statements from a nxflat table (RAW_STATEMENTS or ENTRY_MAPPED_STATEMENTS) with a JDBC query.
+ *
+ * The query is executed when statements are first read, with a forward only cursor fetching rows by fetch size
+ * (in a transaction so that PostgreSQL does not materialize the whole result).
+ * Columns are resolved once from the result metadata and the custom fields packed in EXTRA_FIELDS are decoded
+ * with a shared json factory.
+ *
+ * Ids stored in the table are trusted by default (see {@link #setStatementIdPolicy(StatementIdPolicy)}).
+ */
+public class JdbcStatementReader extends AbstractJsonStatementReader implements BufferableStatementReader {
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final DataSource dataSource;
+	private final String table;
+	private final NXFlatTableSchema schema;
+	private final String condition;
+	private final Object[] parameters;
+	private final int fetchSize;
+	private final int maxBufferSize;
+
+	private Connection connection;
+	private PreparedStatement query;
+	private ResultSet resultSet;
+	// the statement field of each column (the EXTRA_FIELDS column and skipped ones are null)
+	private StatementField[] columnFields;
+	private int extraFieldsColumn;
+	private Map<String, String> filteredValues;
+	private boolean hasRow;
+	private boolean closed;
+	// the statement read ahead by hasStatement()
+	private Statement nextStatement;
+
+	private JdbcStatementReader(Builder builder) {
+
+		super(builder.specifications);
+
+		this.dataSource = builder.dataSource;
+		this.table = (builder.schemaName != null) ? builder.schemaName + "." + builder.tableName : builder.tableName;
+		this.schema = builder.schema;
+		this.condition = builder.condition;
+		this.parameters = builder.parameters;
+		this.fetchSize = builder.fetchSize;
+		this.maxBufferSize = builder.maxBufferSize;
+
+		setStatementIdPolicy(StatementIdPolicy.trust());
+	}
+
+	/** @return the query selecting the rows (only the columns of the projection if any) */
+	public String getQuery() {
+
+		String columns = schema.getColumnNames().stream()
+				.filter(column -> column.equals(Specifications.EXTRA_FIELDS) || isColumnRead(column))
+				.collect(Collectors.joining(", "));
+
+		return "SELECT " + columns + " FROM " + table + ((condition != null) ? " WHERE " + condition : "");
+	}
+
+	/**
+	 * Read ahead the next statement accepted by the filter, if any (closing this reader after the last row)
+	 * @return true if some more statements to read
+	 */
+	@Override
+	public boolean hasStatement() throws IOException {
+
+		if (nextStatement != null) {
+			return true;
+		}
+		if (closed) {
+			return false;
+		}
+		if (resultSet == null) {
+			open();
+		}
+
+		try {
+			while (nextStatement == null && hasRow) {
+
+				nextStatement = readRow();
+				hasRow = resultSet.next();
+			}
+		} catch (SQLException e) {
+			throw new IOException("cannot read statements from " + table, e);
+		}
+
+		if (!hasRow) {
+			close();
+		}
+		return nextStatement != null;
+	}
+
+	/**
+	 * @return the next statement or null if no more statements
+	 */
+	@Override
+	public Statement nextStatement() throws IOException {
+
+		if (!hasStatement()) {
+			return null;
+		}
+
+		Statement statement = nextStatement;
+		nextStatement = null;
+
+		return statement;
+	}
+
+	/**
+	 * @return a list of at most n statements
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		Statement statement;
+		while (statements.size() < maxBufferSize && (statement = nextStatement()) != null) {
+			statements.add(statement);
+		}
+
+		getListener().onBatchRead(statements.size());
+		return statements;
+	}
+
+	/**
+	 * Read and push at most n statements into the buffer
+	 * @return the number of statements red or -1 if no more statements
+	 */
+	@Override
+	public int readStatements(List<Statement> buffer) throws IOException {
+
+		if (!hasStatement()) {
+			return -1;
+		}
+		return super.readStatements(buffer);
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+		hasRow = false;
+
+		if (connection != null) {
+			try {
+				// only a read
+				connection.rollback();
+				connection.close();
+			} catch (SQLException e) {
+				throw new IOException("cannot close the connection", e);
+			}
+		}
+	}
+
+	private void open() throws IOException {
+
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+
+			query = connection.prepareStatement(getQuery(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			query.setFetchSize(fetchSize);
+			for (int i = 0; i < parameters.length; i++) {
+				query.setObject(i + 1, parameters[i]);
+			}
+
+			resultSet = query.executeQuery();
+			resolveColumns(resultSet.getMetaData());
+			hasRow = resultSet.next();
+		} catch (SQLException e) {
+			close();
+			throw new IOException("cannot query " + table, e);
+		}
+		if (!hasRow) {
+			close();
+		}
+	}
+
+	private void resolveColumns(ResultSetMetaData metaData) throws SQLException {
+
+		columnFields = new StatementField[metaData.getColumnCount() + 1];
+		extraFieldsColumn = -1;
+
+		for (int i = 1; i <= metaData.getColumnCount(); i++) {
+
+			String column = metaData.getColumnLabel(i).toUpperCase();
+
+			if (column.equals(Specifications.EXTRA_FIELDS)) {
+				extraFieldsColumn = i;
+			}
+			else if (isColumnRead(column)) {
+				columnFields[i] = getStatementField(column);
+			}
+		}
+
+		if (getFilter() != null) {
+			filteredValues = new HashMap<>();
+		}
+	}
+
+	private boolean isColumnRead(String column) {
+
+		return isFieldRead(column) || (getFilter() != null && getFilter().hasCondition(column));
+	}
+
+	/**
+	 * @return the statement of the current row or null if rejected by the filter
+	 */
+	private Statement readRow() throws SQLException, IOException {
+
+		StatementBuilder builder = new StatementBuilder();
+
+		for (int i = 1; i < columnFields.length; i++) {
+
+			if (columnFields[i] != null) {
+				addField(builder, columnFields[i], resultSet.getString(i));
+			}
+		}
+		if (extraFieldsColumn > 0) {
+			String extraFields = resultSet.getString(extraFieldsColumn);
+			if (extraFields != null) {
+				readExtraFields(builder, extraFields);
+			}
+		}
+
+		if (filteredValues != null) {
+			boolean accepted = getFilter().getFieldNames().stream()
+					.allMatch(name -> getFilter().test(name, filteredValues.get(name)));
+			filteredValues.clear();
+
+			if (!accepted) {
+				return null;
+			}
+		}
+
+		Statement statement = buildStatement(builder);
+		getListener().onStatementRead();
+		return statement;
+	}
+
+	/**
+	 * Decode the json object of custom field values
+	 */
+	private void readExtraFields(StatementBuilder builder, String extraFields) throws IOException {
+
+		try (JsonParser parser = jsonFactory.createParser(extraFields)) {
+
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException(Specifications.EXTRA_FIELDS + "=" + extraFields + ": not a json object");
+			}
+
+			JsonToken token;
+			while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+
+				String key = parser.getCurrentName();
+				token = parser.nextToken();
+
+				if (token.isStructStart()) {
+					throw new IOException(Specifications.EXTRA_FIELDS + "=" + extraFields + ": the value of " + key + " is not a scalar");
+				}
+				if (isColumnRead(key)) {
+					addField(builder, getStatementField(key), (token == JsonToken.VALUE_NULL) ? null : parser.getValueAsString());
+				}
+			}
+			if (token != JsonToken.END_OBJECT) {
+				throw new IOException(Specifications.EXTRA_FIELDS + "=" + extraFields + ": not a json object");
+			}
+		}
+	}
+
+	private void addField(StatementBuilder builder, StatementField field, String value) {
+
+		if (filteredValues != null && getFilter().hasCondition(field.getName())) {
+			filteredValues.put(field.getName(), value);
+		}
+		if (value != null && isFieldRead(field.getName())) {
+			builder.addField(field, value);
+		}
+	}
+
+	public static class Builder {
+
+		private final DataSource dataSource;
+		private final String tableName;
+		private NXFlatTableSchema schema = new NXFlatTableSchema();
+		private StatementSpecifications specifications = new Specifications.Builder().build();
+		private String schemaName = "nxflat";
+		private String condition;
+		private Object[] parameters = new Object[0];
+		private int fetchSize = 1000;
+		private int maxBufferSize = 100;
+
+		/**
+		 * @param dataSource the source of connections
+		 * @param tableName the table name (see {@link org.nextprot.commons.statements.constants.StatementTableNames})
+		 */
+		public Builder(DataSource dataSource, String tableName) {
+
+			this.dataSource = dataSource;
+			this.tableName = tableName;
+		}
+
+		public Builder withTableSchema(NXFlatTableSchema schema) {
+
+			this.schema = schema;
+			return this;
+		}
+
+		/**
+		 * Set the specifications of the statements read (custom fields not specified are read as new custom fields)
+		 */
+		public Builder withSpecifications(StatementSpecifications specifications) {
+
+			this.specifications = specifications;
+			return this;
+		}
+
+		/**
+		 * Set the database schema of the table (default is nxflat, null for none)
+		 */
+		public Builder withSchemaName(String schemaName) {
+
+			this.schemaName = schemaName;
+			return this;
+		}
+
+		/**
+		 * Only read the rows satisfying the given sql condition
+		 * @param condition the where clause (without WHERE) with optional ? parameters
+		 * @param parameters the values of the parameters
+		 */
+		public Builder withCondition(String condition, Object... parameters) {
+
+			this.condition = condition;
+			this.parameters = parameters;
+			return this;
+		}
+
+		/**
+		 * Set the number of rows fetched from the database at once
+		 */
+		public Builder withFetchSize(int fetchSize) {
+
+			if (fetchSize <= 0) {
+				throw new IllegalArgumentException("fetchSize="+fetchSize+": cannot define a negative (or 0) number for the fetch size");
+			}
+			this.fetchSize = fetchSize;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of statements returned by {@link #readStatements()}
+		 */
+		public Builder withMaxBufferSize(int maxBufferSize) {
+
+			if (maxBufferSize <= 0) {
+				throw new IllegalArgumentException("maxBufferSize="+maxBufferSize+": cannot define a negative (or 0) number for the buffer size");
+			}
+			this.maxBufferSize = maxBufferSize;
+			return this;
+		}
+
+		public JdbcStatementReader build() {
+
+			return new JdbcStatementReader(this);
+		}
+	}
+}
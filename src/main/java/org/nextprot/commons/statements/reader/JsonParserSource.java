@@ -0,0 +1,106 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.UTF8StreamJsonParser;
+import com.fasterxml.jackson.core.sym.ByteQuadsCanonicalizer;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.nextprot.commons.io.GzipStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * A json content the statement readers can create a parser on.
+ *
+ * Byte sources are given to the jackson byte-based UTF-8 parser without any intermediate decoding to chars.
+ * Gzipped byte sources are detected and decompressed transparently (see {@link GzipStreams}).
+ */
+@FunctionalInterface
+interface JsonParserSource {
+
+	int DEFAULT_IO_BUFFER_SIZE = 64 * 1024;
+
+	/** @return a new parser on this json content */
+	JsonParser createParser(JsonFactory factory) throws IOException;
+
+	static JsonParserSource of(Reader reader) {
+
+		return factory -> factory.createParser(reader);
+	}
+
+	static JsonParserSource of(InputStream inputStream) {
+
+		return factory -> factory.createParser(GzipStreams.decompress(inputStream));
+	}
+
+	static JsonParserSource of(byte[] content) {
+
+		if (GzipStreams.isGzip(content, 0, content.length)) {
+			return of(new ByteArrayInputStream(content));
+		}
+		return factory -> factory.createParser(content);
+	}
+
+	static JsonParserSource of(ByteBuffer content) {
+
+		if (content.hasArray() && GzipStreams.isGzip(content.array(), content.arrayOffset() + content.position(), content.remaining())) {
+			return of(new ByteArrayInputStream(content.array(), content.arrayOffset() + content.position(), content.remaining()));
+		}
+		if (content.hasArray()) {
+			return factory -> factory.createParser(content.array(), content.arrayOffset() + content.position(), content.remaining());
+		}
+		return of(new ByteBufferBackedInputStream(content.duplicate()));
+	}
+
+	/**
+	 * @param path the json file
+	 * @param ioBufferSize the number of bytes the parser reads from the file at once
+	 */
+	static JsonParserSource of(Path path, int ioBufferSize) {
+
+		if (ioBufferSize <= 0) {
+			throw new IllegalArgumentException("ioBufferSize="+ioBufferSize+": cannot define a negative (or 0) number for the buffer size ");
+		}
+		return factory -> {
+			InputStream inputStream = Files.newInputStream(path);
+
+			return createParser(factory, (GzipStreams.isGzip(path)) ? GzipStreams.decompress(inputStream) : inputStream, ioBufferSize);
+		};
+	}
+
+	/**
+	 * Create the jackson UTF-8 parser directly on its own input buffer of the given size
+	 * (jackson otherwise reads through a recycled buffer of 8000 bytes whatever the stream buffering)
+	 */
+	static JsonParser createParser(JsonFactory factory, InputStream inputStream, int ioBufferSize) {
+
+		int parserFeatures = 0;
+		for (JsonParser.Feature feature : JsonParser.Feature.values()) {
+			if (factory.isEnabled(feature)) {
+				parserFeatures |= feature.getMask();
+			}
+		}
+
+		int factoryFeatures = 0;
+		for (JsonFactory.Feature feature : JsonFactory.Feature.values()) {
+			if (factory.isEnabled(feature)) {
+				factoryFeatures |= feature.getMask();
+			}
+		}
+
+		IOContext context = new IOContext(factory._getBufferRecycler(), inputStream, true);
+		context.setEncoding(JsonEncoding.UTF8);
+
+		return new UTF8StreamJsonParser(context, parserFeatures, inputStream, factory.getCodec(),
+				ByteQuadsCanonicalizer.createRoot().makeChild(factoryFeatures), new byte[ioBufferSize], 0, 0, false);
+	}
+}
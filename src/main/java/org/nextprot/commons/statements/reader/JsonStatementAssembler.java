@@ -0,0 +1,192 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.metrics.StatementMetricsListener;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Assembles statements from json tokens pushed one at a time.
+ *
+ * Statements are json objects expected either as a single top-level object or as the elements of a top-level array.
+ * As the state is kept between tokens, this class also works with non-blocking parsers that may stop anywhere.
+ * Nested objects or arrays found as field values are skipped, as are the values of fields out of the reader projection
+ * and the rest of statements rejected by the reader filter.
+ */
+class JsonStatementAssembler {
+
+	private final AbstractJsonStatementReader reader;
+	private final Set<String> testedKeys = new HashSet<>();
+
+	private boolean inTopLevelArray;
+	private int nestedDepth;
+	private StatementBuilder statementBuilder;
+	private StatementField currentField;
+	private String currentKey;
+	private boolean skipValue;
+	private boolean rejected;
+	// metrics
+	private long statementStartNanos;
+	// the tokenize time of the current statement before the timer was paused
+	private long statementTokenizeNanos;
+	private long lastReportedOffset;
+
+	JsonStatementAssembler(AbstractJsonStatementReader reader) {
+
+		this.reader = reader;
+	}
+
+	/**
+	 * Handle the current token of the parser
+	 *
+	 * @param parser the parser positioned on the token
+	 * @param token the token to handle
+	 * @return the statement completed with this token or null
+	 * @throws IOException if the token is not expected
+	 */
+	Statement handleToken(JsonParser parser, JsonToken token) throws IOException {
+
+		if (statementBuilder == null) {
+			handleTokenOutsideStatement(token);
+
+			if (statementBuilder != null && reader.getListener() != StatementMetricsListener.NOOP) {
+				statementStartNanos = System.nanoTime();
+				statementTokenizeNanos = 0;
+			}
+			return null;
+		}
+
+		if (nestedDepth > 0) {
+			if (token.isStructStart()) nestedDepth++;
+			else if (token.isStructEnd()) nestedDepth--;
+			return null;
+		}
+
+		if (token == JsonToken.END_OBJECT) {
+			StatementBuilder builder = statementBuilder;
+			statementBuilder = null;
+
+			if (reader.getListener() != StatementMetricsListener.NOOP) {
+				reportStatementTokenized(parser, reader.getListener());
+			}
+
+			if (rejected || !acceptMissingFields()) {
+				return null;
+			}
+
+			Statement statement = reader.buildStatement(builder);
+			reader.getListener().onStatementRead();
+			return statement;
+		}
+		if (token.isStructStart()) {
+			nestedDepth++;
+		}
+		// the rest of a rejected statement is skipped
+		else if (rejected) {
+			return null;
+		}
+		else if (token == JsonToken.FIELD_NAME) {
+			currentKey = parser.getCurrentName();
+			skipValue = !reader.isFieldRead(currentKey) && !isFiltered(currentKey);
+			currentField = (skipValue) ? null : reader.getStatementField(currentKey);
+		}
+		// skipped values are never decoded by the parser
+		else if (token.isScalarValue() && !skipValue) {
+			String value = parser.getValueAsString();
+
+			if (isFiltered(currentKey)) {
+				testedKeys.add(currentKey);
+				rejected = !reader.getFilter().test(currentKey, value);
+
+				if (rejected || !reader.isFieldRead(currentKey)) {
+					return null;
+				}
+			}
+			statementBuilder.addField(currentField, value);
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if a statement is being assembled
+	 */
+	boolean isInStatement() {
+
+		return statementBuilder != null;
+	}
+
+	/**
+	 * Stop measuring the tokenize time of the current statement (while a non-blocking parser waits for input)
+	 */
+	void pauseTimer() {
+
+		if (statementBuilder != null && reader.getListener() != StatementMetricsListener.NOOP) {
+			statementTokenizeNanos += System.nanoTime() - statementStartNanos;
+		}
+	}
+
+	/**
+	 * Resume measuring the tokenize time of the current statement (once input was fed to a non-blocking parser)
+	 */
+	void resumeTimer() {
+
+		if (statementBuilder != null && reader.getListener() != StatementMetricsListener.NOOP) {
+			statementStartNanos = System.nanoTime();
+		}
+	}
+
+	private void reportStatementTokenized(JsonParser parser, StatementMetricsListener listener) {
+
+		listener.onStatementTokenized(statementTokenizeNanos + System.nanoTime() - statementStartNanos);
+
+		long offset = parser.getCurrentLocation().getByteOffset();
+		if (offset < 0) {
+			offset = parser.getCurrentLocation().getCharOffset();
+		}
+		listener.onBytesRead(offset - lastReportedOffset);
+		lastReportedOffset = offset;
+	}
+
+	private boolean isFiltered(String key) {
+
+		return reader.getFilter() != null && reader.getFilter().hasCondition(key);
+	}
+
+	/** @return true if the filter accepts the fields missing in the statement */
+	private boolean acceptMissingFields() {
+
+		StatementFieldFilter filter = reader.getFilter();
+
+		if (filter == null || testedKeys.size() == filter.getFieldNames().size()) {
+			return true;
+		}
+		return filter.getFieldNames().stream()
+				.filter(key -> !testedKeys.contains(key))
+				.allMatch(key -> filter.test(key, null));
+	}
+
+	private void handleTokenOutsideStatement(JsonToken token) throws IOException {
+
+		if (token == JsonToken.START_OBJECT) {
+			statementBuilder = new StatementBuilder();
+			rejected = false;
+			testedKeys.clear();
+		}
+		else if (token == JsonToken.START_ARRAY && !inTopLevelArray) {
+			inTopLevelArray = true;
+		}
+		else if (token == JsonToken.END_ARRAY && inTopLevelArray) {
+			inTopLevelArray = false;
+		}
+		else {
+			throw new IOException("not a valid json content (unexpected token "+token+")");
+		}
+	}
+}
@@ -1,31 +1,30 @@
 package org.nextprot.commons.statements.reader;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.KeyDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import org.nextprot.commons.statements.specs.CustomStatementField;
 import org.nextprot.commons.statements.Statement;
-import org.nextprot.commons.statements.StatementBuilder;
-import org.nextprot.commons.statements.specs.StatementField;
 import org.nextprot.commons.statements.specs.StatementSpecifications;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Reads all statements from an URL Json resource once and then close the stream.
  */
 public class JsonStatementReader extends AbstractJsonStatementReader {
 
-	private final Reader reader;
-	private final ObjectMapper mapper;
+	private final JsonParserSource source;
+	private final JsonFactory factory = new JsonFactory();
 	private boolean isClosed = false;
 
 	public JsonStatementReader(String content, StatementSpecifications specifications) {
@@ -35,27 +34,45 @@ public class JsonStatementReader extends AbstractJsonStatementReader {
 
 	public JsonStatementReader(Reader reader, StatementSpecifications specifications) {
 
+		this(JsonParserSource.of(reader), specifications);
+	}
+
+	public JsonStatementReader(InputStream inputStream, StatementSpecifications specifications) {
+
+		this(JsonParserSource.of(inputStream), specifications);
+	}
+
+	public JsonStatementReader(byte[] content, StatementSpecifications specifications) {
+
+		this(JsonParserSource.of(content), specifications);
+	}
+
+	public JsonStatementReader(ByteBuffer content, StatementSpecifications specifications) {
+
+		this(JsonParserSource.of(content), specifications);
+	}
+
+	JsonStatementReader(JsonParserSource source, StatementSpecifications specifications) {
+
 		super(specifications);
 
-		/*
-		System.out.println("JsonStatementReader() specifications");
-		if (specifications == null) {
-			System.out.println("NO SPECS in reader");
-		} else {
-			specifications.getFields().stream()
-			.forEach(f->System.out.println("Specs in reader: " + f.getClass() + " - " + f.getName()));
-			System.out.println();
-		}
-		*/		
-		
-		SimpleModule module = new SimpleModule();
-		module.addKeyDeserializer(StatementField.class, new StatementFieldDeserializer(specifications));
+		this.source = source;
+	}
+
+	/**
+	 * Create a reader on a UTF-8 json file parsed directly from bytes
+	 * @param path the json file
+	 * @param specifications the statement specifications
+	 * @param ioBufferSize the number of bytes read from the file at once
+	 */
+	public static JsonStatementReader fromPath(Path path, StatementSpecifications specifications, int ioBufferSize) {
+
+		return new JsonStatementReader(JsonParserSource.of(path, ioBufferSize), specifications);
+	}
 
-		mapper = new ObjectMapper();
-		mapper.registerModule(module);
-		mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+	public static JsonStatementReader fromPath(Path path, StatementSpecifications specifications) {
 
-		this.reader = reader;
+		return fromPath(path, specifications, JsonParserSource.DEFAULT_IO_BUFFER_SIZE);
 	}
 
 	@Override
@@ -65,44 +82,32 @@ public class JsonStatementReader extends AbstractJsonStatementReader {
 			throw new IOException("Stream closed");
 		}
 
-		List<Statement> statements = mapper.readValue(reader, new TypeReference<List<Statement>>() { });
-		//System.out.println("JsonStatementReader.readStatements() STEP-1");
-		//statements.get(0).keySet()
-		//	.forEach(k -> System.out.println("statement key: " + k.getClass() + " - " + k.getName()));
-		List<Statement> list = statements.stream()
-				.map(statement -> new StatementBuilder(statement).build())
-				.collect(Collectors.toList());
-
-		//System.out.println("JsonStatementReader.readStatements() STEP-2");
-		//list.get(0).keySet()
-		//	.forEach(k -> System.out.println("statement key: " + k.getClass() + " - " + k.getName()));
-		isClosed = true;
+		List<Statement> statements = new ArrayList<>();
 
-		return list;
-	}
+		try (JsonParser parser = source.createParser(factory)) {
 
+			JsonStatementAssembler assembler = new JsonStatementAssembler(this);
 
-	/**
-	 * Instanciate StatementField from key string
-	 */
-	private static class StatementFieldDeserializer extends KeyDeserializer {
-
-		private final StatementSpecifications specifications;
-
-		public StatementFieldDeserializer(StatementSpecifications specifications) {
-			this.specifications = specifications;
-		}
+			JsonToken token = parser.nextToken();
+			if (token == null) {
+				throw new IOException("not a valid json content");
+			}
 
-		@Override
-		public StatementField deserializeKey(String key, DeserializationContext ctxt) {
+			for (; token != null; token = parser.nextToken()) {
 
-			if (specifications.hasField(key)) {
-				return specifications.getField(key);
+				Statement statement = assembler.handleToken(parser, token);
+				if (statement != null) {
+					statements.add(statement);
+				}
 			}
-			return new CustomStatementField(key);
 		}
+		isClosed = true;
+
+		getListener().onBatchRead(statements.size());
+		return statements;
 	}
 
+
 	public static Map<String, String> readStringMap(String jsonContent) throws IOException {
 
 		ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,471 @@
+package org.nextprot.commons.statements.reader;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.metrics.StatementMetricsListener;
+import org.nextprot.commons.statements.sort.EncodedSortKey;
+import org.nextprot.commons.statements.sort.StatementSortKey;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This reader reads statements from many sources concurrently and exposes them as a single source.
+ *
+ * Each source is read by batches on a bounded pool, with at most one batch being read per source at a time.
+ * Statements are either interleaved in the order batches complete (default), or k-way merged by a sort key
+ * when all sources are sorted by this key, comparing keys encoded once per statement.
+ */
+public class MultiSourceStatementReader implements BufferableStatementReader {
+
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private final StatementSpecifications specifications;
+	private final List<Source> sources;
+	private final ExecutorService executor;
+	private final boolean executorOwned;
+	private final int batchSize;
+	private final StatementSortKey mergeKey;
+
+	// unordered mode: batches in completion order
+	private final CompletionService<Source> completionService;
+	private final Deque<Statement> buffer = new ArrayDeque<>();
+	private int pendingSourceCount;
+
+	// merge mode: sources by their head statement
+	private final PriorityQueue<Source> heads;
+
+	private boolean started;
+	private boolean closed;
+
+	private MultiSourceStatementReader(Builder builder) {
+
+		this.specifications = builder.specifications;
+		this.batchSize = builder.batchSize;
+		this.mergeKey = builder.mergeKey;
+		this.executorOwned = builder.executor == null;
+		this.executor = (executorOwned) ? Executors.newFixedThreadPool(Math.min(builder.threadCount, builder.openers.size())) : builder.executor;
+
+		this.sources = new ArrayList<>();
+		for (Callable<BufferableStatementReader> opener : builder.openers) {
+			sources.add(new Source(opener));
+		}
+
+		if (mergeKey == null) {
+			this.completionService = new ExecutorCompletionService<>(executor);
+			this.heads = null;
+		}
+		else {
+			this.completionService = null;
+			this.heads = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing((Source source) -> source.headKey));
+		}
+	}
+
+	@Override
+	public StatementSpecifications getSpecifications() {
+
+		return specifications;
+	}
+
+	/**
+	 * @return the key the sources are merged by or null if statements are interleaved
+	 */
+	public StatementSortKey getMergeKey() {
+
+		return mergeKey;
+	}
+
+	@Override
+	public boolean hasStatement() throws IOException {
+
+		if (closed) {
+			return false;
+		}
+
+		if (mergeKey == null) {
+			fillBuffer();
+			return !buffer.isEmpty();
+		}
+		startMerge();
+		return !heads.isEmpty();
+	}
+
+	@Override
+	public Statement nextStatement() throws IOException {
+
+		if (!hasStatement()) {
+			return null;
+		}
+
+		if (mergeKey == null) {
+			return buffer.poll();
+		}
+
+		Source source = heads.poll();
+		Statement statement = source.batch.poll();
+
+		if (source.advance()) {
+			heads.add(source);
+		}
+		return statement;
+	}
+
+	/**
+	 * @return a list of at most batch size statements
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		Statement statement;
+		while (statements.size() < batchSize && (statement = nextStatement()) != null) {
+			statements.add(statement);
+		}
+		return statements;
+	}
+
+	/**
+	 * Read and push at most batch size statements into the buffer
+	 * @return the number of statements red or -1 if no more statements (or closed)
+	 */
+	@Override
+	public int readStatements(List<Statement> buffer) throws IOException {
+
+		if (!hasStatement()) {
+			return -1;
+		}
+
+		List<Statement> statements = readStatements();
+		buffer.addAll(statements);
+		return statements.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		IOException error = null;
+		for (Source source : sources) {
+			try {
+				source.cancel();
+				source.close();
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+
+		if (executorOwned) {
+			executor.shutdownNow();
+		}
+
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Wait for batches until some statements are buffered or all sources are exhausted
+	 */
+	private void fillBuffer() throws IOException {
+
+		if (!started) {
+			started = true;
+			for (Source source : sources) {
+				source.pending = completionService.submit(source::readBatch);
+				pendingSourceCount++;
+			}
+		}
+
+		while (buffer.isEmpty() && pendingSourceCount > 0) {
+
+			Source source = await(take());
+			pendingSourceCount--;
+
+			if (!source.fetched.isEmpty()) {
+				buffer.addAll(source.fetched);
+
+				source.pending = completionService.submit(source::readBatch);
+				pendingSourceCount++;
+			}
+			else {
+				source.close();
+			}
+		}
+	}
+
+	/**
+	 * Read the first batch of all sources and order them by their head statement
+	 */
+	private void startMerge() throws IOException {
+
+		if (started) {
+			return;
+		}
+		started = true;
+
+		for (Source source : sources) {
+			source.prefetch();
+		}
+		for (Source source : sources) {
+			if (source.advance()) {
+				heads.add(source);
+			}
+		}
+	}
+
+	private Future<Source> take() throws IOException {
+
+		try {
+			return completionService.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for statements", e);
+		}
+	}
+
+	private Source await(Future<Source> future) throws IOException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for statements", e);
+		} catch (ExecutionException e) {
+			close();
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * A source read by batches, never by more than one thread at a time
+	 */
+	private class Source {
+
+		private final Callable<BufferableStatementReader> opener;
+		private BufferableStatementReader reader;
+		private Future<Source> pending;
+		// the batch read by the pool and the batch being consumed
+		private Deque<Statement> fetched;
+		private Deque<Statement> batch = new ArrayDeque<>();
+		private EncodedSortKey headKey;
+
+		private Source(Callable<BufferableStatementReader> opener) {
+
+			this.opener = opener;
+		}
+
+		private Source readBatch() throws Exception {
+
+			if (reader == null) {
+				reader = opener.call();
+			}
+
+			fetched = new ArrayDeque<>(batchSize);
+
+			Statement statement;
+			while (fetched.size() < batchSize && (statement = reader.nextStatement()) != null) {
+				fetched.add(statement);
+			}
+			return this;
+		}
+
+		private void prefetch() {
+
+			pending = executor.submit(this::readBatch);
+		}
+
+		/**
+		 * Make the next statement of the source available as head, prefetching the following batch
+		 * @return false if the source is exhausted
+		 */
+		private boolean advance() throws IOException {
+
+			if (batch.isEmpty()) {
+
+				if (pending == null) {
+					return false;
+				}
+				await(pending);
+				pending = null;
+				batch = fetched;
+
+				if (batch.isEmpty()) {
+					close();
+					return false;
+				}
+				prefetch();
+			}
+
+			EncodedSortKey key = mergeKey.encode(batch.peek());
+
+			if (headKey != null && key.compareTo(headKey) < 0) {
+				throw new IOException("cannot merge sources: a source is not sorted by " + mergeKey
+						+ " (statement " + batch.peek().getStatementId() + " found after a greater key)");
+			}
+			headKey = key;
+			return true;
+		}
+
+		/**
+		 * Cancel the pending batch, waiting for it to finish if already running
+		 */
+		private void cancel() {
+
+			if (pending != null && !pending.cancel(false)) {
+				try {
+					pending.get();
+				} catch (ExecutionException | CancellationException e) {
+					// the source is being closed
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			pending = null;
+		}
+
+		private void close() throws IOException {
+
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+
+	public static class Builder {
+
+		private final List<Callable<BufferableStatementReader>> openers = new ArrayList<>();
+		private StatementSpecifications specifications = new Specifications.Builder().build();
+		private ExecutorService executor;
+		private int threadCount = Runtime.getRuntime().availableProcessors();
+		private int batchSize = DEFAULT_BATCH_SIZE;
+		private StatementSortKey mergeKey;
+		private StatementMetricsListener listener = StatementMetricsListener.NOOP;
+
+		/**
+		 * Add a json file source, opened by the pool when first read
+		 */
+		public Builder addSource(Path path) {
+
+			openers.add(() -> {
+				BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path, specifications, batchSize, JsonParserSource.DEFAULT_IO_BUFFER_SIZE);
+				reader.setListener(listener);
+				return reader;
+			});
+			return this;
+		}
+
+		public Builder addSources(List<Path> paths) {
+
+			paths.forEach(this::addSource);
+			return this;
+		}
+
+		/**
+		 * Add a source reader (closed with this reader)
+		 */
+		public Builder addSource(BufferableStatementReader reader) {
+
+			openers.add(() -> reader);
+			return this;
+		}
+
+		/**
+		 * Set the specifications of the statements read from files
+		 */
+		public Builder withSpecifications(StatementSpecifications specifications) {
+
+			this.specifications = specifications;
+			return this;
+		}
+
+		/**
+		 * Set the listener of the readers of files (shared by concurrent readers)
+		 */
+		public Builder withListener(StatementMetricsListener listener) {
+
+			this.listener = listener;
+			return this;
+		}
+
+		/**
+		 * Read sources on a pool of the given number of threads, shut down on close
+		 */
+		public Builder withThreads(int threadCount) {
+
+			if (threadCount <= 0) {
+				throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+			}
+			this.threadCount = threadCount;
+			return this;
+		}
+
+		/**
+		 * Read sources on an external executor, not shut down on close
+		 */
+		public Builder withExecutor(ExecutorService executor) {
+
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of statements read from a source at once
+		 */
+		public Builder withBatchSize(int batchSize) {
+
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize="+batchSize+": cannot define a negative (or 0) number for the batch size");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * K-way merge sources sorted by the given key fields (missing values first)
+		 */
+		public Builder mergedBy(StatementField... mergeKeyFields) {
+
+			return mergedBy(StatementSortKey.of(mergeKeyFields));
+		}
+
+		/**
+		 * K-way merge sources sorted by the given key
+		 */
+		public Builder mergedBy(StatementSortKey mergeKey) {
+
+			this.mergeKey = mergeKey;
+			return this;
+		}
+
+		public MultiSourceStatementReader build() {
+
+			if (openers.isEmpty()) throw new IllegalStateException("missing sources");
+			return new MultiSourceStatementReader(this);
+		}
+	}
+}
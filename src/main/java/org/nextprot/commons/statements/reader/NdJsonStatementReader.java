@@ -0,0 +1,328 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.io.ByteStreams;
+import org.nextprot.commons.io.GzipStreams;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * This reader reads statements from a JSON Lines (NDJSON) content, one statement object per line,
+ * one by one or n at a time and close it self when all have been red.
+ *
+ * Contents breaking the one object per line rule (several objects on a line or an object spanning lines)
+ * are rejected with an IOException.
+ *
+ * As statements never span lines, a file can be split at line boundaries into chunks read in parallel
+ * (see {@link #split(Path, int)}).
+ */
+public class NdJsonStatementReader extends AbstractJsonStatementReader implements BufferableStatementReader {
+
+	private static final int DEFAULT_MAX_BUFFER_SIZE = 100;
+
+	private final JsonParser parser;
+	private final JsonStatementAssembler assembler;
+	private final int maxBufferSize;
+	// the line of the current statement
+	private int statementLine;
+	// the statement read ahead by hasStatement()
+	private Statement nextStatement;
+
+	public NdJsonStatementReader(Reader reader) throws IOException {
+
+		this(JsonParserSource.of(reader), new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	public NdJsonStatementReader(Reader reader, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		this(JsonParserSource.of(reader), specifications, maxBufferSize);
+	}
+
+	public NdJsonStatementReader(InputStream inputStream) throws IOException {
+
+		this(JsonParserSource.of(inputStream), new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	public NdJsonStatementReader(InputStream inputStream, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		this(JsonParserSource.of(inputStream), specifications, maxBufferSize);
+	}
+
+	NdJsonStatementReader(JsonParserSource source, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		super(specifications);
+
+		if (maxBufferSize <= 0) {
+			throw new IllegalArgumentException("maxBufferSize="+maxBufferSize+": cannot define a negative (or 0) number for the buffer size ");
+		}
+
+		this.parser = source.createParser(new JsonFactory());
+		this.assembler = new JsonStatementAssembler(this);
+		this.maxBufferSize = maxBufferSize;
+
+		// position the parser on the first statement
+		handleNextLine();
+	}
+
+	/**
+	 * Create a reader on a UTF-8 JSON Lines file
+	 * @param path the JSON Lines file
+	 * @param specifications the statement specifications
+	 * @param maxBufferSize the maximum number of statements read at once
+	 * @param ioBufferSize the number of bytes read from the file at once
+	 */
+	public static NdJsonStatementReader fromPath(Path path, StatementSpecifications specifications, int maxBufferSize, int ioBufferSize) throws IOException {
+
+		return new NdJsonStatementReader(JsonParserSource.of(path, ioBufferSize), specifications, maxBufferSize);
+	}
+
+	public static NdJsonStatementReader fromPath(Path path) throws IOException {
+
+		return fromPath(path, new Specifications.Builder().build(), DEFAULT_MAX_BUFFER_SIZE, JsonParserSource.DEFAULT_IO_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a reader on a chunk of a UTF-8 JSON Lines file
+	 * @param path the JSON Lines file
+	 * @param chunk a chunk of the file starting at a line boundary (see {@link #split(Path, int)})
+	 * @throws IOException if the file is gzipped (its offsets cannot be sought)
+	 */
+	public static NdJsonStatementReader fromChunk(Path path, Chunk chunk, StatementSpecifications specifications, int maxBufferSize, int ioBufferSize) throws IOException {
+
+		if (GzipStreams.isGzip(path)) {
+			throw new IOException(path + ": cannot read a chunk of a compressed file");
+		}
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			channel.position(chunk.getOffset());
+
+			InputStream inputStream = ByteStreams.limit(new BufferedInputStream(Channels.newInputStream(channel), ioBufferSize), chunk.getLength());
+
+			return new NdJsonStatementReader(JsonParserSource.of(inputStream), specifications, maxBufferSize);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Split a JSON Lines file into chunks of about the same size ending at line boundaries
+	 * @param path the JSON Lines file
+	 * @param chunkCount the expected number of chunks
+	 * @return the contiguous chunks covering the file (less than expected if lines are too long)
+	 */
+	public static List<Chunk> split(Path path, int chunkCount) throws IOException {
+
+		if (chunkCount <= 0) {
+			throw new IllegalArgumentException("chunkCount="+chunkCount+": cannot define a negative (or 0) number of chunks");
+		}
+
+		if (GzipStreams.isGzip(path)) {
+			throw new IOException(path + ": cannot split a compressed file");
+		}
+
+		long size = Files.size(path);
+		List<Chunk> chunks = new ArrayList<>(chunkCount);
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			long start = 0;
+			for (int i = 1; i <= chunkCount && start < size; i++) {
+
+				long end = (i == chunkCount) ? size : nextLineStart(channel, Math.max(start, size * i / chunkCount));
+				if (end > start) {
+					chunks.add(new Chunk(start, end - start));
+					start = end;
+				}
+			}
+		}
+		return chunks;
+	}
+
+	/**
+	 * @return the offset following the first newline found from the given position or the channel size
+	 */
+	private static long nextLineStart(FileChannel channel, long position) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+
+		int count;
+		while ((count = channel.read(buffer, position)) > 0) {
+
+			for (int i = 0; i < count; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += count;
+			buffer.clear();
+		}
+		return channel.size();
+	}
+
+	/**
+	 * Read ahead the next statement accepted by the filter, if any
+	 * @return true if some more statements to read
+	 */
+	@Override
+	public boolean hasStatement() throws IOException {
+
+		if (nextStatement == null) {
+			nextStatement = readStatement();
+		}
+		return nextStatement != null;
+	}
+
+	/**
+	 * @return the next statement or null if no more statements
+	 */
+	@Override
+	public Statement nextStatement() throws IOException {
+
+		if (!hasStatement()) {
+			return null;
+		}
+
+		Statement statement = nextStatement;
+		nextStatement = null;
+
+		return statement;
+	}
+
+	/**
+	 * @return the next statement accepted by the filter or null if no more statements
+	 */
+	private Statement readStatement() throws IOException {
+
+		Statement statement = null;
+
+		while (statement == null && !parser.isClosed() && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+
+			JsonToken token;
+			while (assembler.isInStatement() && (token = parser.nextToken()) != null) {
+
+				statement = assembler.handleToken(parser, token);
+			}
+
+			if (assembler.isInStatement()) {
+				throw new IOException("not a valid json content (unexpected end of content in line " + parser.getCurrentLocation().getLineNr() + ")");
+			}
+			if (parser.getCurrentLocation().getLineNr() != statementLine) {
+				throw new IOException("not a valid json lines content (the json object of line " + statementLine + " spans several lines)");
+			}
+			handleNextLine();
+		}
+		return statement;
+	}
+
+	/**
+	 * Consume the first token of the next line that should be either null or {
+	 */
+	private void handleNextLine() throws IOException {
+
+		JsonToken token = parser.nextToken();
+
+		if (token == null) {
+			parser.close();
+		}
+		else if (token != JsonToken.START_OBJECT) {
+			throw new IOException("not a valid json lines content (line " + parser.getTokenLocation().getLineNr() + " is not a json object)");
+		}
+		else if (statementLine > 0 && parser.getTokenLocation().getLineNr() == statementLine) {
+			throw new IOException("not a valid json lines content (line " + statementLine + " holds several json objects)");
+		}
+		else {
+			statementLine = parser.getTokenLocation().getLineNr();
+			assembler.handleToken(parser, token);
+		}
+	}
+
+	/**
+	 * @return a list of at most n statements
+	 */
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		for (int i = 0; i < maxBufferSize; i++) {
+
+			Statement statement = nextStatement();
+
+			if (statement != null) {
+				statements.add(statement);
+			}
+			else {
+				break;
+			}
+		}
+
+		getListener().onBatchRead(statements.size());
+		return statements;
+	}
+
+	/**
+	 * Read and push at most n statements into the buffer
+	 * @param buffer the buffer to read Statements into
+	 * @return the number of statements red or -1 if no more statements
+	 */
+	@Override
+	public int readStatements(List<Statement> buffer) throws IOException {
+
+		if (!hasStatement()) {
+			return -1;
+		}
+		return super.readStatements(buffer);
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+
+	/**
+	 * A byte range of a JSON Lines file made of whole lines
+	 */
+	public static class Chunk {
+
+		private final long offset;
+		private final long length;
+
+		Chunk(long offset, long length) {
+			this.offset = offset;
+			this.length = length;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + offset + ", " + (offset + length) + "[";
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package org.nextprot.commons.statements.reader;
+
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+
+/**
+ * Conditions on raw field values that a statement has to satisfy to be read.
+ *
+ * Readers evaluate conditions while streaming tokens and skip the rest of a statement as soon as one fails,
+ * without building the statement or computing its id.
+ * All conditions have to be satisfied; the condition of a field missing in a statement is evaluated on a null value.
+ */
+public class StatementFieldFilter {
+
+	private final Map<String, Predicate<String>> conditions;
+
+	private StatementFieldFilter(Builder builder) {
+
+		this.conditions = new HashMap<>(builder.conditions);
+	}
+
+	/** @return true if the field named fieldName has a condition */
+	public boolean hasCondition(String fieldName) {
+
+		return conditions.containsKey(fieldName);
+	}
+
+	/** @return the names of the fields with a condition */
+	public Set<String> getFieldNames() {
+
+		return conditions.keySet();
+	}
+
+	/**
+	 * @param fieldName the field name
+	 * @param value the raw value of the field or null if missing
+	 * @return true if the value satisfies the condition of the field
+	 */
+	public boolean test(String fieldName, String value) {
+
+		Predicate<String> condition = conditions.get(fieldName);
+		return condition == null || condition.test(value);
+	}
+
+	public static class Builder {
+
+		private final Map<String, Predicate<String>> conditions = new HashMap<>();
+
+		/**
+		 * Keep statements whose field value is one of the given values
+		 */
+		public Builder withValues(StatementField field, String... values) {
+
+			Set<String> valueSet = new HashSet<>(Arrays.asList(values));
+			return with(field, valueSet::contains);
+		}
+
+		/**
+		 * Keep statements whose field value satisfies the given condition (that may receive a null value)
+		 */
+		public Builder with(StatementField field, Predicate<String> condition) {
+
+			conditions.merge(field.getName(), condition, Predicate::and);
+			return this;
+		}
+
+		public StatementFieldFilter build() {
+
+			if (conditions.isEmpty()) throw new IllegalStateException("missing field conditions");
+			return new StatementFieldFilter(this);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package org.nextprot.commons.statements.reader;
+
+
+/**
+ * Defines how statement readers deal with the STATEMENT_ID found in the content.
+ *
+ * Computing the MD5 of each statement dominates the cost of reading files that already contain valid ids
+ * (for example the intermediate files produced by our own pipeline).
+ * Statements without any id in the content always get one computed.
+ */
+public class StatementIdPolicy {
+
+	private static final StatementIdPolicy RECOMPUTE = new StatementIdPolicy(Mode.RECOMPUTE, 1);
+	private static final StatementIdPolicy TRUST = new StatementIdPolicy(Mode.TRUST, 0);
+
+	public enum Mode {
+
+		/** ids are always computed again (default) */
+		RECOMPUTE,
+		/** ids found in the content are kept as is */
+		TRUST,
+		/** ids found in the content are kept but a sample of them is computed again and checked */
+		VERIFY
+	}
+
+	private final Mode mode;
+	private final int sampleInterval;
+
+	private StatementIdPolicy(Mode mode, int sampleInterval) {
+
+		this.mode = mode;
+		this.sampleInterval = sampleInterval;
+	}
+
+	/** @return the policy computing again all ids */
+	public static StatementIdPolicy recompute() {
+
+		return RECOMPUTE;
+	}
+
+	/** @return the policy keeping the ids found in the content */
+	public static StatementIdPolicy trust() {
+
+		return TRUST;
+	}
+
+	/**
+	 * @param sampledFraction the fraction of statement ids verified, in ]0, 1]
+	 * @return the policy keeping the ids found in the content after checking a sample of them
+	 */
+	public static StatementIdPolicy verify(double sampledFraction) {
+
+		if (sampledFraction <= 0 || sampledFraction > 1) {
+			throw new IllegalArgumentException("sampledFraction="+sampledFraction+": should be in ]0, 1]");
+		}
+		return new StatementIdPolicy(Mode.VERIFY, Math.max(1, (int) Math.round(1 / sampledFraction)));
+	}
+
+	public Mode getMode() {
+
+		return mode;
+	}
+
+	/**
+	 * @param statementIndex the index of the statement in the content
+	 * @return true if the id of the statement has to be verified
+	 */
+	public boolean isVerified(long statementIndex) {
+
+		return mode == Mode.VERIFY && statementIndex % sampleInterval == 0;
+	}
+
+	@Override
+	public String toString() {
+
+		return (mode == Mode.VERIFY) ? mode + " (1/" + sampleInterval + ")" : mode.toString();
+	}
+}
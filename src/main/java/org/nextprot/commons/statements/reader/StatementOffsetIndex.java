@@ -0,0 +1,386 @@
+package org.nextprot.commons.statements.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import org.nextprot.commons.io.GzipStreams;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * An index of the byte ranges of the statement objects of a json dump, by values of some fields.
+ *
+ * The index is built by scanning the dump once and stored in a compact sorted sidecar file next to it.
+ * It gives random access to the statements of a given field value (an ENTRY_ACCESSION for example)
+ * without parsing the whole dump (see {@link IndexedStatementReader}).
+ */
+public class StatementOffsetIndex {
+
+	private static final int MAGIC_NUMBER = 0x4e585349; // NXSI
+	private static final int VERSION = 1;
+	private static final String SIDECAR_EXTENSION = ".idx";
+
+	private final long dumpSize;
+	private final long dumpLastModified;
+	private final Map<String, FieldIndex> fieldIndices;
+
+	private StatementOffsetIndex(long dumpSize, long dumpLastModified, Map<String, FieldIndex> fieldIndices) {
+
+		this.dumpSize = dumpSize;
+		this.dumpLastModified = dumpLastModified;
+		this.fieldIndices = fieldIndices;
+	}
+
+	/**
+	 * Scan a json dump and index its statements by values of the given fields
+	 * @param dump the json dump (an array of statement objects)
+	 * @param fields the indexed fields (ENTRY_ACCESSION, STATEMENT_ID, ...)
+	 */
+	public static StatementOffsetIndex build(Path dump, StatementField... fields) throws IOException {
+
+		if (fields.length == 0) throw new IllegalArgumentException("missing fields to index");
+		if (GzipStreams.isGzip(dump)) throw new IOException(dump + ": cannot index a compressed dump");
+
+		Map<String, Map<String, Ranges>> valueRangesByField = new LinkedHashMap<>();
+		for (StatementField field : fields) {
+			valueRangesByField.put(field.getName(), new TreeMap<>());
+		}
+
+		try (JsonParser parser = new JsonFactory().createParser(new BufferedInputStream(Files.newInputStream(dump), JsonParserSource.DEFAULT_IO_BUFFER_SIZE))) {
+
+			int depth = 0;
+			long statementOffset = -1;
+			String indexedField = null;
+			Map<String, String> indexedValues = new LinkedHashMap<>();
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+
+				if (token.isStructStart()) {
+					// only scalar values are indexed
+					indexedField = null;
+					if (token == JsonToken.START_OBJECT && statementOffset < 0) {
+						statementOffset = parser.getTokenLocation().getByteOffset();
+						indexedValues.clear();
+						depth = 0;
+					}
+					depth++;
+				}
+				else if (token.isStructEnd()) {
+					depth--;
+					if (statementOffset >= 0 && depth == 0) {
+						long length = parser.getCurrentLocation().getByteOffset() - statementOffset;
+						for (Map.Entry<String, String> indexedValue : indexedValues.entrySet()) {
+							valueRangesByField.get(indexedValue.getKey())
+									.computeIfAbsent(indexedValue.getValue(), v -> new Ranges())
+									.add(statementOffset, (int) length);
+						}
+						statementOffset = -1;
+					}
+				}
+				else if (token == JsonToken.FIELD_NAME) {
+					indexedField = (depth == 1 && valueRangesByField.containsKey(parser.getCurrentName())) ? parser.getCurrentName() : null;
+				}
+				else if (indexedField != null && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+					indexedValues.put(indexedField, parser.getValueAsString());
+					indexedField = null;
+				}
+			}
+		}
+
+		Map<String, FieldIndex> fieldIndices = new LinkedHashMap<>();
+		valueRangesByField.forEach((field, valueRanges) -> fieldIndices.put(field, new FieldIndex(valueRanges)));
+
+		return new StatementOffsetIndex(Files.size(dump), Files.getLastModifiedTime(dump).toMillis(), fieldIndices);
+	}
+
+	/**
+	 * Build the index of a json dump and store it in its sidecar file
+	 * @return the index
+	 */
+	public static StatementOffsetIndex buildSidecar(Path dump, StatementField... fields) throws IOException {
+
+		StatementOffsetIndex index = build(dump, fields);
+		index.write(getSidecarPath(dump));
+		return index;
+	}
+
+	/** @return the path of the sidecar index file of the given dump */
+	public static Path getSidecarPath(Path dump) {
+
+		return Paths.get(dump.toString() + SIDECAR_EXTENSION);
+	}
+
+	/**
+	 * Read an index from a sidecar file
+	 */
+	public static StatementOffsetIndex read(Path sidecar) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+
+			if (in.readInt() != MAGIC_NUMBER) {
+				throw new IOException(sidecar + ": not a statement offset index");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(sidecar + ": unsupported statement offset index version " + version);
+			}
+
+			long dumpSize = in.readLong();
+			long dumpLastModified = in.readLong();
+			int fieldCount = in.readInt();
+
+			Map<String, FieldIndex> fieldIndices = new LinkedHashMap<>();
+			for (int i = 0; i < fieldCount; i++) {
+				String field = FieldIndex.readString(in);
+				fieldIndices.put(field, FieldIndex.read(in));
+			}
+			return new StatementOffsetIndex(dumpSize, dumpLastModified, fieldIndices);
+		}
+	}
+
+	/**
+	 * Write this index in a sidecar file
+	 */
+	public void write(Path sidecar) throws IOException {
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sidecar)))) {
+
+			out.writeInt(MAGIC_NUMBER);
+			out.writeInt(VERSION);
+			out.writeLong(dumpSize);
+			out.writeLong(dumpLastModified);
+			out.writeInt(fieldIndices.size());
+
+			for (Map.Entry<String, FieldIndex> entry : fieldIndices.entrySet()) {
+				FieldIndex.writeString(out, entry.getKey());
+				entry.getValue().write(out);
+			}
+		}
+	}
+
+	/** @return true if this index was built on the given dump in its current state */
+	public boolean isUpToDate(Path dump) throws IOException {
+
+		return Files.size(dump) == dumpSize && Files.getLastModifiedTime(dump).toMillis() == dumpLastModified;
+	}
+
+	/** @return the names of the indexed fields */
+	public List<String> getIndexedFieldNames() {
+
+		return new ArrayList<>(fieldIndices.keySet());
+	}
+
+	/** @return the sorted values of an indexed field */
+	public List<String> getValues(StatementField field) {
+
+		return Collections.unmodifiableList(Arrays.asList(getFieldIndex(field).values));
+	}
+
+	/**
+	 * @return the byte ranges of the statements having the given field value, in dump order
+	 */
+	public List<ByteRange> getByteRanges(StatementField field, String value) {
+
+		return getFieldIndex(field).getByteRanges(value);
+	}
+
+	private FieldIndex getFieldIndex(StatementField field) {
+
+		FieldIndex fieldIndex = fieldIndices.get(field.getName());
+		if (fieldIndex == null) {
+			throw new IllegalArgumentException("field " + field.getName() + " is not indexed (indexed fields=" + fieldIndices.keySet() + ")");
+		}
+		return fieldIndex;
+	}
+
+	/**
+	 * The byte range of a statement object in the dump
+	 */
+	public static class ByteRange {
+
+		private final long offset;
+		private final int length;
+
+		ByteRange(long offset, int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + offset + ", " + (offset + length) + "[";
+		}
+	}
+
+	private static class Ranges {
+
+		private final TLongArrayList offsets = new TLongArrayList();
+		private final TIntArrayList lengths = new TIntArrayList();
+
+		private void add(long offset, int length) {
+			offsets.add(offset);
+			lengths.add(length);
+		}
+	}
+
+	/**
+	 * The sorted values of a field with the ranges of each value stored in flat arrays
+	 */
+	private static class FieldIndex {
+
+		private final String[] values;
+		// ranges of values[i] are in [firstRanges[i], firstRanges[i+1][
+		private final int[] firstRanges;
+		private final long[] offsets;
+		private final int[] lengths;
+
+		private FieldIndex(String[] values, int[] firstRanges, long[] offsets, int[] lengths) {
+			this.values = values;
+			this.firstRanges = firstRanges;
+			this.offsets = offsets;
+			this.lengths = lengths;
+		}
+
+		private FieldIndex(Map<String, Ranges> sortedValueRanges) {
+
+			this(new String[sortedValueRanges.size()], new int[sortedValueRanges.size() + 1],
+					new long[sortedValueRanges.values().stream().mapToInt(r -> r.offsets.size()).sum()],
+					new int[sortedValueRanges.values().stream().mapToInt(r -> r.offsets.size()).sum()]);
+
+			int i = 0;
+			int rangeCount = 0;
+			for (Map.Entry<String, Ranges> entry : sortedValueRanges.entrySet()) {
+				values[i] = entry.getKey();
+				firstRanges[i++] = rangeCount;
+				entry.getValue().offsets.toArray(offsets, 0, rangeCount, entry.getValue().offsets.size());
+				entry.getValue().lengths.toArray(lengths, 0, rangeCount, entry.getValue().lengths.size());
+				rangeCount += entry.getValue().offsets.size();
+			}
+			firstRanges[i] = rangeCount;
+		}
+
+		private List<ByteRange> getByteRanges(String value) {
+
+			int i = Arrays.binarySearch(values, value);
+			if (i < 0) {
+				return Collections.emptyList();
+			}
+
+			List<ByteRange> ranges = new ArrayList<>(firstRanges[i+1] - firstRanges[i]);
+			for (int r = firstRanges[i]; r < firstRanges[i+1]; r++) {
+				ranges.add(new ByteRange(offsets[r], lengths[r]));
+			}
+			return ranges;
+		}
+
+		private void write(DataOutputStream out) throws IOException {
+
+			out.writeInt(values.length);
+			out.writeInt(offsets.length);
+			for (int i = 0; i < values.length; i++) {
+				writeString(out, values[i]);
+				out.writeInt(firstRanges[i+1] - firstRanges[i]);
+			}
+			// offsets are increasing for a given value: store variable-length deltas
+			for (int i = 0; i < values.length; i++) {
+				long previous = 0;
+				for (int r = firstRanges[i]; r < firstRanges[i+1]; r++) {
+					writeVarLong(out, offsets[r] - previous);
+					writeVarLong(out, lengths[r]);
+					previous = offsets[r];
+				}
+			}
+		}
+
+		private static FieldIndex read(DataInputStream in) throws IOException {
+
+			int valueCount = in.readInt();
+			int rangeCount = in.readInt();
+
+			String[] values = new String[valueCount];
+			int[] firstRanges = new int[valueCount + 1];
+			for (int i = 0; i < valueCount; i++) {
+				values[i] = readString(in);
+				firstRanges[i+1] = firstRanges[i] + in.readInt();
+			}
+
+			long[] offsets = new long[rangeCount];
+			int[] lengths = new int[rangeCount];
+			for (int i = 0; i < valueCount; i++) {
+				long previous = 0;
+				for (int r = firstRanges[i]; r < firstRanges[i+1]; r++) {
+					offsets[r] = previous + readVarLong(in);
+					lengths[r] = (int) readVarLong(in);
+					previous = offsets[r];
+				}
+			}
+			return new FieldIndex(values, firstRanges, offsets, lengths);
+		}
+
+		/** writes the UTF-8 bytes of the string prefixed by their count (no 64 KB limit unlike writeUTF) */
+		private static void writeString(DataOutputStream out, String value) throws IOException {
+
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(out, bytes.length);
+			out.write(bytes);
+		}
+
+		private static String readString(DataInputStream in) throws IOException {
+
+			byte[] bytes = new byte[(int) readVarLong(in)];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+
+			while ((value & ~0x7FL) != 0) {
+				out.writeByte((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			out.writeByte((int) value);
+		}
+
+		private static long readVarLong(DataInputStream in) throws IOException {
+
+			long value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = in.readByte();
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+
+			return value;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package org.nextprot.commons.statements.reader;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+
+
+/**
+ * The position of a statement reader between two statements of a json file.
+ *
+ * A checkpoint can be persisted and used later to resume reading the same file from its byte offset
+ * instead of parsing it again from the start.
+ */
+public class StatementReaderCheckpoint {
+
+	private final long byteOffset;
+	private final long statementCount;
+	private final boolean inTopLevelArray;
+	private final boolean completed;
+
+	public StatementReaderCheckpoint(long byteOffset, long statementCount, boolean inTopLevelArray, boolean completed) {
+
+		if (byteOffset < 0) {
+			throw new IllegalArgumentException("byteOffset="+byteOffset+": cannot define a negative offset");
+		}
+
+		this.byteOffset = byteOffset;
+		this.statementCount = statementCount;
+		this.inTopLevelArray = inTopLevelArray;
+		this.completed = completed;
+	}
+
+	/** @return the offset of the first byte of the next statement */
+	public long getByteOffset() {
+		return byteOffset;
+	}
+
+	/** @return the number of statements read before this checkpoint */
+	public long getStatementCount() {
+		return statementCount;
+	}
+
+	/** @return true if the next statement is an element of the top-level json array */
+	public boolean isInTopLevelArray() {
+		return inTopLevelArray;
+	}
+
+	/** @return true if all statements were read */
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public String serializeToJsonString() {
+
+		return Json.object()
+				.add("byteOffset", byteOffset)
+				.add("statementCount", statementCount)
+				.add("inTopLevelArray", inTopLevelArray)
+				.add("completed", completed)
+				.toString();
+	}
+
+	public static StatementReaderCheckpoint deSerializeFromJsonString(String checkpointAsJson) {
+
+		JsonObject jo = Json.parse(checkpointAsJson).asObject();
+
+		return new StatementReaderCheckpoint(jo.getLong("byteOffset", 0), jo.getLong("statementCount", 0),
+				jo.getBoolean("inTopLevelArray", true), jo.getBoolean("completed", false));
+	}
+
+	@Override
+	public String toString() {
+
+		return serializeToJsonString();
+	}
+}
@@ -0,0 +1,78 @@
+package org.nextprot.commons.statements.sort;
+
+import java.util.Arrays;
+
+
+/**
+ * A sort key encoded as bytes whose unsigned lexicographic order is the order of the key
+ * (see {@link StatementSortKey#encode(org.nextprot.commons.statements.Statement)}).
+ *
+ * The first 8 bytes are also held as a long so that most comparisons are a single unsigned long comparison.
+ */
+public final class EncodedSortKey implements Comparable<EncodedSortKey> {
+
+	private final byte[] bytes;
+	private final long prefix;
+
+	EncodedSortKey(byte[] bytes) {
+
+		this.bytes = bytes;
+
+		long prefix = 0;
+		for (int i = 0; i < 8; i++) {
+			prefix = (prefix << 8) | ((i < bytes.length) ? bytes[i] & 0xFF : 0);
+		}
+		this.prefix = prefix;
+	}
+
+	/** @return the encoded key (not copied) */
+	public byte[] getBytes() {
+
+		return bytes;
+	}
+
+	/** @return the first 8 bytes of the key, big endian and padded with 0 */
+	public long getPrefix() {
+
+		return prefix;
+	}
+
+	@Override
+	public int compareTo(EncodedSortKey other) {
+
+		int cmp = Long.compareUnsigned(prefix, other.prefix);
+
+		if (cmp != 0) {
+			return cmp;
+		}
+		return compare(bytes, other.bytes, 8);
+	}
+
+	/**
+	 * Compare bytes as unsigned from the given offset
+	 */
+	static int compare(byte[] bytes1, byte[] bytes2, int offset) {
+
+		int length = Math.min(bytes1.length, bytes2.length);
+
+		for (int i = offset; i < length; i++) {
+			int cmp = (bytes1[i] & 0xFF) - (bytes2[i] & 0xFF);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return bytes1.length - bytes2.length;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+
+		return o instanceof EncodedSortKey && compareTo((EncodedSortKey) o) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+
+		return Arrays.hashCode(bytes);
+	}
+}
@@ -0,0 +1,372 @@
+package org.nextprot.commons.statements.sort;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.BinaryStatementReader;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.reader.StatementReader;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+import org.nextprot.commons.statements.writer.BinaryStatementWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+
+/**
+ * Sorts statement streams that do not fit in memory.
+ *
+ * Statements are read into runs bounded by the memory budget, each run being sorted on encoded keys
+ * (see {@link StatementSortKey#encode(Statement)}) and spilled to a temporary
+ * file in binary form (see {@link BinaryStatementWriter}) by a pool of threads while the next run is read.
+ * The sorted statements are then streamed by a k-way merge of the runs.
+ * Content fitting in a single run is sorted in memory without any temporary file.
+ *
+ * The sort is stable: statements with the same key keep their input order.
+ */
+public class ExternalStatementSorter {
+
+	private static final int MAX_FAN_IN = 128;
+
+	private final StatementSortKey sortKey;
+	private final long memoryBudget;
+	private final Path tempDirectory;
+	private final int threadCount;
+	private final StatementSpecifications specifications;
+
+	private ExternalStatementSorter(Builder builder) {
+
+		this.sortKey = builder.sortKey;
+		this.memoryBudget = builder.memoryBudget;
+		this.tempDirectory = builder.tempDirectory;
+		this.threadCount = builder.threadCount;
+		this.specifications = builder.specifications;
+	}
+
+	public StatementSortKey getSortKey() {
+
+		return sortKey;
+	}
+
+	/**
+	 * Read all statements of the given reader (not closed) and sort them
+	 * @return a reader of the sorted statements (deleting the temporary files when closed)
+	 */
+	public BufferableStatementReader sort(StatementReader reader) throws IOException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "external-statement-sorter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Runs runs = new Runs(executor);
+
+		try {
+			if (reader instanceof BufferableStatementReader) {
+
+				BufferableStatementReader bufferable = (BufferableStatementReader) reader;
+				while (bufferable.hasStatement()) {
+					runs.add(bufferable.nextStatement());
+				}
+			}
+			else {
+				// all statements are read at once
+				for (Statement statement : reader.readStatements()) {
+					runs.add(statement);
+				}
+			}
+
+			if (runs.spills.isEmpty()) {
+				return new SortedListReader(Arrays.asList(sortKey.sort(runs.run)), specifications);
+			}
+			return merge(runs.awaitAll());
+		} catch (IOException | RuntimeException e) {
+			runs.discard();
+			throw e;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private Path write(RunWriter runWriter) throws IOException {
+
+		Path file = (tempDirectory != null) ? Files.createTempFile(tempDirectory, "statements-run-", ".bin")
+				: Files.createTempFile("statements-run-", ".bin");
+
+		try (BinaryStatementWriter writer = BinaryStatementWriter.create(file)) {
+			runWriter.writeTo(writer);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		return file;
+	}
+
+	/**
+	 * Merge runs until they can be merged at once
+	 */
+	private BufferableStatementReader merge(List<Path> runs) throws IOException {
+
+		while (runs.size() > MAX_FAN_IN) {
+
+			List<Path> merged = new ArrayList<>();
+
+			try {
+				for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+
+					List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+					if (group.size() == 1) {
+						merged.add(group.get(0));
+						continue;
+					}
+
+					// the merged runs are deleted on close
+					try (MergingStatementReader reader = open(new ArrayList<>(group))) {
+						merged.add(write(writer -> {
+							Statement statement;
+							while ((statement = reader.nextStatement()) != null) {
+								writer.write(statement);
+							}
+						}));
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				deleteAll(merged);
+				deleteAll(runs);
+				throw e;
+			}
+			runs = merged;
+		}
+		return open(runs);
+	}
+
+	private MergingStatementReader open(List<Path> runs) throws IOException {
+
+		List<BufferableStatementReader> readers = new ArrayList<>();
+
+		try {
+			for (Path run : runs) {
+				readers.add(new BinaryStatementReader(Files.newInputStream(run), specifications, 100));
+			}
+		} catch (IOException e) {
+			for (BufferableStatementReader reader : readers) {
+				reader.close();
+			}
+			deleteAll(runs);
+			throw e;
+		}
+		return new MergingStatementReader(readers, sortKey, specifications, runs);
+	}
+
+	static void deleteAll(List<Path> files) {
+
+		for (Path file : files) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				// best effort
+			}
+		}
+	}
+
+	/**
+	 * @return the estimated heap size of a statement in bytes
+	 */
+	static long estimateSize(Statement statement) {
+
+		long size = 96;
+		for (Map.Entry<StatementField, String> field : statement.entrySet()) {
+			// tree entry, string and its characters
+			size += 40 + 40 + ((field.getValue() != null) ? 2L * field.getValue().length() : 0);
+		}
+		return size;
+	}
+
+	/**
+	 * The run being read and the runs being sorted and spilled, sharing the memory budget
+	 */
+	private class Runs {
+
+		private final long runBudget = Math.max(1, memoryBudget / (threadCount + 1));
+		private final ExecutorService executor;
+		private final Semaphore pendingRuns = new Semaphore(threadCount);
+		private final List<Future<Path>> spills = new ArrayList<>();
+		private List<Statement> run = new ArrayList<>();
+		private long runSize;
+
+		private Runs(ExecutorService executor) {
+
+			this.executor = executor;
+		}
+
+		private void add(Statement statement) throws IOException {
+
+			run.add(statement);
+			runSize += estimateSize(statement);
+
+			if (runSize >= runBudget) {
+				spill();
+			}
+		}
+
+		/**
+		 * Sort and write the current run on the pool (blocks if all threads are busy)
+		 */
+		private void spill() throws IOException {
+
+			try {
+				pendingRuns.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for runs to be spilled", e);
+			}
+
+			List<Statement> statements = run;
+			run = new ArrayList<>();
+			runSize = 0;
+
+			spills.add(executor.submit(() -> {
+				try {
+					Statement[] sorted = sortKey.sort(statements);
+
+					return write(writer -> {
+						for (Statement statement : sorted) {
+							writer.write(statement);
+						}
+					});
+				} finally {
+					pendingRuns.release();
+				}
+			}));
+		}
+
+		/**
+		 * Spill the last run and wait for all runs to be written
+		 * @return the sorted run files in input order
+		 */
+		private List<Path> awaitAll() throws IOException {
+
+			if (!run.isEmpty()) {
+				spill();
+			}
+
+			List<Path> files = new ArrayList<>();
+			for (Future<Path> spill : spills) {
+				try {
+					files.add(spill.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("interrupted while waiting for runs to be spilled", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IOException("cannot spill sorted run", e.getCause());
+				}
+			}
+			return files;
+		}
+
+		/**
+		 * Delete the run files after a failure
+		 */
+		private void discard() {
+
+			List<Path> files = new ArrayList<>();
+			for (Future<Path> spill : spills) {
+				spill.cancel(false);
+				try {
+					files.add(spill.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException | CancellationException e) {
+					// no file
+				}
+			}
+			deleteAll(files);
+		}
+	}
+
+	@FunctionalInterface
+	private interface RunWriter {
+
+		void writeTo(BinaryStatementWriter writer) throws IOException;
+	}
+
+	public static class Builder {
+
+		private final StatementSortKey sortKey;
+		private long memoryBudget = 256L * 1024 * 1024;
+		private Path tempDirectory;
+		private int threadCount = Runtime.getRuntime().availableProcessors();
+		private StatementSpecifications specifications = new Specifications.Builder().build();
+
+		public Builder(StatementSortKey sortKey) {
+
+			this.sortKey = sortKey;
+		}
+
+		public Builder(StatementField... sortKeyFields) {
+
+			this(StatementSortKey.of(sortKeyFields));
+		}
+
+		/**
+		 * Set the estimated heap size of the statements held in memory (default is 256 MiB)
+		 */
+		public Builder withMemoryBudget(long memoryBudget) {
+
+			if (memoryBudget <= 0) {
+				throw new IllegalArgumentException("memoryBudget="+memoryBudget+": cannot define a negative (or 0) memory budget");
+			}
+			this.memoryBudget = memoryBudget;
+			return this;
+		}
+
+		/**
+		 * Set the directory of the sorted runs (default is the system temporary directory)
+		 */
+		public Builder withTempDirectory(Path tempDirectory) {
+
+			this.tempDirectory = tempDirectory;
+			return this;
+		}
+
+		/**
+		 * Set the number of runs sorted and spilled concurrently
+		 */
+		public Builder withThreads(int threadCount) {
+
+			if (threadCount <= 0) {
+				throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+			}
+			this.threadCount = threadCount;
+			return this;
+		}
+
+		/**
+		 * Set the specifications of the sorted statements
+		 */
+		public Builder withSpecifications(StatementSpecifications specifications) {
+
+			this.specifications = specifications;
+			return this;
+		}
+
+		public ExternalStatementSorter build() {
+
+			return new ExternalStatementSorter(this);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package org.nextprot.commons.statements.sort;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+/**
+ * K-way merge of sorted sources on encoded keys, statements with the same key being taken from the first source first
+ */
+class MergingStatementReader implements BufferableStatementReader {
+
+	private static final int DEFAULT_MAX_BUFFER_SIZE = 100;
+
+	private final List<BufferableStatementReader> sources;
+	private final StatementSortKey sortKey;
+	private final StatementSpecifications specifications;
+	private final List<Path> files;
+	private final PriorityQueue<Head> heads;
+	private boolean closed;
+
+	/**
+	 * @param sources the sorted sources
+	 * @param files the files of the sources, deleted on close
+	 */
+	MergingStatementReader(List<BufferableStatementReader> sources, StatementSortKey sortKey,
+	                       StatementSpecifications specifications, List<Path> files) throws IOException {
+
+		this.sources = sources;
+		this.sortKey = sortKey;
+		this.specifications = specifications;
+		this.files = files;
+		this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+				Comparator.comparing((Head head) -> head.key).thenComparingInt(head -> head.source));
+
+		try {
+			for (int i = 0; i < sources.size(); i++) {
+				advance(i);
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	@Override
+	public StatementSpecifications getSpecifications() {
+
+		return specifications;
+	}
+
+	@Override
+	public boolean hasStatement() {
+
+		return !heads.isEmpty();
+	}
+
+	@Override
+	public Statement nextStatement() throws IOException {
+
+		Head head = heads.poll();
+
+		if (head == null) {
+			close();
+			return null;
+		}
+		advance(head.source);
+
+		return head.statement;
+	}
+
+	@Override
+	public List<Statement> readStatements() throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+
+		Statement statement;
+		while (statements.size() < DEFAULT_MAX_BUFFER_SIZE && (statement = nextStatement()) != null) {
+			statements.add(statement);
+		}
+		return statements;
+	}
+
+	@Override
+	public int readStatements(List<Statement> buffer) throws IOException {
+
+		if (closed) {
+			return -1;
+		}
+
+		List<Statement> statements = readStatements();
+		buffer.addAll(statements);
+		return statements.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+		heads.clear();
+
+		IOException error = null;
+		for (BufferableStatementReader source : sources) {
+			try {
+				source.close();
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+		ExternalStatementSorter.deleteAll(files);
+
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	private void advance(int source) throws IOException {
+
+		Statement statement = sources.get(source).nextStatement();
+
+		if (statement != null) {
+			heads.add(new Head(statement, sortKey.encode(statement), source));
+		}
+	}
+
+	private static class Head {
+
+		private final Statement statement;
+		private final EncodedSortKey key;
+		private final int source;
+
+		private Head(Statement statement, EncodedSortKey key, int source) {
+
+			this.statement = statement;
+			this.key = key;
+			this.source = source;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package org.nextprot.commons.statements.sort;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reads statements sorted in memory
+ */
+class SortedListReader implements BufferableStatementReader {
+
+	private static final int DEFAULT_MAX_BUFFER_SIZE = 100;
+
+	private final List<Statement> statements;
+	private final StatementSpecifications specifications;
+	private int next;
+	private boolean closed;
+
+	SortedListReader(List<Statement> statements, StatementSpecifications specifications) {
+
+		this.statements = statements;
+		this.specifications = specifications;
+	}
+
+	@Override
+	public StatementSpecifications getSpecifications() {
+
+		return specifications;
+	}
+
+	@Override
+	public boolean hasStatement() {
+
+		return !closed && next < statements.size();
+	}
+
+	@Override
+	public Statement nextStatement() {
+
+		if (!hasStatement()) {
+			closed = true;
+			return null;
+		}
+		Statement statement = statements.get(next);
+		// release statements as they are read
+		statements.set(next++, null);
+
+		return statement;
+	}
+
+	@Override
+	public List<Statement> readStatements() {
+
+		List<Statement> buffer = new ArrayList<>();
+
+		Statement statement;
+		while (buffer.size() < DEFAULT_MAX_BUFFER_SIZE && (statement = nextStatement()) != null) {
+			buffer.add(statement);
+		}
+		return buffer;
+	}
+
+	@Override
+	public int readStatements(List<Statement> buffer) {
+
+		if (closed) {
+			return -1;
+		}
+
+		List<Statement> statements = readStatements();
+		buffer.addAll(statements);
+		return statements.size();
+	}
+
+	@Override
+	public void close() {
+
+		closed = true;
+	}
+}
@@ -0,0 +1,180 @@
+package org.nextprot.commons.statements.sort;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * A sort key made of statement field values compared in order, missing values first
+ * and values in unicode code point order (the order of their UTF-8 bytes).
+ *
+ * A key can be encoded once per statement into bytes compared without accessing statements anymore
+ * (see {@link #encode(Statement)}).
+ */
+public class StatementSortKey implements Comparator<Statement> {
+
+	private final List<StatementField> fields;
+
+	private StatementSortKey(List<StatementField> fields) {
+
+		if (fields.isEmpty()) {
+			throw new IllegalArgumentException("missing sort key fields");
+		}
+		this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+	}
+
+	public static StatementSortKey of(StatementField... fields) {
+
+		return new StatementSortKey(Arrays.asList(fields));
+	}
+
+	public static StatementSortKey of(List<StatementField> fields) {
+
+		return new StatementSortKey(fields);
+	}
+
+	public List<StatementField> getFields() {
+
+		return fields;
+	}
+
+	@Override
+	public int compare(Statement statement1, Statement statement2) {
+
+		for (StatementField field : fields) {
+
+			String value1 = statement1.getValue(field);
+			String value2 = statement2.getValue(field);
+
+			if (value1 == null || value2 == null) {
+				if (value1 != value2) {
+					return (value1 == null) ? -1 : 1;
+				}
+				continue;
+			}
+
+			int cmp = compareCodePoints(value1, value2);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Encode the key of the statement into bytes whose unsigned lexicographic order is the order of this key.
+	 *
+	 * Each field is encoded as 0x01 if missing or as 0x02 followed by the UTF-8 bytes of the value,
+	 * with 0x00 escaped as 0x00 0xFF, and terminated by 0x00 0x00.
+	 */
+	public EncodedSortKey encode(Statement statement) {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+		for (StatementField field : fields) {
+
+			String value = statement.getValue(field);
+
+			if (value == null) {
+				out.write(0x01);
+				continue;
+			}
+
+			out.write(0x02);
+			for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+				out.write(b);
+				if (b == 0) {
+					out.write(0xFF);
+				}
+			}
+			out.write(0);
+			out.write(0);
+		}
+		return new EncodedSortKey(out.toByteArray());
+	}
+
+	/**
+	 * Sort statements by encoding their key once
+	 * @return the statements in key order, statements with the same key keeping their order
+	 */
+	public Statement[] sort(Collection<Statement> statements) {
+
+		Keyed[] keyed = new Keyed[statements.size()];
+
+		int i = 0;
+		for (Statement statement : statements) {
+			keyed[i++] = new Keyed(statement, encode(statement));
+		}
+		// stable
+		Arrays.parallelSort(keyed);
+
+		Statement[] sorted = new Statement[keyed.length];
+		for (i = 0; i < keyed.length; i++) {
+			sorted[i] = keyed[i].statement;
+		}
+		return sorted;
+	}
+
+	/**
+	 * Compare strings in code point order (String.compareTo compares UTF-16 chars, putting supplementary characters
+	 * before the characters from U+E000)
+	 */
+	private static int compareCodePoints(String value1, String value2) {
+
+		int length = Math.min(value1.length(), value2.length());
+
+		for (int i = 0; i < length; i++) {
+
+			char c1 = value1.charAt(i);
+			char c2 = value2.charAt(i);
+
+			if (c1 != c2) {
+				return fixUp(c1) - fixUp(c2);
+			}
+		}
+		return value1.length() - value2.length();
+	}
+
+	private static int fixUp(char c) {
+
+		if (c >= 0xE000) return c - 0x800;
+		if (c >= 0xD800) return c + 0x2000;
+		return c;
+	}
+
+	/**
+	 * A statement with its encoded key
+	 */
+	static class Keyed implements Comparable<Keyed> {
+
+		final Statement statement;
+		final EncodedSortKey key;
+
+		Keyed(Statement statement, EncodedSortKey key) {
+
+			this.statement = statement;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(Keyed other) {
+
+			return key.compareTo(other.key);
+		}
+	}
+
+	@Override
+	public String toString() {
+
+		return fields.toString();
+	}
+}
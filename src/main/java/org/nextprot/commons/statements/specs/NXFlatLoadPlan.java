@@ -0,0 +1,167 @@
+package org.nextprot.commons.statements.specs;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The plan of a full reload of a nxflat table in three phases:
+ *
+ * <ol>
+ * <li>create a staging table without any index (optionally unlogged)</li>
+ * <li>bulk load the staging table (COPY or JDBC batches)</li>
+ * <li>create the indexes, each statement being independent so they can be created in parallel,
+ * then swap the staging table in place of the current table in a single transaction</li>
+ * </ol>
+ *
+ * The indexes of the partitions of a partitioned table are created one by one (and attached to the indexes of the table)
+ * so that they are named after the indexes of the table, and renamed with them by the swap.
+ *
+ * Readers of the current table never see a partially loaded table.
+ */
+public class NXFlatLoadPlan {
+
+	private static final String STAGING_SUFFIX = "_STAGING";
+	private static final String STAGING_INDEX_SUFFIX = "_STG";
+
+	private final NXFlatTableSchema schema;
+	private final String tableName;
+	private final String stagingTableName;
+	private final boolean unlogged;
+
+	NXFlatLoadPlan(NXFlatTableSchema schema, String tableName, boolean unlogged) {
+
+		this.schema = schema;
+		this.tableName = tableName;
+		this.stagingTableName = tableName + STAGING_SUFFIX;
+		this.unlogged = unlogged;
+	}
+
+	public String getTableName() {
+
+		return tableName;
+	}
+
+	/** @return the name of the table loaded in phase 2 */
+	public String getStagingTableName() {
+
+		return stagingTableName;
+	}
+
+	public boolean isUnlogged() {
+
+		return unlogged;
+	}
+
+	/** @return phase 1: the sql statements (re)creating the staging table without any index */
+	public List<String> getCreateStagingTableSQL() {
+
+		List<String> statements = new ArrayList<>();
+		statements.add(getDropStagingTableSQL());
+		statements.addAll(schema.generateTableDefinitionInSQL(stagingTableName, unlogged));
+
+		return statements;
+	}
+
+	/** @return phase 2: the sql to load the staging table from the standard input */
+	public String getCopyFromStdinSQL(boolean binary) {
+
+		return schema.generateCopyFromStdinSQL(stagingTableName, binary);
+	}
+
+	/** @return phase 3: the sql statements making the unlogged staging table durable (to execute before indexing) */
+	public List<String> getSetLoggedSQL() {
+
+		if (!unlogged) {
+			return Collections.emptyList();
+		}
+
+		List<String> statements = new ArrayList<>();
+		if (schema.getHashPartitionCount() == 0) {
+			statements.add("ALTER TABLE nxflat." + stagingTableName + " SET LOGGED");
+		}
+		for (int i = 0; i < schema.getHashPartitionCount(); i++) {
+			statements.add("ALTER TABLE nxflat." + NXFlatTableSchema.getPartitionName(stagingTableName, i) + " SET LOGGED");
+		}
+		return statements;
+	}
+
+	/** @return phase 3: the independent sql statements indexing the staging table (and its partitions) */
+	public List<String> getCreateIndexesSQL() {
+
+		if (schema.getHashPartitionCount() > 0) {
+			return schema.generateCreatePartitionedIndexesInSQL(tableName, stagingTableName, STAGING_INDEX_SUFFIX);
+		}
+		return schema.generateCreateIndexesInSQL(tableName, stagingTableName, STAGING_INDEX_SUFFIX);
+	}
+
+	/**
+	 * @return phase 3: the sql statements attaching the partition indexes to the staging table indexes
+	 * (to execute once all indexes are created, none if the table is not partitioned)
+	 */
+	public List<String> getAttachIndexesSQL() {
+
+		return schema.generateAttachPartitionIndexesInSQL(tableName, STAGING_INDEX_SUFFIX);
+	}
+
+	/**
+	 * @return phase 3: the sql statements replacing the current table by the indexed staging table
+	 * (to execute in a single transaction)
+	 */
+	public List<String> getSwapSQL() {
+
+		List<String> statements = new ArrayList<>();
+		statements.add("DROP TABLE IF EXISTS nxflat." + tableName);
+		statements.add("ALTER TABLE nxflat." + stagingTableName + " RENAME TO " + tableName);
+
+		for (int i = 0; i < schema.getHashPartitionCount(); i++) {
+			statements.add("ALTER TABLE nxflat." + NXFlatTableSchema.getPartitionName(stagingTableName, i)
+					+ " RENAME TO " + NXFlatTableSchema.getPartitionName(tableName, i));
+		}
+		for (String index : schema.getIndexNames(tableName)) {
+			statements.add("ALTER INDEX nxflat." + index + STAGING_INDEX_SUFFIX + " RENAME TO " + index);
+		}
+		for (String index : schema.getPartitionIndexNames(tableName)) {
+			statements.add("ALTER INDEX nxflat." + index + STAGING_INDEX_SUFFIX + " RENAME TO " + index);
+		}
+		return statements;
+	}
+
+	/** @return the sql dropping the staging table (when a load failed) */
+	public String getDropStagingTableSQL() {
+
+		return "DROP TABLE IF EXISTS nxflat." + stagingTableName;
+	}
+
+	/**
+	 * @param binary true for a COPY in PostgreSQL binary format
+	 * @return the whole plan as a psql script, the rows being expected from the standard input after the COPY
+	 */
+	public String toSQL(boolean binary) {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("-- phase 1: staging table\n");
+		appendStatements(sb, getCreateStagingTableSQL());
+		sb.append("-- phase 2: bulk load\n");
+		sb.append(getCopyFromStdinSQL(binary));
+		sb.append("-- phase 3: indexes and swap\n");
+		appendStatements(sb, getSetLoggedSQL());
+		appendStatements(sb, getCreateIndexesSQL());
+		appendStatements(sb, getAttachIndexesSQL());
+		sb.append("BEGIN;\n");
+		appendStatements(sb, getSwapSQL());
+		sb.append("COMMIT;\n");
+
+		return sb.toString();
+	}
+
+	private static void appendStatements(StringBuilder sb, List<String> statements) {
+
+		for (String statement : statements) {
+			sb.append(statement).append(";\n");
+		}
+	}
+}
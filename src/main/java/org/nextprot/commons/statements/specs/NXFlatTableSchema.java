@@ -1,22 +1,76 @@
 package org.nextprot.commons.statements.specs;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
 
 /**
  * The NXFlat DB schema based on statement specifications.
  *
  * It consists of core fields (string types) and
  * a supplementary column composed of all the custom fields (as a json column of type map keyed with custom field name).
+ *
+ * A typed schema (see {@link #typed(int)}) declares integer positions, fixed-length ids and short enum-like columns,
+ * can be hash partitioned by ENTRY_ACCESSION and indexes the common lookups.
  */
 public class NXFlatTableSchema {
 
+	private static final String UNTYPED_COLUMN = "VARCHAR(10000)";
+	private static final String TYPED_COLUMN = "VARCHAR";
+	private static final Map<CoreStatementField, String> COLUMN_TYPES = new EnumMap<>(CoreStatementField.class);
+
+	static {
+		for (CoreStatementField field : Arrays.asList(LOCATION_BEGIN, LOCATION_END, LOCATION_BEGIN_MASTER, LOCATION_END_MASTER)) {
+			COLUMN_TYPES.put(field, "INTEGER");
+		}
+		for (CoreStatementField field : Arrays.asList(STATEMENT_ID, ANNOTATION_ID, RAW_STATEMENT_ID)) {
+			COLUMN_TYPES.put(field, "CHAR(32)");
+		}
+		for (CoreStatementField field : Arrays.asList(ENTRY_ACCESSION, NEXTPROT_ACCESSION, ISOFORM_CANONICAL)) {
+			COLUMN_TYPES.put(field, "VARCHAR(32)");
+		}
+		for (CoreStatementField field : Arrays.asList(ANNOTATION_CATEGORY, ANNOTATION_SUBJECT_SPECIES, ANNOTATION_OBJECT_SPECIES,
+				IS_NEGATIVE, EVIDENCE_QUALITY, EVIDENCE_INTENSITY, EVIDENCE_CODE, ANNOT_CV_TERM_TERMINOLOGY,
+				BIOLOGICAL_OBJECT_TYPE, BIOLOGICAL_OBJECT_DATABASE, SOURCE, REFERENCE_DATABASE, ASSIGNED_BY,
+				ASSIGMENT_METHOD, RESOURCE_TYPE)) {
+			COLUMN_TYPES.put(field, "VARCHAR(64)");
+		}
+	}
+
 	private final StatementSpecifications statementSpecifications;
+	private final boolean typed;
+	private final int hashPartitionCount;
 
 	public NXFlatTableSchema() {
 
+		this(false, 0);
+	}
+
+	private NXFlatTableSchema(boolean typed, int hashPartitionCount) {
+
 		statementSpecifications = new Specifications.Builder().build();
+		this.typed = typed;
+		this.hashPartitionCount = hashPartitionCount;
+	}
+
+	/**
+	 * @param hashPartitionCount the number of partitions by ENTRY_ACCESSION hash (0 for an unpartitioned table)
+	 * @return the typed schema
+	 */
+	public static NXFlatTableSchema typed(int hashPartitionCount) {
+
+		if (hashPartitionCount < 0) {
+			throw new IllegalArgumentException("hashPartitionCount="+hashPartitionCount+": cannot define a negative number of partitions");
+		}
+		return new NXFlatTableSchema(true, hashPartitionCount);
 	}
 
 	public StatementSpecifications getSpecifications() {
@@ -28,34 +82,244 @@ public class NXFlatTableSchema {
 		return statementSpecifications.size();
 	}
 
+	/** @return true if columns are typed */
+	public boolean isTyped() {
+
+		return typed;
+	}
+
+	/** @return the number of partitions by ENTRY_ACCESSION hash or 0 if unpartitioned */
+	public int getHashPartitionCount() {
+
+		return hashPartitionCount;
+	}
+
+	/** @return the names of the table columns in order, EXTRA_FIELDS being the last one */
+	public List<String> getColumnNames() {
+
+		List<String> columnNames = statementSpecifications.getFields().stream()
+				.map(StatementField::getName)
+				.collect(Collectors.toList());
+		columnNames.add(Specifications.EXTRA_FIELDS);
+
+		return columnNames;
+	}
+
+	/** @return the sql type of the given column */
+	public String getColumnType(String columnName) {
+
+		if (!typed) {
+			return UNTYPED_COLUMN;
+		}
+		if (CoreStatementField.hasKey(columnName)) {
+			return COLUMN_TYPES.getOrDefault(CoreStatementField.valueOf(columnName), TYPED_COLUMN);
+		}
+		return TYPED_COLUMN;
+	}
+
+	/** @return true if the given column holds integer values */
+	public boolean isIntegerColumn(String columnName) {
+
+		return "INTEGER".equals(getColumnType(columnName));
+	}
+
 	/** @return the sql to create the table schema for nxflat.{tableName} */
 	public String generateCreateTableInSQL(String tableName) {
 
 		StringBuilder sb = new StringBuilder();
 		sb.append("DROP TABLE IF EXISTS nxflat.").append(tableName).append(";\n");
-		sb.append("CREATE TABLE nxflat.").append(tableName).append(" (\n");
-
-		sb.append(statementSpecifications.getFields().stream()
-				.map(field -> "\t" + field.getName() + " VARCHAR(10000)")
-				.collect(Collectors.joining(",\n")));
-
-		sb.append(",\n\tEXTRA_FIELDS VARCHAR(10000)\n");
-		
-		sb.append(");\n");
-
-		sb.append("CREATE INDEX ").append(tableName, 0, 10)
-				.append("_ENTRY_AC_IDX ON nxflat.").append(tableName)
-				.append(" ( ")
-				.append(CoreStatementField.ENTRY_ACCESSION.name())
-				.append(" );\n");
-
-		sb.append("CREATE INDEX ").append(tableName, 0, 10)
-				.append("_ANNOT_ID_IDX ON nxflat.").append(tableName)
-				.append(" ( ")
-				.append(CoreStatementField.ANNOTATION_ID.name())
-				.append(" );\n");
+
+		for (String statement : generateTableDefinitionInSQL(tableName, false)) {
+			sb.append(statement).append(";\n");
+		}
+		for (String index : generateCreateIndexesInSQL(tableName)) {
+			sb.append(index).append(";\n");
+		}
 		sb.append("\n");
 
 		return sb.toString();
 	}
+
+	/**
+	 * @param unlogged true to create an unlogged table (or unlogged partitions), not written to the PostgreSQL WAL
+	 * @return the sql statements creating the table nxflat.{tableName} and its partitions, without any index
+	 */
+	List<String> generateTableDefinitionInSQL(String tableName, boolean unlogged) {
+
+		List<String> statements = new ArrayList<>();
+
+		// a partitioned table cannot be unlogged, only its partitions
+		String createTable = ((unlogged && hashPartitionCount == 0) ? "CREATE UNLOGGED TABLE nxflat." : "CREATE TABLE nxflat.")
+				+ tableName + " (\n"
+				+ getColumnNames().stream()
+						.map(column -> "\t" + column + " " + getColumnType(column))
+						.collect(Collectors.joining(",\n"))
+				+ "\n)";
+
+		if (hashPartitionCount > 0) {
+			statements.add(createTable + " PARTITION BY HASH (" + ENTRY_ACCESSION.name() + ")");
+
+			for (int i = 0; i < hashPartitionCount; i++) {
+				statements.add(((unlogged) ? "CREATE UNLOGGED TABLE nxflat." : "CREATE TABLE nxflat.") + getPartitionName(tableName, i)
+						+ " PARTITION OF nxflat." + tableName
+						+ " FOR VALUES WITH (MODULUS " + hashPartitionCount + ", REMAINDER " + i + ")");
+			}
+		}
+		else {
+			statements.add(createTable);
+		}
+		return statements;
+	}
+
+	/**
+	 * @return the sql statements creating the indexes of nxflat.{tableName} (one per index)
+	 */
+	public List<String> generateCreateIndexesInSQL(String tableName) {
+
+		return generateCreateIndexesInSQL(tableName, tableName, "");
+	}
+
+	/**
+	 * @param tableName the table the indexes are named after
+	 * @param indexedTableName the table to index
+	 * @param indexNameSuffix the suffix appended to index names
+	 * @return the independent sql statements creating the indexes of nxflat.{indexedTableName}
+	 */
+	List<String> generateCreateIndexesInSQL(String tableName, String indexedTableName, String indexNameSuffix) {
+
+		return getIndexes().entrySet().stream()
+				.map(index -> generateCreateIndexInSQL(getIndexName(tableName, index.getKey()) + indexNameSuffix,
+						"nxflat." + indexedTableName, index.getValue()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * The indexes of the partitioned table are created on the table only, and the indexes of each partition are created
+	 * under a name derived from the index of the table (not the name PostgreSQL would generate from the partition name)
+	 *
+	 * @param tableName the table the indexes are named after
+	 * @param indexedTableName the partitioned table to index
+	 * @param indexNameSuffix the suffix appended to index names
+	 * @return the independent sql statements creating the indexes of nxflat.{indexedTableName} and of its partitions,
+	 * to attach with {@link #generateAttachPartitionIndexesInSQL(String, String)}
+	 */
+	List<String> generateCreatePartitionedIndexesInSQL(String tableName, String indexedTableName, String indexNameSuffix) {
+
+		List<String> statements = new ArrayList<>();
+
+		for (Map.Entry<String, CoreStatementField[]> index : getIndexes().entrySet()) {
+
+			String indexName = getIndexName(tableName, index.getKey());
+
+			statements.add(generateCreateIndexInSQL(indexName + indexNameSuffix, "ONLY nxflat." + indexedTableName, index.getValue()));
+			for (int i = 0; i < hashPartitionCount; i++) {
+				statements.add(generateCreateIndexInSQL(getPartitionName(indexName, i) + indexNameSuffix,
+						"nxflat." + getPartitionName(indexedTableName, i), index.getValue()));
+			}
+		}
+		return statements;
+	}
+
+	/**
+	 * @return the sql statements attaching the indexes of the partitions to the indexes of the partitioned table,
+	 * to execute once all of them are created
+	 */
+	List<String> generateAttachPartitionIndexesInSQL(String tableName, String indexNameSuffix) {
+
+		List<String> statements = new ArrayList<>();
+
+		for (String indexName : getIndexNames(tableName)) {
+			for (int i = 0; i < hashPartitionCount; i++) {
+				statements.add("ALTER INDEX nxflat." + indexName + indexNameSuffix
+						+ " ATTACH PARTITION nxflat." + getPartitionName(indexName, i) + indexNameSuffix);
+			}
+		}
+		return statements;
+	}
+
+	private static String generateCreateIndexInSQL(String indexName, String on, CoreStatementField[] fields) {
+
+		return "CREATE INDEX " + indexName + " ON " + on
+				+ " ( " + Arrays.stream(fields).map(Enum::name).collect(Collectors.joining(", ")) + " )";
+	}
+
+	/**
+	 * @return true if one of the indexes created by {@link #generateCreateIndexesInSQL(String)} starts with the field,
+	 * so that rows can be looked up by its value
+	 */
+	public boolean isIndexed(CoreStatementField field) {
+
+		return getIndexes().values().stream().anyMatch(fields -> fields[0] == field);
+	}
+
+	/** @return the names of the indexes of nxflat.{tableName} */
+	List<String> getIndexNames(String tableName) {
+
+		return getIndexes().keySet().stream()
+				.map(index -> getIndexName(tableName, index))
+				.collect(Collectors.toList());
+	}
+
+	/** @return the names of the partition indexes of nxflat.{tableName} created by a load plan */
+	List<String> getPartitionIndexNames(String tableName) {
+
+		List<String> names = new ArrayList<>();
+
+		for (String indexName : getIndexNames(tableName)) {
+			for (int i = 0; i < hashPartitionCount; i++) {
+				names.add(getPartitionName(indexName, i));
+			}
+		}
+		return names;
+	}
+
+	/** @return the indexed fields by index name suffix */
+	private Map<String, CoreStatementField[]> getIndexes() {
+
+		Map<String, CoreStatementField[]> indexes = new LinkedHashMap<>();
+
+		indexes.put("ENTRY_AC_IDX", new CoreStatementField[] { ENTRY_ACCESSION });
+		indexes.put("ANNOT_ID_IDX", new CoreStatementField[] { ANNOTATION_ID });
+
+		if (typed) {
+			indexes.put("STMT_ID_IDX", new CoreStatementField[] { STATEMENT_ID });
+			indexes.put("ENTRY_CAT_IDX", new CoreStatementField[] { ENTRY_ACCESSION, ANNOTATION_CATEGORY });
+			indexes.put("ENTRY_LOC_IDX", new CoreStatementField[] { ENTRY_ACCESSION, LOCATION_BEGIN, LOCATION_END });
+			indexes.put("CATEGORY_IDX", new CoreStatementField[] { ANNOTATION_CATEGORY });
+		}
+		return indexes;
+	}
+
+	private static String getIndexName(String tableName, String suffix) {
+
+		return tableName.substring(0, Math.min(10, tableName.length())) + "_" + suffix;
+	}
+
+	static String getPartitionName(String tableName, int partition) {
+
+		return tableName + "_P" + partition;
+	}
+
+	/**
+	 * Plan the full reload of nxflat.{tableName}: a staging table without index is bulk loaded,
+	 * then indexed and atomically swapped in place of the current table
+	 *
+	 * @param unlogged true to load an unlogged staging table (set logged before being indexed)
+	 * @return the load plan
+	 */
+	public NXFlatLoadPlan generateLoadPlan(String tableName, boolean unlogged) {
+
+		return new NXFlatLoadPlan(this, tableName, unlogged);
+	}
+
+	/**
+	 * @param tableName the table name
+	 * @param binary true for rows in PostgreSQL binary format, false for text format
+	 * @return the sql to load rows into nxflat.{tableName} from the standard input (see {@code PgCopyStatementWriter})
+	 */
+	public String generateCopyFromStdinSQL(String tableName, boolean binary) {
+
+		return "COPY nxflat." + tableName + " (" + String.join(", ", getColumnNames()) + ") FROM STDIN"
+				+ ((binary) ? " WITH (FORMAT binary)" : "") + ";\n";
+	}
 }
@@ -0,0 +1,145 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * This writer writes statements in a compact binary form read back by
+ * {@link org.nextprot.commons.statements.reader.BinaryStatementReader}.
+ *
+ * After a header (magic number and version), each statement is a record prefixed by its length in bytes:
+ * <pre>
+ * record := varint(fieldCount) field*
+ * field  := varint(fieldRef) [kind varint(nameLength) utf8Name] varint(valueLength + 1) utf8Value
+ * </pre>
+ * A field name is written once in the stream (fieldRef 0 followed by the field kind and name), later fields
+ * referring to it by its definition rank (fieldRef &gt; 0). A null value has a length of -1.
+ */
+public class BinaryStatementWriter implements StatementWriter {
+
+	public static final int MAGIC_NUMBER = 0x4e585342; // NXSB
+	public static final int VERSION = 1;
+
+	/** the kinds of field definitions */
+	public static final int CORE_FIELD = 0;
+	public static final int CUSTOM_FIELD = 1;
+	public static final int CUSTOM_UNICITY_FIELD = 2;
+
+	private static final int DEFAULT_IO_BUFFER_SIZE = 64 * 1024;
+
+	private final DataOutputStream out;
+	private final Map<StatementField, Integer> fieldRefs = new HashMap<>();
+	private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(1024);
+	private final DataOutputStream record = new DataOutputStream(recordBytes);
+	private long byteCount;
+	private boolean closed;
+
+	public BinaryStatementWriter(OutputStream outputStream) throws IOException {
+
+		this.out = new DataOutputStream(new BufferedOutputStream(outputStream, DEFAULT_IO_BUFFER_SIZE));
+
+		out.writeInt(MAGIC_NUMBER);
+		out.writeInt(VERSION);
+	}
+
+	public static BinaryStatementWriter create(Path path) throws IOException {
+
+		return new BinaryStatementWriter(Files.newOutputStream(path));
+	}
+
+	@Override
+	public void write(Statement statement) throws IOException {
+
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+
+		recordBytes.reset();
+		writeVarInt(record, statement.size());
+
+		for (Map.Entry<StatementField, String> field : statement.entrySet()) {
+
+			writeFieldRef(field.getKey());
+
+			if (field.getValue() == null) {
+				writeVarInt(record, 0);
+			}
+			else {
+				byte[] value = field.getValue().getBytes(StandardCharsets.UTF_8);
+				writeVarInt(record, value.length + 1);
+				record.write(value);
+			}
+		}
+
+		writeVarInt(out, recordBytes.size());
+		recordBytes.writeTo(out);
+		byteCount += recordBytes.size();
+	}
+
+	/** @return the number of bytes of statement records written (without their length prefix) */
+	public long getByteCount() {
+
+		return byteCount;
+	}
+
+	@Override
+	public void flush() throws IOException {
+
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+		out.close();
+	}
+
+	private void writeFieldRef(StatementField field) throws IOException {
+
+		Integer ref = fieldRefs.get(field);
+
+		if (ref != null) {
+			writeVarInt(record, ref);
+		}
+		else {
+			fieldRefs.put(field, fieldRefs.size() + 1);
+
+			writeVarInt(record, 0);
+			if (field instanceof CoreStatementField) {
+				record.writeByte(CORE_FIELD);
+			}
+			else {
+				record.writeByte((field.isPartOfAnnotationUnicityKey()) ? CUSTOM_UNICITY_FIELD : CUSTOM_FIELD);
+			}
+			byte[] name = field.getName().getBytes(StandardCharsets.UTF_8);
+			writeVarInt(record, name.length);
+			record.write(name);
+		}
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+}
@@ -0,0 +1,455 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+
+/**
+ * This writer inserts statements into a nxflat table (RAW_STATEMENTS or ENTRY_MAPPED_STATEMENTS) with JDBC batches.
+ *
+ * Statements are partitioned by ENTRY_ACCESSION hash over several connections, each one written by its own thread.
+ * A batch is written in a single transaction that first deletes the rows with the STATEMENT_ID of its statements,
+ * so that writes are idempotent: retrying a batch (even one whose commit was not acknowledged) or writing the same
+ * statements again never duplicates rows. This requires a table schema indexing STATEMENT_ID (see
+ * {@link NXFlatTableSchema#typed(int)}) unless {@link Builder#insertingOnly()} is set.
+ * Rows of statements without a STATEMENT_ID are always inserted, and may be duplicated.
+ */
+public class JdbcStatementWriter implements StatementWriter {
+
+	private final DataSource dataSource;
+	private final String insertSQL;
+	// null if rows are not replaced
+	private final String deleteSQL;
+	private final NXFlatRowMapper mapper;
+	private final int batchSize;
+	private final int maxRetries;
+	private final long retryDelayMillis;
+	private final Partition[] partitions;
+
+	private final long startNanos = System.nanoTime();
+	private final AtomicLong rowCount = new AtomicLong();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private boolean closed;
+
+	private JdbcStatementWriter(Builder builder) {
+
+		this.dataSource = builder.dataSource;
+		this.mapper = new NXFlatRowMapper(builder.schema);
+		this.batchSize = builder.batchSize;
+		this.maxRetries = builder.maxRetries;
+		this.retryDelayMillis = builder.retryDelayMillis;
+
+		String table = (builder.schemaName != null) ? builder.schemaName + "." + builder.tableName : builder.tableName;
+
+		this.insertSQL = "INSERT INTO " + table + " (" + String.join(", ", mapper.getColumnNames()) + ") VALUES ("
+				+ mapper.getColumnNames().stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+		this.deleteSQL = (!builder.insertingOnly)
+				? "DELETE FROM " + table + " WHERE " + mapper.getColumnNames().get(mapper.getStatementIdIndex()) + " = ?"
+				: null;
+
+		this.partitions = new Partition[builder.connectionCount];
+		for (int i = 0; i < partitions.length; i++) {
+			partitions[i] = new Partition(i, builder.maxPendingBatches);
+		}
+	}
+
+	/**
+	 * Add the statement to the batch of its partition, handed to the partition thread once full
+	 * (blocks if too many batches are pending)
+	 */
+	@Override
+	public void write(Statement statement) throws IOException {
+
+		checkState();
+
+		Partition partition = partitions[Math.floorMod(Objects.hashCode(statement.getEntryAccession()), partitions.length)];
+		partition.add(mapper.toRow(statement));
+	}
+
+	/**
+	 * Write all pending batches and wait for their commit
+	 */
+	@Override
+	public void flush() throws IOException {
+
+		checkState();
+
+		for (Partition partition : partitions) {
+			partition.submitBatch();
+		}
+		for (Partition partition : partitions) {
+			partition.await();
+		}
+		checkFailure();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+
+		try {
+			if (failure.get() == null) {
+				flush();
+			}
+		} finally {
+			closed = true;
+			for (Partition partition : partitions) {
+				partition.close();
+			}
+		}
+		checkFailure();
+	}
+
+	/** @return the number of rows committed */
+	public long getRowCount() {
+
+		return rowCount.get();
+	}
+
+	/** @return the number of rows committed per second since this writer was created */
+	public double getRowsPerSecond() {
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		return (elapsedNanos > 0) ? rowCount.get() * 1e9 / elapsedNanos : 0;
+	}
+
+	private void checkState() throws IOException {
+
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException {
+
+		Throwable cause = failure.get();
+
+		if (cause != null) {
+			throw (cause instanceof IOException) ? (IOException) cause : new IOException("cannot write statements", cause);
+		}
+	}
+
+	/**
+	 * The statements of a partition, written on their own connection by their own thread
+	 */
+	private class Partition {
+
+		private final ExecutorService executor;
+		private final Semaphore pendingBatches;
+		private List<String[]> batch;
+		private Future<?> lastBatch;
+		// only accessed by the partition thread
+		private Connection connection;
+		private PreparedStatement insert;
+		private PreparedStatement delete;
+
+		private Partition(int index, int maxPendingBatches) {
+
+			this.executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "jdbc-statement-writer-" + index);
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.pendingBatches = new Semaphore(maxPendingBatches);
+			this.batch = new ArrayList<>(batchSize);
+		}
+
+		private void add(String[] row) throws IOException {
+
+			batch.add(row);
+
+			if (batch.size() == batchSize) {
+				submitBatch();
+			}
+		}
+
+		private void submitBatch() throws IOException {
+
+			if (batch.isEmpty()) {
+				return;
+			}
+
+			List<String[]> rows = batch;
+			batch = new ArrayList<>(batchSize);
+
+			try {
+				pendingBatches.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for pending batches", e);
+			}
+
+			lastBatch = executor.submit(() -> {
+				try {
+					if (failure.get() == null) {
+						writeWithRetries(rows);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					pendingBatches.release();
+				}
+			});
+		}
+
+		/** wait for the last submitted batch (batches are written in submission order) */
+		private void await() throws IOException {
+
+			if (lastBatch == null) {
+				return;
+			}
+			try {
+				lastBatch.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for batches", e);
+			} catch (ExecutionException e) {
+				failure.compareAndSet(null, e.getCause());
+			}
+		}
+
+		private void writeWithRetries(List<String[]> rows) throws SQLException, IOException, InterruptedException {
+
+			for (int attempt = 0; ; attempt++) {
+				try {
+					write(rows);
+					return;
+				} catch (SQLException e) {
+					closeConnection();
+
+					if (attempt >= maxRetries) {
+						throw e;
+					}
+					Thread.sleep(retryDelayMillis * (attempt + 1));
+				}
+			}
+		}
+
+		private void write(List<String[]> rows) throws SQLException, IOException {
+
+			if (connection == null) {
+				connection = dataSource.getConnection();
+				connection.setAutoCommit(false);
+				insert = connection.prepareStatement(insertSQL);
+				if (deleteSQL != null) {
+					delete = connection.prepareStatement(deleteSQL);
+				}
+			}
+
+			List<String[]> insertedRows = rows;
+			Map<String, String[]> rowsById = null;
+
+			if (delete != null) {
+				// the last row of a statement id wins
+				rowsById = new LinkedHashMap<>();
+				List<String[]> rowsWithoutId = new ArrayList<>();
+				for (String[] row : rows) {
+					String statementId = row[mapper.getStatementIdIndex()];
+					if (statementId != null) rowsById.put(statementId, row);
+					else rowsWithoutId.add(row);
+				}
+				insertedRows = new ArrayList<>(rowsById.values());
+				insertedRows.addAll(rowsWithoutId);
+			}
+
+			try {
+				if (rowsById != null) {
+					for (String statementId : rowsById.keySet()) {
+						delete.setString(1, statementId);
+						delete.addBatch();
+					}
+					delete.executeBatch();
+				}
+
+				for (String[] row : insertedRows) {
+					for (int i = 0; i < row.length; i++) {
+						setColumn(i, row[i]);
+					}
+					insert.addBatch();
+				}
+				insert.executeBatch();
+
+				connection.commit();
+			} catch (SQLException | IOException e) {
+				try {
+					connection.rollback();
+				} catch (SQLException rollbackError) {
+					e.addSuppressed(rollbackError);
+				}
+				throw e;
+			}
+			rowCount.addAndGet(insertedRows.size());
+		}
+
+		private void setColumn(int index, String value) throws SQLException, IOException {
+
+			if (!mapper.isIntegerColumn(index)) {
+				insert.setString(index + 1, value);
+			}
+			else if (value == null) {
+				insert.setNull(index + 1, Types.INTEGER);
+			}
+			else {
+				insert.setInt(index + 1, mapper.parseInteger(index, value));
+			}
+		}
+
+		private void closeConnection() {
+
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (SQLException e) {
+					// already broken
+				}
+				connection = null;
+			}
+		}
+
+		private void close() {
+
+			executor.execute(this::closeConnection);
+			executor.shutdown();
+
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public static class Builder {
+
+		private final DataSource dataSource;
+		private final String tableName;
+		private NXFlatTableSchema schema = new NXFlatTableSchema();
+		private String schemaName = "nxflat";
+		private int batchSize = 1000;
+		private int connectionCount = 4;
+		private int maxPendingBatches = 2;
+		private int maxRetries = 3;
+		private long retryDelayMillis = 1000;
+		private boolean insertingOnly;
+
+		/**
+		 * @param dataSource the source of connections
+		 * @param tableName the table name (see {@link org.nextprot.commons.statements.constants.StatementTableNames})
+		 */
+		public Builder(DataSource dataSource, String tableName) {
+
+			this.dataSource = dataSource;
+			this.tableName = tableName;
+		}
+
+		public Builder withTableSchema(NXFlatTableSchema schema) {
+
+			this.schema = schema;
+			return this;
+		}
+
+		/**
+		 * Set the database schema of the table (default is nxflat, null for none)
+		 */
+		public Builder withSchemaName(String schemaName) {
+
+			this.schemaName = schemaName;
+			return this;
+		}
+
+		public Builder withBatchSize(int batchSize) {
+
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize="+batchSize+": cannot define a negative (or 0) number for the batch size");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Set the number of connections, each one with its own writing thread
+		 */
+		public Builder withConnections(int connectionCount) {
+
+			if (connectionCount <= 0) {
+				throw new IllegalArgumentException("connectionCount="+connectionCount+": cannot define a negative (or 0) number of connections");
+			}
+			this.connectionCount = connectionCount;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of batches waiting to be written per connection
+		 */
+		public Builder withMaxPendingBatches(int maxPendingBatches) {
+
+			if (maxPendingBatches <= 0) {
+				throw new IllegalArgumentException("maxPendingBatches="+maxPendingBatches+": cannot define a negative (or 0) number of pending batches");
+			}
+			this.maxPendingBatches = maxPendingBatches;
+			return this;
+		}
+
+		/**
+		 * Set the number of times a failed batch is retried, waiting retryDelayMillis * attempt between attempts
+		 */
+		public Builder withRetries(int maxRetries, long retryDelayMillis) {
+
+			if (maxRetries < 0 || retryDelayMillis < 0) {
+				throw new IllegalArgumentException("maxRetries="+maxRetries+", retryDelayMillis="+retryDelayMillis+": cannot be negative");
+			}
+			this.maxRetries = maxRetries;
+			this.retryDelayMillis = retryDelayMillis;
+			return this;
+		}
+
+		/**
+		 * Only insert rows, without deleting the rows having the STATEMENT_ID of a written statement first (for tables
+		 * not indexing STATEMENT_ID, like staging tables of a load plan). Writes are then not idempotent: a retried
+		 * batch whose commit was not acknowledged, or statements written again, duplicate rows.
+		 */
+		public Builder insertingOnly() {
+
+			this.insertingOnly = true;
+			return this;
+		}
+
+		/**
+		 * @throws IllegalArgumentException if the table schema does not index STATEMENT_ID and rows are not only inserted
+		 */
+		public JdbcStatementWriter build() {
+
+			if (!insertingOnly && !schema.isIndexed(CoreStatementField.STATEMENT_ID)) {
+				throw new IllegalArgumentException("cannot replace rows by " + CoreStatementField.STATEMENT_ID.name()
+						+ ": the table schema does not index it (see insertingOnly())");
+			}
+			return new JdbcStatementWriter(this);
+		}
+	}
+}
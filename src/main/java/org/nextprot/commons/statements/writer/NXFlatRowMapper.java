@@ -0,0 +1,120 @@
+package org.nextprot.commons.statements.writer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Maps statements to the column values of a nxflat table row, in the order of {@link NXFlatTableSchema#getColumnNames()}
+ */
+class NXFlatRowMapper {
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final List<String> columnNames;
+	private final Map<String, Integer> columnIndices = new HashMap<>();
+	private final int extraFieldsIndex;
+	private final int statementIdIndex;
+	private final boolean[] integerColumns;
+
+	NXFlatRowMapper(NXFlatTableSchema schema) {
+
+		columnNames = schema.getColumnNames();
+
+		for (int i = 0; i < columnNames.size() - 1; i++) {
+			columnIndices.put(columnNames.get(i), i);
+		}
+		extraFieldsIndex = columnNames.size() - 1;
+		statementIdIndex = columnNames.indexOf("STATEMENT_ID");
+
+		integerColumns = new boolean[columnNames.size()];
+		for (int i = 0; i < columnNames.size(); i++) {
+			integerColumns[i] = schema.isIntegerColumn(columnNames.get(i));
+		}
+	}
+
+	List<String> getColumnNames() {
+
+		return columnNames;
+	}
+
+	int getColumnCount() {
+
+		return columnNames.size();
+	}
+
+	/** @return the index of the STATEMENT_ID column */
+	int getStatementIdIndex() {
+
+		return statementIdIndex;
+	}
+
+	/** @return true if the column at the given index is of type INTEGER */
+	boolean isIntegerColumn(int index) {
+
+		return integerColumns[index];
+	}
+
+	/**
+	 * @return the integer value of a column of type INTEGER
+	 * @throws IOException if the value is not an integer
+	 */
+	int parseInteger(int index, String value) throws IOException {
+
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IOException(columnNames.get(index) + "=" + value + ": not an integer value", e);
+		}
+	}
+
+	String[] toRow(Statement statement) throws IOException {
+
+		return toRow(statement, new String[getColumnCount()]);
+	}
+
+	/**
+	 * Set the column values of the statement into the given row
+	 * @return the row
+	 */
+	String[] toRow(Statement statement, String[] row) throws IOException {
+
+		Arrays.fill(row, null);
+
+		StringWriter extraFields = null;
+		JsonGenerator extraFieldsGenerator = null;
+
+		for (Map.Entry<StatementField, String> field : statement.entrySet()) {
+
+			Integer index = columnIndices.get(field.getKey().getName());
+
+			if (index != null) {
+				row[index] = field.getValue();
+			}
+			else {
+				if (extraFieldsGenerator == null) {
+					extraFields = new StringWriter();
+					extraFieldsGenerator = jsonFactory.createGenerator(extraFields);
+					extraFieldsGenerator.writeStartObject();
+				}
+				extraFieldsGenerator.writeStringField(field.getKey().getName(), field.getValue());
+			}
+		}
+
+		if (extraFieldsGenerator != null) {
+			extraFieldsGenerator.writeEndObject();
+			extraFieldsGenerator.close();
+			row[extraFieldsIndex] = extraFields.toString();
+		}
+		return row;
+	}
+}
@@ -0,0 +1,137 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.specs.NXFlatLoadPlan;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This loader executes a {@link NXFlatLoadPlan} with JDBC, creating the indexes of the staging table in parallel,
+ * each one on its own connection.
+ *
+ * The current table is left untouched (and the staging table dropped) if any phase before the swap fails.
+ */
+public class NXFlatTableLoader {
+
+	private final DataSource dataSource;
+	private final int threadCount;
+
+	/**
+	 * @param dataSource the source of connections
+	 * @param threadCount the maximum number of indexes created concurrently
+	 */
+	public NXFlatTableLoader(DataSource dataSource, int threadCount) {
+
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("threadCount="+threadCount+": cannot define a negative (or 0) number of threads");
+		}
+		this.dataSource = dataSource;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Load nxflat.{table} from scratch
+	 * @param plan the load plan
+	 * @param stagingLoader the bulk loader of the staging table
+	 */
+	public void load(NXFlatLoadPlan plan, StagingLoader stagingLoader) throws IOException {
+
+		try {
+			execute(plan.getCreateStagingTableSQL());
+			stagingLoader.load(plan.getStagingTableName());
+			execute(plan.getSetLoggedSQL());
+			executeInParallel(plan.getCreateIndexesSQL());
+			execute(plan.getAttachIndexesSQL());
+		} catch (IOException | SQLException e) {
+			dropStagingTable(plan, e);
+			throw (e instanceof IOException) ? (IOException) e : new IOException("cannot load " + plan.getStagingTableName(), e);
+		}
+
+		try (Connection connection = dataSource.getConnection()) {
+
+			connection.setAutoCommit(false);
+			try (Statement statement = connection.createStatement()) {
+				for (String sql : plan.getSwapSQL()) {
+					statement.execute(sql);
+				}
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw new IOException("cannot swap " + plan.getStagingTableName() + " with " + plan.getTableName(), e);
+		}
+	}
+
+	private void execute(List<String> statements) throws SQLException {
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String sql : statements) {
+				statement.execute(sql);
+			}
+		}
+	}
+
+	private void executeInParallel(List<String> statements) throws IOException, SQLException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, statements.size())));
+
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (String sql : statements) {
+				futures.add(executor.submit(() -> {
+					execute(Collections.singletonList(sql));
+					return null;
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while creating indexes", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void dropStagingTable(NXFlatLoadPlan plan, Exception cause) {
+
+		try {
+			execute(Collections.singletonList(plan.getDropStagingTableSQL()));
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Bulk loads the staging table, for example with a COPY fed by a {@link PgCopyStatementWriter} or with a
+	 * {@link JdbcStatementWriter} only inserting rows (see {@link JdbcStatementWriter.Builder#insertingOnly()}):
+	 * the staging table is created empty and without any index, and dropped if the load fails
+	 */
+	@FunctionalInterface
+	public interface StagingLoader {
+
+		/**
+		 * @param stagingTableName the name of the table to load in schema nxflat
+		 */
+		void load(String stagingTableName) throws IOException, SQLException;
+	}
+}
@@ -0,0 +1,83 @@
+package org.nextprot.commons.statements.writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+
+/**
+ * This writer writes statements as JSON Lines (NDJSON), one statement object per line.
+ *
+ * Each statement is terminated by a newline so the output can always be appended to
+ * and read back with {@link org.nextprot.commons.statements.reader.NdJsonStatementReader}.
+ */
+public class NdJsonStatementWriter implements StatementWriter {
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+	private static final int DEFAULT_IO_BUFFER_SIZE = 64 * 1024;
+
+	private final JsonGenerator generator;
+
+	public NdJsonStatementWriter(Writer writer) throws IOException {
+
+		this(FACTORY.createGenerator(writer));
+	}
+
+	/**
+	 * @param outputStream the output UTF-8 encoded
+	 */
+	public NdJsonStatementWriter(OutputStream outputStream) throws IOException {
+
+		this(FACTORY.createGenerator(outputStream, JsonEncoding.UTF8));
+	}
+
+	private NdJsonStatementWriter(JsonGenerator generator) {
+
+		this.generator = generator;
+		// lines are terminated explicitly
+		this.generator.setRootValueSeparator(null);
+	}
+
+	/**
+	 * Create a writer appending statements to a file, created if it does not exist
+	 */
+	public static NdJsonStatementWriter append(Path path) throws IOException {
+
+		return new NdJsonStatementWriter(new BufferedOutputStream(Files.newOutputStream(path,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), DEFAULT_IO_BUFFER_SIZE));
+	}
+
+	@Override
+	public void write(Statement statement) throws IOException {
+
+		generator.writeStartObject();
+		for (Map.Entry<StatementField, String> field : statement.entrySet()) {
+			generator.writeStringField(field.getKey().getName(), field.getValue());
+		}
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+
+	@Override
+	public void flush() throws IOException {
+
+		generator.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		generator.close();
+	}
+}
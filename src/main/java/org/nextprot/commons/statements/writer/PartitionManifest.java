@@ -0,0 +1,233 @@
+package org.nextprot.commons.statements.writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.nextprot.commons.statements.reader.BinaryStatementReader;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.reader.NdJsonStatementReader;
+import org.nextprot.commons.statements.specs.StatementSpecifications;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The manifest of the partition files written by {@link PartitionedStatementWriter}:
+ * <pre>
+ * {"partitionedBy":"ENTRY_ACCESSION","format":"NDJSON","statementCount":3,
+ *  "partitions":[{"file":"part-00000.ndjson","statementCount":2},{"file":"part-00001.ndjson","statementCount":1}]}
+ * </pre>
+ * Partitions are independent and can be read in parallel (see {@link #openReader(Path, int, StatementSpecifications, int)}).
+ */
+public class PartitionManifest {
+
+	public static final String FILE_NAME = "manifest.json";
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	public enum Format {
+
+		NDJSON("ndjson"),
+		BINARY("bin")
+		;
+
+		private final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	private final String partitionedBy;
+	private final Format format;
+	private final List<Partition> partitions;
+
+	public PartitionManifest(String partitionedBy, Format format, List<Partition> partitions) {
+
+		this.partitionedBy = partitionedBy;
+		this.format = format;
+		this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+	}
+
+	static String getPartitionFileName(int index, Format format) {
+
+		return String.format("part-%05d.%s", index, format.getExtension());
+	}
+
+	/** @return the name of the field the statements were routed by */
+	public String getPartitionedBy() {
+
+		return partitionedBy;
+	}
+
+	public Format getFormat() {
+
+		return format;
+	}
+
+	public List<Partition> getPartitions() {
+
+		return partitions;
+	}
+
+	public long getStatementCount() {
+
+		return partitions.stream().mapToLong(Partition::getStatementCount).sum();
+	}
+
+	/**
+	 * Open a reader of the given partition
+	 * @param directory the directory of the manifest
+	 */
+	public BufferableStatementReader openReader(Path directory, int partition, StatementSpecifications specifications, int maxBufferSize) throws IOException {
+
+		Path file = directory.resolve(partitions.get(partition).getFile());
+
+		return (format == Format.BINARY)
+				? new BinaryStatementReader(Files.newInputStream(file), specifications, maxBufferSize)
+				: NdJsonStatementReader.fromPath(file, specifications, maxBufferSize, 64 * 1024);
+	}
+
+	/**
+	 * Write the manifest file in the given directory
+	 */
+	public void write(Path directory) throws IOException {
+
+		try (OutputStream os = Files.newOutputStream(directory.resolve(FILE_NAME));
+			 JsonGenerator generator = FACTORY.createGenerator(os, JsonEncoding.UTF8)) {
+
+			generator.writeStartObject();
+			generator.writeStringField("partitionedBy", partitionedBy);
+			generator.writeStringField("format", format.name());
+			generator.writeNumberField("statementCount", getStatementCount());
+			generator.writeArrayFieldStart("partitions");
+			for (Partition partition : partitions) {
+				generator.writeStartObject();
+				generator.writeStringField("file", partition.getFile());
+				generator.writeNumberField("statementCount", partition.getStatementCount());
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Read the manifest file of the given directory
+	 */
+	public static PartitionManifest read(Path directory) throws IOException {
+
+		Path file = directory.resolve(FILE_NAME);
+
+		try (InputStream is = Files.newInputStream(file); JsonParser parser = FACTORY.createParser(is)) {
+
+			String partitionedBy = null;
+			Format format = null;
+			List<Partition> partitions = new ArrayList<>();
+
+			expect(parser, JsonToken.START_OBJECT, file);
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+				String name = parser.getCurrentName();
+				parser.nextToken();
+
+				switch (name) {
+					case "partitionedBy":
+						partitionedBy = parser.getValueAsString();
+						break;
+					case "format":
+						try {
+							format = Format.valueOf(parser.getValueAsString());
+						} catch (IllegalArgumentException e) {
+							throw new IOException(file + ": unknown format " + parser.getValueAsString(), e);
+						}
+						break;
+					case "partitions":
+						if (parser.currentToken() != JsonToken.START_ARRAY) {
+							throw new IOException(file + ": partitions is not an array");
+						}
+						while (parser.nextToken() == JsonToken.START_OBJECT) {
+							partitions.add(readPartition(parser, file));
+						}
+						break;
+					default:
+						parser.skipChildren();
+				}
+			}
+
+			if (partitionedBy == null || format == null) {
+				throw new IOException(file + ": not a partition manifest");
+			}
+			return new PartitionManifest(partitionedBy, format, partitions);
+		}
+	}
+
+	private static Partition readPartition(JsonParser parser, Path file) throws IOException {
+
+		String fileName = null;
+		long statementCount = 0;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+			String name = parser.getCurrentName();
+			parser.nextToken();
+
+			if (name.equals("file")) {
+				fileName = parser.getValueAsString();
+			}
+			else if (name.equals("statementCount")) {
+				statementCount = parser.getValueAsLong();
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		if (fileName == null) {
+			throw new IOException(file + ": missing partition file");
+		}
+		return new Partition(fileName, statementCount);
+	}
+
+	private static void expect(JsonParser parser, JsonToken expected, Path file) throws IOException {
+
+		if (parser.nextToken() != expected) {
+			throw new IOException(file + ": not a partition manifest");
+		}
+	}
+
+	public static class Partition {
+
+		private final String file;
+		private final long statementCount;
+
+		public Partition(String file, long statementCount) {
+
+			this.file = file;
+			this.statementCount = statementCount;
+		}
+
+		/** @return the file name relative to the manifest directory */
+		public String getFile() {
+
+			return file;
+		}
+
+		public long getStatementCount() {
+
+			return statementCount;
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.CoreStatementField;
+import org.nextprot.commons.statements.specs.StatementField;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * This writer writes statements into N partition files of a directory, routing each statement by the hash
+ * of a field value (ENTRY_ACCESSION by default) so that all statements of an entry end up in the same partition.
+ *
+ * Each partition is written by its own thread from a bounded queue of batches.
+ * On close, a manifest listing the partitions and their statement counts is written in the directory
+ * (see {@link PartitionManifest}).
+ */
+public class PartitionedStatementWriter implements StatementWriter {
+
+	private static final List<Statement> END_OF_PARTITION = Collections.emptyList();
+
+	private final Path directory;
+	private final StatementField partitionField;
+	private final PartitionManifest.Format format;
+	private final int batchSize;
+	private final Partition[] partitions;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private boolean closed;
+
+	private PartitionedStatementWriter(Builder builder) throws IOException {
+
+		this.directory = builder.directory;
+		this.partitionField = builder.partitionField;
+		this.format = builder.format;
+		this.batchSize = builder.batchSize;
+
+		Files.createDirectories(directory);
+
+		this.partitions = new Partition[builder.partitionCount];
+		try {
+			for (int i = 0; i < partitions.length; i++) {
+				partitions[i] = new Partition(i, builder.queueCapacity);
+			}
+		} catch (IOException e) {
+			for (Partition partition : partitions) {
+				if (partition != null) partition.end();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the partition of a statement given the value of its partition field
+	 */
+	public static int getPartition(String value, int partitionCount) {
+
+		return Math.floorMod(Objects.hashCode(value), partitionCount);
+	}
+
+	/**
+	 * Add the statement to the batch of its partition, queued once full (blocks if the partition queue is full)
+	 */
+	@Override
+	public void write(Statement statement) throws IOException {
+
+		checkState();
+
+		partitions[getPartition(statement.getValue(partitionField), partitions.length)].add(statement);
+	}
+
+	/**
+	 * Queue the pending batches (statements are written by the partition threads)
+	 */
+	@Override
+	public void flush() throws IOException {
+
+		checkState();
+
+		for (Partition partition : partitions) {
+			partition.submitBatch();
+		}
+	}
+
+	/**
+	 * Write the pending statements, wait for the partition threads and write the manifest
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+
+		try {
+			if (failure.get() == null) {
+				flush();
+			}
+		} finally {
+			closed = true;
+			for (Partition partition : partitions) {
+				partition.end();
+			}
+			for (Partition partition : partitions) {
+				partition.join();
+			}
+		}
+		checkFailure();
+
+		List<PartitionManifest.Partition> entries = new ArrayList<>();
+		for (Partition partition : partitions) {
+			entries.add(new PartitionManifest.Partition(partition.file.getFileName().toString(), partition.statementCount));
+		}
+		new PartitionManifest(partitionField.getName(), format, entries).write(directory);
+	}
+
+	private void checkState() throws IOException {
+
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException {
+
+		Throwable cause = failure.get();
+
+		if (cause != null) {
+			throw (cause instanceof IOException) ? (IOException) cause : new IOException("cannot write statements", cause);
+		}
+	}
+
+	/**
+	 * A partition file written by its own thread
+	 */
+	private class Partition implements Runnable {
+
+		private final Path file;
+		private final StatementWriter writer;
+		private final BlockingQueue<List<Statement>> queue;
+		private final Thread thread;
+		private List<Statement> batch;
+		// written by the partition thread, read after join
+		private long statementCount;
+
+		private Partition(int index, int queueCapacity) throws IOException {
+
+			this.file = directory.resolve(PartitionManifest.getPartitionFileName(index, format));
+			this.writer = (format == PartitionManifest.Format.BINARY)
+					? BinaryStatementWriter.create(file)
+					: new NdJsonStatementWriter(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+			this.batch = new ArrayList<>(batchSize);
+
+			this.thread = new Thread(this, "partitioned-statement-writer-" + index);
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		private void add(Statement statement) throws IOException {
+
+			batch.add(statement);
+
+			if (batch.size() == batchSize) {
+				submitBatch();
+			}
+		}
+
+		private void submitBatch() throws IOException {
+
+			if (batch.isEmpty()) {
+				return;
+			}
+
+			List<Statement> statements = batch;
+			batch = new ArrayList<>(batchSize);
+			put(statements);
+		}
+
+		private void end() {
+
+			try {
+				put(END_OF_PARTITION);
+			} catch (IOException e) {
+				failure.compareAndSet(null, e);
+			}
+		}
+
+		private void put(List<Statement> statements) throws IOException {
+
+			try {
+				queue.put(statements);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for partition queue", e);
+			}
+		}
+
+		private void join() throws IOException {
+
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for partition writer", e);
+			}
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				List<Statement> statements;
+				while ((statements = queue.take()) != END_OF_PARTITION) {
+
+					// after a failure, batches are consumed so that producers never block
+					if (failure.get() == null) {
+						writer.write(statements);
+						statementCount += statements.size();
+					}
+				}
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+				drain();
+			} finally {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					failure.compareAndSet(null, e);
+				}
+			}
+		}
+
+		private void drain() {
+
+			try {
+				while (queue.take() != END_OF_PARTITION) {
+					// discarded
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public static class Builder {
+
+		private final Path directory;
+		private StatementField partitionField = CoreStatementField.ENTRY_ACCESSION;
+		private PartitionManifest.Format format = PartitionManifest.Format.NDJSON;
+		private int partitionCount = Runtime.getRuntime().availableProcessors();
+		private int batchSize = 1000;
+		private int queueCapacity = 4;
+
+		/**
+		 * @param directory the directory of the partition files and manifest (created if needed)
+		 */
+		public Builder(Path directory) {
+
+			this.directory = directory;
+		}
+
+		/**
+		 * Route statements by the hash of the given field value (default is ENTRY_ACCESSION)
+		 */
+		public Builder partitionedBy(StatementField partitionField) {
+
+			this.partitionField = partitionField;
+			return this;
+		}
+
+		public Builder withFormat(PartitionManifest.Format format) {
+
+			this.format = format;
+			return this;
+		}
+
+		/**
+		 * Set the number of partition files, each one written by its own thread
+		 */
+		public Builder withPartitions(int partitionCount) {
+
+			if (partitionCount <= 0) {
+				throw new IllegalArgumentException("partitionCount="+partitionCount+": cannot define a negative (or 0) number of partitions");
+			}
+			this.partitionCount = partitionCount;
+			return this;
+		}
+
+		/**
+		 * Set the number of statements handed to a partition thread at once
+		 */
+		public Builder withBatchSize(int batchSize) {
+
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize="+batchSize+": cannot define a negative (or 0) number for the batch size");
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of batches waiting to be written per partition
+		 */
+		public Builder withQueueCapacity(int queueCapacity) {
+
+			if (queueCapacity <= 0) {
+				throw new IllegalArgumentException("queueCapacity="+queueCapacity+": cannot define a negative (or 0) queue capacity");
+			}
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public PartitionedStatementWriter build() throws IOException {
+
+			return new PartitionedStatementWriter(this);
+		}
+	}
+}
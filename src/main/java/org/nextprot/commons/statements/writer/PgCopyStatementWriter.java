@@ -0,0 +1,178 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * This writer writes statements as PostgreSQL {@code COPY ... FROM STDIN} rows of a nxflat table.
+ *
+ * Columns are written in the order given by {@link NXFlatTableSchema#generateCopyFromStdinSQL(String, boolean)}.
+ * Fields that are not a column of the table are packed as a json object into the EXTRA_FIELDS column.
+ */
+public class PgCopyStatementWriter implements StatementWriter {
+
+	private static final int DEFAULT_IO_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] BINARY_SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0 };
+	private static final byte[] TEXT_NULL = { '\\', 'N' };
+
+	public enum Format {
+
+		/** tab separated text rows (default COPY format) */
+		TEXT,
+		/** PGCOPY binary rows (COPY ... WITH (FORMAT binary)) */
+		BINARY
+	}
+
+	private final DataOutputStream out;
+	private final Format format;
+	private final NXFlatRowMapper mapper;
+	private final String[] row;
+	private final byte[] escapeBuffer = new byte[2];
+
+	private long rowCount;
+	private boolean closed;
+
+	public PgCopyStatementWriter(OutputStream outputStream, NXFlatTableSchema schema) throws IOException {
+
+		this(outputStream, schema, Format.TEXT);
+	}
+
+	public PgCopyStatementWriter(OutputStream outputStream, NXFlatTableSchema schema, Format format) throws IOException {
+
+		this.out = new DataOutputStream(new BufferedOutputStream(outputStream, DEFAULT_IO_BUFFER_SIZE));
+		this.format = format;
+
+		this.mapper = new NXFlatRowMapper(schema);
+		this.row = new String[mapper.getColumnCount()];
+
+		if (format == Format.BINARY) {
+			out.write(BINARY_SIGNATURE);
+			out.writeInt(0); // flags
+			out.writeInt(0); // header extension length
+		}
+	}
+
+	@Override
+	public void write(Statement statement) throws IOException {
+
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+
+		mapper.toRow(statement, row);
+
+		if (format == Format.BINARY) {
+			writeBinaryRow();
+		}
+		else {
+			writeTextRow();
+		}
+		rowCount++;
+	}
+
+	/** @return the number of rows written */
+	public long getRowCount() {
+
+		return rowCount;
+	}
+
+	@Override
+	public void flush() throws IOException {
+
+		out.flush();
+	}
+
+	/**
+	 * Write the end of the copy data (binary format) and close the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		if (format == Format.BINARY) {
+			out.writeShort(-1);
+		}
+		out.close();
+	}
+
+	private void writeBinaryRow() throws IOException {
+
+		out.writeShort(row.length);
+
+		for (int i = 0; i < row.length; i++) {
+
+			String value = row[i];
+
+			if (value == null) {
+				out.writeInt(-1);
+			}
+			else if (mapper.isIntegerColumn(i)) {
+				out.writeInt(4);
+				out.writeInt(mapper.parseInteger(i, value));
+			}
+			else {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+	}
+
+	private void writeTextRow() throws IOException {
+
+		for (int i = 0; i < row.length; i++) {
+
+			if (i > 0) {
+				out.write('\t');
+			}
+			if (row[i] == null) {
+				out.write(TEXT_NULL);
+			}
+			else {
+				writeTextValue(row[i]);
+			}
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * Write the value in UTF-8 with backslash, tab, newline and carriage return escaped
+	 */
+	private void writeTextValue(String value) throws IOException {
+
+		int start = 0;
+
+		for (int i = 0; i < value.length(); i++) {
+
+			char c = value.charAt(i);
+			char escaped;
+
+			switch (c) {
+				case '\\': escaped = '\\'; break;
+				case '\t': escaped = 't'; break;
+				case '\n': escaped = 'n'; break;
+				case '\r': escaped = 'r'; break;
+				default: continue;
+			}
+
+			out.write(value.substring(start, i).getBytes(StandardCharsets.UTF_8));
+			escapeBuffer[0] = '\\';
+			escapeBuffer[1] = (byte) escaped;
+			out.write(escapeBuffer);
+			start = i + 1;
+		}
+		out.write(((start == 0) ? value : value.substring(start)).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,32 @@
+package org.nextprot.commons.statements.writer;
+
+import org.nextprot.commons.statements.Statement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+public interface StatementWriter extends Closeable {
+
+	/**
+	 * Write a statement
+	 * @throws IOException if an I/O error occurs or if the stream is closed
+	 */
+	void write(Statement statement) throws IOException;
+
+	/**
+	 * Write statements in iteration order
+	 * @throws IOException if an I/O error occurs or if the stream is closed
+	 */
+	default void write(Collection<Statement> statements) throws IOException {
+
+		for (Statement statement : statements) {
+			write(statement);
+		}
+	}
+
+	/**
+	 * Flush the written statements to the underlying output
+	 */
+	void flush() throws IOException;
+}
@@ -0,0 +1,52 @@
+package org.nextprot.commons.io;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.nextprot.commons.io.ParallelGzipInputStreamTest.compress;
+import static org.nextprot.commons.io.ParallelGzipInputStreamTest.newContent;
+
+public class GzipStreamsTest {
+
+	@Test
+	public void decompressBlockGzipInParallel() throws IOException {
+
+		byte[] content = newContent(30_000);
+		InputStream in = GzipStreams.decompress(new ByteArrayInputStream(compress(content, 4096)), 2);
+
+		Assert.assertTrue(in instanceof ParallelGzipInputStream);
+		Assert.assertArrayEquals(content, ByteStreams.toByteArray(in));
+	}
+
+	@Test
+	public void decompressGzip() throws IOException {
+
+		byte[] content = newContent(30_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+
+		InputStream in = GzipStreams.decompress(new ByteArrayInputStream(out.toByteArray()));
+
+		Assert.assertTrue(in instanceof GZIPInputStream);
+		Assert.assertArrayEquals(content, ByteStreams.toByteArray(in));
+	}
+
+	@Test
+	public void shouldNotDecompressPlainContent() throws IOException {
+
+		byte[] content = "[{}]".getBytes();
+
+		Assert.assertArrayEquals(content, ByteStreams.toByteArray(GzipStreams.decompress(new ByteArrayInputStream(content))));
+		Assert.assertArrayEquals(new byte[0], ByteStreams.toByteArray(GzipStreams.decompress(new ByteArrayInputStream(new byte[0]))));
+	}
+}
@@ -0,0 +1,104 @@
+package org.nextprot.commons.io;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+public class ParallelGzipInputStreamTest {
+
+	@Test
+	public void readBlockGzipContent() throws IOException {
+
+		byte[] content = newContent(100_000);
+		byte[] compressed = compress(content, 4096);
+
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 3)) {
+			Assert.assertArrayEquals(content, ByteStreams.toByteArray(in));
+		}
+	}
+
+	@Test
+	public void blockGzipContentShouldBeReadableByGzipTools() throws IOException {
+
+		byte[] content = newContent(50_000);
+
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compress(content, 1000)))) {
+			Assert.assertArrayEquals(content, ByteStreams.toByteArray(in));
+		}
+	}
+
+	@Test
+	public void readBlockGzipContentOnSharedExecutor() throws IOException {
+
+		byte[] content = newContent(20_000);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compress(content, 999)), executor, 1)) {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) != -1) {
+				out.write(b);
+			}
+			Assert.assertArrayEquals(content, out.toByteArray());
+		}
+		finally {
+			Assert.assertFalse(executor.isShutdown());
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void readEmptyBlockGzipContent() throws IOException {
+
+		byte[] compressed = compress(new byte[0], 1024);
+		Assert.assertTrue(compressed.length > 0);
+
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 2)) {
+			Assert.assertEquals(-1, in.read());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldDetectCorruptedMember() throws IOException {
+
+		byte[] compressed = compress(newContent(10_000), 4096);
+		// corrupt the CRC of the first member
+		int firstMemberSize = (compressed[16] & 0xff) | (compressed[17] & 0xff) << 8 | (compressed[18] & 0xff) << 16;
+		compressed[firstMemberSize - 8] ^= 0xff;
+
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 2)) {
+			ByteStreams.toByteArray(in);
+		}
+	}
+
+	static byte[] compress(byte[] content, int blockSize) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream gzip = new BlockGzipOutputStream(out, blockSize, Deflater.BEST_SPEED)) {
+			gzip.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] newContent(int size) {
+
+		byte[] content = new byte[size];
+		Random random = new Random(42);
+		for (int i = 0; i < size; i++) {
+			content[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return content;
+	}
+}
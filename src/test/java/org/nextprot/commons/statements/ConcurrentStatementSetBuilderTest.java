@@ -0,0 +1,98 @@
+package org.nextprot.commons.statements;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.nextprot.commons.statements.StatementFixtures.newStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.STATEMENT_ID;
+
+public class ConcurrentStatementSetBuilderTest {
+
+	@Test
+	public void accumulateFromConcurrentWorkers() throws Exception {
+
+		List<Statement> statements = newStatements(2000, 50);
+		ConcurrentStatementSetBuilder builder = new ConcurrentStatementSetBuilder();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int worker = 0; worker < 4; worker++) {
+				// each worker adds all statements in its own order
+				List<Statement> shuffled = new ArrayList<>(statements);
+				Collections.shuffle(shuffled);
+				futures.add(executor.submit(() -> builder.addAll(shuffled)));
+			}
+			int added = 0;
+			for (Future<Integer> future : futures) {
+				added += future.get();
+			}
+			Assert.assertEquals(2000, added);
+		} finally {
+			executor.shutdown();
+		}
+
+		StatementSet set = builder.freeze();
+
+		Assert.assertEquals(2000, set.count());
+		Assert.assertEquals(statements.stream().map(Statement::getStatementId).sorted().collect(Collectors.toList()),
+				set.stream().map(Statement::getStatementId).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void collectParallelStream() {
+
+		List<Statement> statements = newStatements(1000, 50);
+		List<Statement> duplicated = new ArrayList<>(statements);
+		duplicated.addAll(statements);
+		Collections.shuffle(duplicated);
+
+		StatementSet set = duplicated.parallelStream().collect(ConcurrentStatementSetBuilder.toStatementSet());
+
+		Assert.assertEquals(new ArrayList<>(new StatementSet(statements).sort(STATEMENT_ID).getStatements()),
+				new ArrayList<>(set.getStatements()));
+	}
+
+	@Test
+	public void keepFirstStatementOfId() {
+
+		ConcurrentStatementSetBuilder builder = new ConcurrentStatementSetBuilder();
+
+		Assert.assertTrue(builder.add(newStatement("S1", "NX_P00001")));
+		Assert.assertFalse(builder.add(newStatement("S1", "NX_P00002")));
+		Assert.assertEquals(1, builder.size());
+		Assert.assertEquals("NX_P00001", builder.freeze().getStatements().iterator().next().getEntryAccession());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotAddToFrozenBuilder() {
+
+		ConcurrentStatementSetBuilder builder = new ConcurrentStatementSetBuilder();
+		builder.freeze();
+		builder.add(newStatement("S1", "NX_P00001"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void cannotAddStatementWithoutId() {
+
+		new ConcurrentStatementSetBuilder().add(new StatementBuilder().addField(ENTRY_ACCESSION, "NX_P00001").withTrustedIds().build());
+	}
+
+	private static Statement newStatement(String statementId, String entryAccession) {
+
+		return new StatementBuilder()
+				.addField(ENTRY_ACCESSION, entryAccession)
+				.addField(STATEMENT_ID, statementId)
+				.withTrustedIds()
+				.build();
+	}
+}
@@ -0,0 +1,104 @@
+package org.nextprot.commons.statements;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.GENE_NAME;
+
+public class StatementAggregatorTest {
+
+	private final StatementSet set = new StatementSet(StatementSetTest.newStatements(5000));
+	private final StatementAggregator parallel = new StatementAggregator.Builder().withThreads(4).withMinChunkSize(100).build();
+
+	@Test
+	public void countInParallel() {
+
+		Map<String, Long> counts = parallel.count(set, GENE_NAME);
+
+		Assert.assertEquals(12, counts.size());
+		Assert.assertEquals(count(s -> s.getValue(GENE_NAME) == null), counts.get(null).longValue());
+		Assert.assertEquals(count(s -> "GENE5".equals(s.getValue(GENE_NAME))), counts.get("GENE5").longValue());
+		Assert.assertEquals(new StatementAggregator.Builder().build().count(set, GENE_NAME), counts);
+	}
+
+	@Test
+	public void excludeNullValues() {
+
+		StatementAggregator aggregator = new StatementAggregator.Builder().withThreads(4).withMinChunkSize(100)
+				.withNullValues(StatementAggregator.NullValues.EXCLUDE).build();
+
+		Map<String, Long> counts = aggregator.count(set, GENE_NAME);
+		Assert.assertFalse(counts.containsKey(null));
+		Assert.assertEquals(11, counts.size());
+
+		Assert.assertEquals(11, aggregator.distinct(set, GENE_NAME).size());
+		Assert.assertEquals(37 * 11, aggregator.countGroups(set, ENTRY_ACCESSION, GENE_NAME).size());
+	}
+
+	@Test
+	public void countGroupsInParallel() {
+
+		Map<List<String>, Long> counts = parallel.countGroups(set, ENTRY_ACCESSION, GENE_NAME);
+
+		Assert.assertEquals(count(s -> "NX_P00003".equals(s.getValue(ENTRY_ACCESSION)) && s.getValue(GENE_NAME) == null),
+				counts.get(Arrays.asList("NX_P00003", null)).longValue());
+		Assert.assertEquals(5000, counts.values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	public void distinctInParallel() {
+
+		Set<String> accessions = parallel.distinct(set, ENTRY_ACCESSION);
+		Assert.assertEquals(set.stream().map(s -> s.getValue(ENTRY_ACCESSION)).collect(Collectors.toSet()), accessions);
+
+		Set<List<String>> groups = parallel.distinctGroups(set.filter(ENTRY_ACCESSION, "NX_P00001"), ENTRY_ACCESSION, GENE_NAME);
+		Assert.assertEquals(12, groups.size());
+		Assert.assertTrue(groups.contains(Arrays.asList("NX_P00001", null)));
+	}
+
+	@Test
+	public void groupByKeepsOrder() {
+
+		Map<List<String>, List<Statement>> groups = parallel.groupBy(set, GENE_NAME);
+
+		List<Statement> gene1 = groups.get(Arrays.asList("GENE1"));
+		Assert.assertEquals(set.filter(GENE_NAME, "GENE1").stream().collect(Collectors.toList()), gene1);
+
+		// groups in order of first statement
+		List<String> firstGenes = set.stream().map(s -> s.getValue(GENE_NAME)).distinct().collect(Collectors.toList());
+		Assert.assertEquals(firstGenes, groups.keySet().stream().map(values -> values.get(0)).collect(Collectors.toList()));
+		Assert.assertEquals(new HashSet<>(set.getStatements()), groups.values().stream().flatMap(List::stream).collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void aggregateOnExternalExecutor() {
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			StatementAggregator aggregator = new StatementAggregator.Builder().withThreads(4).withMinChunkSize(100)
+					.withExecutor(executor).build();
+
+			Assert.assertEquals(parallel.count(set, GENE_NAME), aggregator.count(set, GENE_NAME));
+			Assert.assertEquals(parallel.count(set, GENE_NAME), aggregator.count(set, GENE_NAME));
+			Assert.assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private long count(Predicate<Statement> predicate) {
+
+		return set.stream().filter(predicate).count();
+	}
+}
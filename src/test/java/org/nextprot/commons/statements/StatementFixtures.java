@@ -0,0 +1,44 @@
+package org.nextprot.commons.statements;
+
+import org.nextprot.commons.statements.specs.CustomStatementField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.GENE_NAME;
+
+/**
+ * Statements generated for tests
+ */
+public class StatementFixtures {
+
+	/** the rank of a generated statement */
+	public static final CustomStatementField INDEX = new CustomStatementField("INDEX");
+
+	/**
+	 * @return the builders of count statements of entryCount entries (ENTRY_ACCESSION NX_P00000 to NX_Pn), GENE_NAME
+	 * (GENE0 to GENE10) and INDEX fields, in order
+	 */
+	public static List<StatementBuilder> newStatementBuilders(int count, int entryCount) {
+
+		List<StatementBuilder> builders = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			builders.add(new StatementBuilder()
+					.addField(ENTRY_ACCESSION, String.format("NX_P%05d", i % entryCount))
+					.addField(GENE_NAME, "GENE" + (i % 11))
+					.addField(INDEX, String.valueOf(i)));
+		}
+		return builders;
+	}
+
+	/**
+	 * @return count statements of entryCount entries with computed ids, in order (see {@link #newStatementBuilders(int, int)})
+	 */
+	public static List<Statement> newStatements(int count, int entryCount) {
+
+		return newStatementBuilders(count, entryCount).stream().map(StatementBuilder::build).collect(Collectors.toList());
+	}
+}
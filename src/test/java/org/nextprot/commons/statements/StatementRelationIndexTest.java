@@ -0,0 +1,107 @@
+package org.nextprot.commons.statements;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.nextprot.commons.statements.StatementFixtures.newStatementBuilders;
+import static org.nextprot.commons.statements.specs.CoreStatementField.ANNOTATION_ID;
+import static org.nextprot.commons.statements.specs.CoreStatementField.OBJECT_STATEMENT_IDS;
+import static org.nextprot.commons.statements.specs.CoreStatementField.STATEMENT_ID;
+import static org.nextprot.commons.statements.specs.CoreStatementField.SUBJECT_STATEMENT_IDS;
+
+public class StatementRelationIndexTest {
+
+	@Test
+	public void resolveByIds() {
+
+		StatementSet set = new StatementSet(newStatements(100));
+		StatementRelationIndex index = new StatementRelationIndex.Builder(set).build();
+
+		Assert.assertEquals("S7", index.getStatement("S7").getStatementId());
+		Assert.assertNull(index.getStatement("S1000"));
+		Assert.assertEquals(2, index.getStatementsByAnnotationId("A3").size());
+		Assert.assertTrue(index.getStatementsByAnnotationId("A1000").isEmpty());
+	}
+
+	@Test
+	public void joinSubjectsAndObjects() {
+
+		StatementSet set = new StatementSet(newStatements(100));
+		StatementRelationIndex index = new StatementRelationIndex.Builder(set).build();
+
+		StatementRelationIndex.Relations relations = index.join(index.getStatement("M10"));
+
+		Assert.assertEquals(Arrays.asList(index.getStatement("S10"), index.getStatement("S11")), relations.getSubjects());
+		Assert.assertSame(index.getStatement("S12"), relations.getObject());
+		Assert.assertTrue(relations.isFullyResolved());
+
+		// the subjects of the last statement are out of the set
+		relations = index.join(index.getStatement("M99"));
+		Assert.assertEquals(Collections.singletonList(index.getStatement("S99")), relations.getSubjects());
+		Assert.assertEquals(Arrays.asList("S100", "S101"), relations.getUnresolvedIds());
+	}
+
+	@Test
+	public void joinModifiedSubjectsInParallel() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+		StatementRelationIndex index = new StatementRelationIndex.Builder(set).withThreads(4).withMinChunkSize(50).build();
+
+		List<StatementRelationIndex.Relations> relations = index.joinModifiedSubjects(set);
+
+		Assert.assertEquals(1000, relations.size());
+		for (int i = 0; i < relations.size(); i++) {
+			StatementRelationIndex.Relations relation = relations.get(i);
+			Assert.assertEquals("M" + i, relation.getStatement().getStatementId());
+			Assert.assertEquals("S" + i, relation.getSubjects().get(0).getStatementId());
+		}
+		Assert.assertEquals(2000, index.join(set).size());
+	}
+
+	@Test
+	public void joinOnExternalExecutor() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			StatementRelationIndex index = new StatementRelationIndex.Builder(set).withThreads(4).withMinChunkSize(50)
+					.withExecutor(executor).build();
+
+			Assert.assertEquals(1000, index.joinModifiedSubjects(set).size());
+			Assert.assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<Statement> newStatements(int count) {
+
+		List<Statement> statements = new ArrayList<>();
+		List<StatementBuilder> builders = newStatementBuilders(2 * count, 1);
+
+		for (int i = 0; i < count; i++) {
+			statements.add(builders.get(i)
+					.addField(STATEMENT_ID, "S" + i)
+					.addField(ANNOTATION_ID, "A" + i / 2)
+					.withTrustedIds()
+					.build());
+		}
+		for (int i = 0; i < count; i++) {
+			statements.add(builders.get(count + i)
+					.addField(STATEMENT_ID, "M" + i)
+					.addField(SUBJECT_STATEMENT_IDS, "S" + i + ",S" + (i + 1))
+					.addField(OBJECT_STATEMENT_IDS, "S" + (i + 2))
+					.withTrustedIds()
+					.build());
+		}
+		return statements;
+	}
+}
@@ -0,0 +1,187 @@
+package org.nextprot.commons.statements;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.GENE_NAME;
+import static org.nextprot.commons.statements.specs.CoreStatementField.NEXTPROT_ACCESSION;
+
+public class StatementSetTest {
+
+	private static final CustomStatementField INDEX = new CustomStatementField("INDEX");
+
+	@Test
+	public void filterByIndex() {
+
+		StatementSet set = new StatementSet(newStatements(1000)).index(ENTRY_ACCESSION);
+
+		Assert.assertTrue(set.getIndexedFields().contains(ENTRY_ACCESSION));
+		Assert.assertTrue(set.getIndexMemoryUsage() > 0);
+
+		StatementSet filtered = set.filter(ENTRY_ACCESSION, "NX_P00001", "NX_P00003", "NX_P99999");
+
+		Assert.assertEquals(54, filtered.count());
+		Assert.assertEquals(scan(set, s -> "NX_P00001".equals(s.getValue(ENTRY_ACCESSION)) || "NX_P00003".equals(s.getValue(ENTRY_ACCESSION))),
+				indexes(filtered));
+	}
+
+	@Test
+	public void filterNotByIndex() {
+
+		StatementSet set = new StatementSet(newStatements(1000)).index(GENE_NAME);
+
+		Assert.assertEquals(scan(set, s -> !"GENE3".equals(s.getValue(GENE_NAME))), indexes(set.filterNot(GENE_NAME, "GENE3")));
+		// statements missing the gene name are kept
+		Assert.assertTrue(indexes(set.filterNot(GENE_NAME, "GENE3")).contains("7"));
+	}
+
+	@Test
+	public void filterByScan() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+
+		Assert.assertEquals(scan(set, s -> "GENE3".equals(s.getValue(GENE_NAME))), indexes(set.filter(GENE_NAME, "GENE3")));
+		// indexes are only built on request
+		Assert.assertTrue(set.getIndexedFields().isEmpty());
+	}
+
+	@Test
+	public void countByFieldByIndex() {
+
+		StatementSet set = new StatementSet(newStatements(1000)).index(GENE_NAME);
+
+		Map<String, Long> counts = set.countByField(GENE_NAME);
+		Map<String, Long> expected = set.stream()
+				.collect(Collectors.groupingBy(s -> String.valueOf(s.getValue(GENE_NAME)), Collectors.counting()));
+
+		Assert.assertEquals(expected.get("null"), counts.get(null));
+		Assert.assertEquals(expected.get("GENE0"), counts.get("GENE0"));
+		Assert.assertEquals(expected.size(), counts.size());
+		Assert.assertEquals(1000, counts.values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	public void scanFieldsNotFittingInMemoryBudget() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+		set.setIndexMemoryBudget(1000);
+
+		// one value per statement
+		set.index(INDEX);
+		Assert.assertEquals(1, set.filter(INDEX, "42").count());
+		Assert.assertTrue(set.getIndexedFields().isEmpty());
+		Assert.assertEquals(0, set.getIndexMemoryUsage());
+		Assert.assertEquals(1000, set.countByField(INDEX).size());
+	}
+
+	@Test
+	public void dropLeastRecentlyUsedIndexes() {
+
+		StatementSet set = new StatementSet(newStatements(1000)).index(ENTRY_ACCESSION, GENE_NAME);
+
+		set.index(NEXTPROT_ACCESSION);
+		set.filter(ENTRY_ACCESSION, "NX_P00001").count();
+		set.setIndexMemoryBudget(set.getIndexMemoryUsage() - 1);
+
+		// the gene name index is the least recently used
+		Assert.assertEquals(2, set.getIndexedFields().size());
+		Assert.assertFalse(set.getIndexedFields().contains(GENE_NAME));
+		Assert.assertTrue(set.getIndexMemoryUsage() <= set.getIndexMemoryBudget());
+	}
+
+	@Test
+	public void evaluateChainedFiltersLazilyInOnePass() {
+
+		StatementSet set = new StatementSet(newStatements(1000)).index(ENTRY_ACCESSION, GENE_NAME);
+		AtomicInteger tests = new AtomicInteger();
+
+		StatementSet view = set.filter(ENTRY_ACCESSION, "NX_P00001", "NX_P00002")
+				.filter(s -> tests.incrementAndGet() > 0 && Integer.parseInt(s.getValue(INDEX)) % 2 == 0)
+				.filterNot(GENE_NAME, "GENE1");
+
+		Assert.assertEquals(0, tests.get());
+		List<String> expected = scan(set, s -> ("NX_P00001".equals(s.getValue(ENTRY_ACCESSION)) || "NX_P00002".equals(s.getValue(ENTRY_ACCESSION)))
+				&& Integer.parseInt(s.getValue(INDEX)) % 2 == 0 && !"GENE1".equals(s.getValue(GENE_NAME)));
+
+		Assert.assertEquals(expected.size(), view.count());
+		Assert.assertEquals(expected, indexes(view));
+		// the predicate is only tested once on the rows selected by the indexed conditions
+		Assert.assertEquals(set.filter(ENTRY_ACCESSION, "NX_P00001", "NX_P00002").filterNot(GENE_NAME, "GENE1").count(), tests.get());
+	}
+
+	@Test
+	public void composeFilters() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+
+		StatementFilter filter = StatementFilter.in(ENTRY_ACCESSION, "NX_P00001")
+				.or(StatementFilter.in(GENE_NAME, "GENE2").and(StatementFilter.matching(s -> s.getValue(INDEX).endsWith("0"))))
+				.and(StatementFilter.in(GENE_NAME, (String) null).not());
+
+		StatementSet view = set.filter(filter);
+
+		Assert.assertEquals(scan(set, filter::test), indexes(view));
+		Assert.assertTrue(view.count() > 0);
+		for (Statement statement : view.getStatements()) {
+			Assert.assertTrue(view.contains(statement));
+			Assert.assertNotNull(statement.getValue(GENE_NAME));
+		}
+		Assert.assertFalse(view.contains(set.filter(GENE_NAME, (String) null).getStatements().iterator().next()));
+	}
+
+	@Test
+	public void countByFieldOfView() {
+
+		StatementSet set = new StatementSet(newStatements(1000));
+
+		Map<String, Long> counts = set.filterNot(GENE_NAME, "GENE0").countByField(GENE_NAME);
+
+		Assert.assertFalse(counts.containsKey("GENE0"));
+		Assert.assertEquals(set.countByField(GENE_NAME).get("GENE1"), counts.get("GENE1"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void cannotModifyStatements() {
+
+		new StatementSet(newStatements(10)).getStatements().clear();
+	}
+
+	private static List<String> indexes(StatementSet set) {
+
+		return set.stream().map(s -> s.getValue(INDEX)).collect(Collectors.toList());
+	}
+
+	private static List<String> scan(StatementSet set, Predicate<Statement> predicate) {
+
+		return set.stream().filter(predicate).map(s -> s.getValue(INDEX)).collect(Collectors.toList());
+	}
+
+	static List<Statement> newStatements(int count) {
+
+		List<Statement> statements = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			StatementBuilder builder = new StatementBuilder()
+					.addField(ENTRY_ACCESSION, String.format("NX_P%05d", i % 37))
+					.addField(NEXTPROT_ACCESSION, String.format("NX_P%05d", i % 37))
+					.addField(INDEX, String.valueOf(i));
+			if (i % 7 != 0) {
+				builder.addField(GENE_NAME, "GENE" + (i % 11));
+			}
+			statements.add(builder.withTrustedIds().build());
+		}
+		Collections.shuffle(statements, new Random(42));
+		return statements;
+	}
+}
@@ -0,0 +1,192 @@
+package org.nextprot.commons.statements.diff;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.reader.BinaryStatementReader;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.sort.ExternalStatementSorter;
+import org.nextprot.commons.statements.sort.StatementSortKey;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.StatementField;
+import org.nextprot.commons.statements.writer.BinaryStatementWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.ANNOTATION_CATEGORY;
+import static org.nextprot.commons.statements.specs.CoreStatementField.ANNOTATION_ID;
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.GENE_NAME;
+import static org.nextprot.commons.statements.specs.CoreStatementField.STATEMENT_ID;
+
+public class StatementDiffTest {
+
+	private static final CustomStatementField RELEASE = new CustomStatementField("RELEASE");
+
+	@Test
+	public void diffByAnnotationId() throws IOException {
+
+		List<Statement> olds = sort(ANNOTATION_ID,
+				newComputedStatement("NX_P00001", "GENE1"),
+				newComputedStatement("NX_P00002", "GENE2"),
+				newComputedStatement("NX_P00003", "GENE3"));
+		List<Statement> news = sort(ANNOTATION_ID,
+				newComputedStatement("NX_P00001", "GENE1"),
+				newComputedStatement("NX_P00003", null),
+				newComputedStatement("NX_P00004", "GENE4"));
+
+		StatementDiff diff = new StatementDiff.Builder().build();
+		List<StatementChange> changes = new ArrayList<>();
+		StatementDiff.Summary summary = diff.diff(read(olds), read(news), changes::add);
+
+		Assert.assertEquals(3, changes.size());
+		Assert.assertEquals("NX_P00002", getChange(changes, StatementChange.Type.REMOVED).getOldStatement().getEntryAccession());
+		Assert.assertEquals("NX_P00004", getChange(changes, StatementChange.Type.ADDED).getNewStatement().getEntryAccession());
+
+		// the statement id computed from the gene name changed too, but is not compared
+		StatementChange changed = getChange(changes, StatementChange.Type.CHANGED);
+		Assert.assertNotEquals(changed.getOldStatement().getStatementId(), changed.getNewStatement().getStatementId());
+		Assert.assertEquals(1, changed.getFieldDeltas().size());
+		Assert.assertEquals(GENE_NAME, changed.getFieldDeltas().get(0).getField());
+		Assert.assertEquals("GENE3", changed.getFieldDeltas().get(0).getOldValue());
+		Assert.assertNull(changed.getFieldDeltas().get(0).getNewValue());
+
+		Assert.assertEquals("added=1, removed=1, changed=1, unchanged=1", summary.toString());
+	}
+
+	@Test
+	public void diffByStatementId() throws IOException {
+
+		List<Statement> olds = sort(STATEMENT_ID,
+				newComputedStatement("NX_P00001", "GENE1"),
+				newComputedStatement("NX_P00002", "GENE2"),
+				newComputedStatement("NX_P00003", "GENE3"));
+		List<Statement> news = sort(STATEMENT_ID,
+				newComputedStatement("NX_P00001", "GENE1"),
+				newComputedStatement("NX_P00003", null),
+				newComputedStatement("NX_P00004", "GENE4"));
+
+		StatementDiff.Summary summary = new StatementDiff.Builder(STATEMENT_ID).build().diff(read(olds), read(news), change -> {});
+
+		// any change of content changes the statement id
+		Assert.assertEquals("added=2, removed=2, changed=0, unchanged=1", summary.toString());
+	}
+
+	@Test
+	public void diffStatementsSharingAnnotationId() throws IOException {
+
+		List<Statement> olds = Arrays.asList(
+				newStatement("S1", "A1", "GENE1"),
+				newStatement("S2", "A1", "GENE2"),
+				newStatement("S3", "A1", "GENE3"));
+		List<Statement> news = Arrays.asList(
+				newStatement("S2", "A1", "GENE2"),
+				newStatement("S5", "A1", "GENE5"));
+
+		StatementDiff diff = new StatementDiff.Builder(ANNOTATION_ID).ignoring(STATEMENT_ID).build();
+		List<StatementChange> changes = diff.diff(read(olds), read(news));
+
+		// S2 is unchanged, S1 paired with S5 and S3 removed
+		Assert.assertEquals(2, changes.size());
+		Assert.assertEquals(StatementChange.Type.CHANGED, changes.get(0).getType());
+		Assert.assertEquals("S1", changes.get(0).getOldStatement().getStatementId());
+		Assert.assertEquals("GENE5", changes.get(0).getFieldDeltas().get(0).getNewValue());
+		Assert.assertEquals(StatementChange.Type.REMOVED, changes.get(1).getType());
+		Assert.assertEquals("S3", changes.get(1).getOldStatement().getStatementId());
+	}
+
+	@Test
+	public void ignoreFields() throws IOException {
+
+		Statement old = new StatementBuilder(newStatement("S1", "A1", "GENE1")).addField(RELEASE, "2019").withTrustedIds().build();
+		Statement statement = new StatementBuilder(newStatement("S1", "A1", "GENE1")).addField(RELEASE, "2020").withTrustedIds().build();
+
+		Assert.assertEquals(1, new StatementDiff.Builder().build()
+				.diff(read(Collections.singletonList(old)), read(Collections.singletonList(statement))).size());
+		Assert.assertTrue(new StatementDiff.Builder().ignoring(RELEASE).build()
+				.diff(read(Collections.singletonList(old)), read(Collections.singletonList(statement))).isEmpty());
+	}
+
+	@Test
+	public void diffExternallySortedReleases() throws IOException {
+
+		List<Statement> olds = new ArrayList<>();
+		List<Statement> news = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			olds.add(newStatement(String.format("S%04d", i), "A" + i, "GENE" + i));
+			if (i % 10 != 0) {
+				news.add(newStatement(String.format("S%04d", i + 5), "A" + i, "GENE" + (i % 100 == 1 ? "X" : i)));
+			}
+		}
+		Collections.shuffle(olds);
+		Collections.shuffle(news);
+
+		ExternalStatementSorter sorter = new ExternalStatementSorter.Builder(ANNOTATION_ID).withMemoryBudget(10000).build();
+
+		StatementDiff.Summary summary;
+		try (BufferableStatementReader sortedOlds = sorter.sort(read(olds)); BufferableStatementReader sortedNews = sorter.sort(read(news))) {
+			summary = new StatementDiff.Builder().build().diff(sortedOlds, sortedNews, change -> {});
+		}
+
+		Assert.assertEquals(1000, summary.getRemoved() + summary.getChanged() + summary.getUnchanged());
+		Assert.assertEquals(900, summary.getAdded() + summary.getChanged() + summary.getUnchanged());
+		Assert.assertTrue(summary.getChanged() > 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void cannotDiffUnsortedReleases() throws IOException {
+
+		List<Statement> olds = Arrays.asList(newStatement("S2", "A2", "GENE2"), newStatement("S1", "A1", "GENE1"));
+
+		new StatementDiff.Builder().build().diff(read(olds), read(olds));
+	}
+
+	private static Statement newStatement(String statementId, String annotationId, String geneName) {
+
+		StatementBuilder builder = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P12345")
+				.addField(STATEMENT_ID, statementId)
+				.addField(ANNOTATION_ID, annotationId);
+		if (geneName != null) {
+			builder.addField(GENE_NAME, geneName);
+		}
+		return builder.withTrustedIds().build();
+	}
+
+	private static Statement newComputedStatement(String entryAccession, String geneName) {
+
+		StatementBuilder builder = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, entryAccession)
+				.addField(ANNOTATION_CATEGORY, "variant");
+		if (geneName != null) {
+			builder.addField(GENE_NAME, geneName);
+		}
+		return builder.withAnnotationHash().build();
+	}
+
+	private static List<Statement> sort(StatementField field, Statement... statements) {
+
+		return Arrays.asList(StatementSortKey.of(field).sort(Arrays.asList(statements)));
+	}
+
+	private static StatementChange getChange(List<StatementChange> changes, StatementChange.Type type) {
+
+		return changes.stream().filter(change -> change.getType() == type).findFirst().orElseThrow(AssertionError::new);
+	}
+
+	private static BufferableStatementReader read(List<Statement> statements) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BinaryStatementWriter writer = new BinaryStatementWriter(out)) {
+			writer.write(statements);
+		}
+		return new BinaryStatementReader(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
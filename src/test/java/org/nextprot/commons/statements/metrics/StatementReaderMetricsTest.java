@@ -0,0 +1,168 @@
+package org.nextprot.commons.statements.metrics;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.reader.AsyncJsonStatementReader;
+import org.nextprot.commons.statements.reader.BufferedJsonStatementReader;
+import org.nextprot.commons.statements.reader.StatementFieldFilter;
+import org.nextprot.commons.statements.reader.StatementIdPolicy;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class StatementReaderMetricsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void measureReadStatements() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatements().getBytes(StandardCharsets.UTF_8));
+
+		StatementReaderMetrics metrics = new StatementReaderMetrics();
+
+		BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path);
+		reader.setListener(metrics);
+		Assert.assertEquals(2, reader.readStatements().size());
+		Assert.assertEquals(0, reader.readStatements().size());
+
+		Assert.assertEquals(2, metrics.getStatementsTokenized());
+		Assert.assertEquals(2, metrics.getStatementsRead());
+		Assert.assertTrue(metrics.getBytesRead() > 0 && metrics.getBytesRead() <= Files.size(path));
+		Assert.assertTrue(metrics.getTokenizeTime(TimeUnit.NANOSECONDS) > 0);
+		Assert.assertTrue(metrics.getStatementsPerSecond() > 0);
+		Assert.assertEquals("{0=1, 2=1}", metrics.getBatchSizeHistogram().toString());
+		Assert.assertTrue(metrics.toString().startsWith("statements=2 "));
+	}
+
+	@Test
+	public void measureFilteredStatements() throws IOException {
+
+		StatementReaderMetrics metrics = new StatementReaderMetrics();
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setListener(metrics);
+		reader.setFilter(new StatementFieldFilter.Builder().withValues(ANNOTATION_CATEGORY, "variant").build());
+		reader.readStatements();
+
+		Assert.assertEquals(2, metrics.getStatementsTokenized());
+		Assert.assertEquals(1, metrics.getStatementsRead());
+		Assert.assertEquals(getStatements().trim().length(), metrics.getBytesRead() + 1);
+	}
+
+	@Test
+	public void shouldNotHashTrustedIds() throws IOException {
+
+		AtomicInteger built = new AtomicInteger();
+		AtomicInteger hashed = new AtomicInteger();
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatement()));
+		reader.setStatementIdPolicy(StatementIdPolicy.trust());
+		reader.setListener(new CountingListener(built, hashed));
+		reader.readStatements();
+
+		Assert.assertEquals(1, built.get());
+		Assert.assertEquals(0, hashed.get());
+	}
+
+	@Test
+	public void measureBuiltStatements() {
+
+		AtomicInteger built = new AtomicInteger();
+		AtomicInteger hashed = new AtomicInteger();
+
+		new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P01308")
+				.withAnnotationHash()
+				.withListener(new CountingListener(built, hashed))
+				.build();
+
+		Assert.assertEquals(1, built.get());
+		Assert.assertEquals(1, hashed.get());
+	}
+
+	@Test
+	public void tokenizeTimeShouldExcludeAsyncReadWaits() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatements().getBytes(StandardCharsets.UTF_8));
+
+		AtomicInteger reads = new AtomicInteger();
+		// each read completes after 5 ms
+		ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+			@Override
+			protected void beforeExecute(Thread thread, Runnable runnable) {
+				reads.incrementAndGet();
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					thread.interrupt();
+				}
+			}
+		};
+
+		StatementReaderMetrics metrics = new StatementReaderMetrics();
+
+		try (AsyncJsonStatementReader reader = new AsyncJsonStatementReader(path, executor, new Specifications.Builder().build(), 64)) {
+			reader.setListener(metrics);
+			Assert.assertEquals(2, reader.readStatements().size());
+		} finally {
+			executor.shutdown();
+		}
+
+		Assert.assertEquals(2, metrics.getStatementsTokenized());
+		Assert.assertTrue(reads.get() > 10);
+		Assert.assertTrue(metrics.getTokenizeTime(TimeUnit.MILLISECONDS) < reads.get() * 5 / 2);
+	}
+
+	@Test
+	public void countBatchSizesByPowerOfTwo() {
+
+		StatementReaderMetrics metrics = new StatementReaderMetrics();
+		metrics.onBatchRead(1);
+		metrics.onBatchRead(3);
+		metrics.onBatchRead(2);
+		metrics.onBatchRead(100);
+
+		Assert.assertEquals("{1=1, 2=2, 64=1}", metrics.getBatchSizeHistogram().toString());
+	}
+
+	private static class CountingListener implements StatementMetricsListener {
+
+		private final AtomicInteger built;
+		private final AtomicInteger hashed;
+
+		private CountingListener(AtomicInteger built, AtomicInteger hashed) {
+			this.built = built;
+			this.hashed = hashed;
+		}
+
+		@Override
+		public void onStatementBuilt(long nanos) {
+			built.incrementAndGet();
+		}
+
+		@Override
+		public void onIdsHashed(long nanos) {
+			hashed.incrementAndGet();
+		}
+	}
+}
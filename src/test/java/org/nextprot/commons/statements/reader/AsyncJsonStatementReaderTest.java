@@ -0,0 +1,128 @@
+package org.nextprot.commons.statements.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class AsyncJsonStatementReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readStatement() throws IOException {
+
+		AsyncJsonStatementReader reader = new AsyncJsonStatementReader(createJsonFile(getStatement()));
+
+		List<Statement> statements = reader.readStatements();
+		reader.close();
+
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals(13, statements.get(0).size());
+		Assert.assertEquals("POTEH-p.Trp34Ter", statements.get(0).getValue(ANNOTATION_NAME));
+		Assert.assertEquals("2dc94938c20a61ea69df3b0434b50e71", statements.get(0).getValue(STATEMENT_ID));
+	}
+
+	@Test
+	public void readStatementsWithSmallBufferSplittingTokens() throws Exception {
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		AsyncJsonStatementReader reader = new AsyncJsonStatementReader(createJsonFile(getStatements()), executor,
+				new Specifications.Builder().build(), 7);
+
+		List<Statement> statements = new ArrayList<>();
+		int count = reader.readStatements(statements::add).get();
+		reader.close();
+		executor.shutdown();
+
+		Assert.assertEquals(2, count);
+		Assert.assertEquals(17, statements.get(0).size());
+		Assert.assertEquals("618c2674745cea56a67cfd6a9fb5718e", statements.get(0).getValue(STATEMENT_ID));
+		Assert.assertEquals(24, statements.get(1).size());
+		Assert.assertEquals("phenotypic-variation", statements.get(1).getValue(ANNOTATION_CATEGORY));
+	}
+
+	@Test
+	public void shouldReadSameStatementsAsBufferedReader() throws IOException {
+
+		Path path = createJsonFile(getStatements());
+
+		List<Statement> expected = new BufferedJsonStatementReader(Files.newBufferedReader(path)).readStatements();
+		List<Statement> statements = new AsyncJsonStatementReader(path).readStatements();
+
+		Assert.assertEquals(expected, statements);
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void shouldFailOnInvalidContent() throws Exception {
+
+		new AsyncJsonStatementReader(createJsonFile("\"not a statement\"")).readStatements(s -> {}).get();
+	}
+
+	@Test
+	public void shouldCloseChannelOnInvalidContent() throws Exception {
+
+		AsynchronousFileChannel channel = AsynchronousFileChannel.open(createJsonFile("[{\"GENE_NAME\": }]"), StandardOpenOption.READ);
+		AsyncJsonStatementReader reader = new AsyncJsonStatementReader(channel, new Specifications.Builder().build(), 4);
+
+		try {
+			reader.readStatements(s -> {}).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertFalse(channel.isOpen());
+		}
+	}
+
+	@Test
+	public void shouldNotReadCompressedContent() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+			out.write(getStatements().getBytes(StandardCharsets.UTF_8));
+		}
+
+		try (AsyncJsonStatementReader reader = new AsyncJsonStatementReader(path)) {
+			reader.readStatements();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("cannot read a compressed content asynchronously", e.getMessage());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void readStatementsTwiceNotAllowed() throws IOException {
+
+		AsyncJsonStatementReader reader = new AsyncJsonStatementReader(createJsonFile(getStatements()));
+		reader.readStatements();
+		reader.readStatements();
+	}
+
+	private Path createJsonFile(String content) throws IOException {
+
+		File file = folder.newFile();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file.toPath();
+	}
+}
@@ -0,0 +1,107 @@
+package org.nextprot.commons.statements.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.writer.BinaryStatementWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class BinaryStatementReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readWrittenStatements() throws IOException {
+
+		List<Statement> statements = new JsonStatementReader(JsonStatementReaderTest.getStatements(), new Specifications.Builder().build()).readStatements();
+		statements.add(new JsonStatementReader("[" + JsonStatementReaderTest.getStatement() + "]", new Specifications.Builder().build()).readStatements().get(0));
+
+		Path path = folder.getRoot().toPath().resolve("statements.bin");
+		try (BinaryStatementWriter writer = BinaryStatementWriter.create(path)) {
+			writer.write(statements);
+			Assert.assertTrue(writer.getByteCount() > 0);
+		}
+
+		BinaryStatementReader reader = new BinaryStatementReader(Files.newInputStream(path), new Specifications.Builder().build(), 2);
+		List<Statement> read = new ArrayList<>();
+		Assert.assertEquals(2, reader.readStatements(read));
+		Assert.assertTrue(reader.hasStatement());
+		Assert.assertEquals(1, reader.readStatements(read));
+		Assert.assertEquals(-1, reader.readStatements(read));
+
+		Assert.assertEquals(statements, read);
+		// ids are kept as is
+		Assert.assertEquals(statements.get(2).getStatementId(), read.get(2).getStatementId());
+	}
+
+	@Test
+	public void readCustomFieldsAndNullValues() throws IOException {
+
+		Statement statement = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P12345")
+				.addField(EVIDENCE_NOTE, null)
+				.addField(new CustomStatementField("KEY", true), "\u03b1\u03b2")
+				.addField(new CustomStatementField("PROPERTY"), "")
+				.build();
+
+		List<Statement> read = readBack(Arrays.asList(statement, statement));
+
+		Assert.assertEquals(Arrays.asList(statement, statement), read);
+		Assert.assertTrue(read.get(1).containsKey(EVIDENCE_NOTE));
+		Assert.assertTrue(read.get(1).keySet().stream().anyMatch(field -> field.getName().equals("KEY") && field.isPartOfAnnotationUnicityKey()));
+	}
+
+	@Test
+	public void readEmptyContent() throws IOException {
+
+		BinaryStatementReader reader = new BinaryStatementReader(new ByteArrayInputStream(write(new ArrayList<>())));
+
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertNull(reader.nextStatement());
+	}
+
+	@Test(expected = IOException.class)
+	public void readInvalidContentShouldFail() throws IOException {
+
+		new BinaryStatementReader(new ByteArrayInputStream("[{}]".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test(expected = IOException.class)
+	public void readTruncatedContentShouldFail() throws IOException {
+
+		byte[] content = write(Arrays.asList(new StatementBuilder().addField(ENTRY_ACCESSION, "NX_P12345").build()));
+
+		new BinaryStatementReader(new ByteArrayInputStream(Arrays.copyOf(content, content.length - 1))).nextStatement();
+	}
+
+	private static List<Statement> readBack(List<Statement> statements) throws IOException {
+
+		return new BinaryStatementReader(new ByteArrayInputStream(write(statements))).readStatements();
+	}
+
+	private static byte[] write(List<Statement> statements) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BinaryStatementWriter writer = new BinaryStatementWriter(out)) {
+			writer.write(statements);
+		}
+		return out.toByteArray();
+	}
+}
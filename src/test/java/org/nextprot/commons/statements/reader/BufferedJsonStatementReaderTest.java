@@ -1,12 +1,26 @@
 package org.nextprot.commons.statements.reader;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.io.BlockGzipOutputStream;
 import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
 import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatements;
@@ -14,6 +28,9 @@ import static org.nextprot.commons.statements.specs.CoreStatementField.*;
 
 public class BufferedJsonStatementReaderTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void hasNextShouldNotConsumeTokens() throws IOException {
 
@@ -169,4 +186,294 @@ public class BufferedJsonStatementReaderTest {
 
 		Assert.assertFalse(reader.hasStatement());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void readStatementsFromBytes() throws IOException {
+
+		byte[] content = getStatements().getBytes(StandardCharsets.UTF_8);
+		List<Statement> expected = new BufferedJsonStatementReader(new StringReader(getStatements())).readStatements();
+
+		Assert.assertEquals(expected, new BufferedJsonStatementReader(content, new Specifications.Builder().build(), 10).readStatements());
+		Assert.assertEquals(expected, new BufferedJsonStatementReader(new ByteArrayInputStream(content)).readStatements());
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(content.length);
+		direct.put(content).flip();
+		Assert.assertEquals(expected, new BufferedJsonStatementReader(direct, new Specifications.Builder().build(), 10).readStatements());
+	}
+
+	@Test
+	public void readStatementsFromPath() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatements().getBytes(StandardCharsets.UTF_8));
+
+		BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path, new Specifications.Builder().build(), 1, 16);
+
+		Statement s = reader.nextStatement();
+		Assert.assertEquals("618c2674745cea56a67cfd6a9fb5718e", s.getValue(STATEMENT_ID));
+		Assert.assertTrue(reader.hasStatement());
+		s = reader.nextStatement();
+		Assert.assertEquals("phenotypic-variation", s.getValue(ANNOTATION_CATEGORY));
+		Assert.assertFalse(reader.hasStatement());
+		reader.close();
+	}
+
+	@Test
+	public void readStatementsFromGzippedPath() throws IOException {
+
+		List<Statement> expected = new BufferedJsonStatementReader(new StringReader(getStatements())).readStatements();
+
+		Path gzip = folder.newFile().toPath();
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+			out.write(getStatements().getBytes(StandardCharsets.UTF_8));
+		}
+		Assert.assertEquals(expected, BufferedJsonStatementReader.fromPath(gzip).readStatements());
+
+		Path blockGzip = folder.newFile().toPath();
+		try (OutputStream out = new BlockGzipOutputStream(Files.newOutputStream(blockGzip), 64, Deflater.DEFAULT_COMPRESSION)) {
+			out.write(getStatements().getBytes(StandardCharsets.UTF_8));
+		}
+		Assert.assertEquals(expected, BufferedJsonStatementReader.fromPath(blockGzip).readStatements());
+	}
+
+	@Test
+	public void readProjectedStatements() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setProjection(ENTRY_ACCESSION, ANNOTATION_CATEGORY, SUBJECT_STATEMENT_IDS);
+
+		Statement s = reader.nextStatement();
+		Assert.assertEquals(2, s.size());
+		Assert.assertEquals("NX_Q15858", s.getValue(ENTRY_ACCESSION));
+		Assert.assertEquals("variant", s.getValue(ANNOTATION_CATEGORY));
+		// no id in content: not computed on partial content
+		Assert.assertNull(s.getValue(STATEMENT_ID));
+
+		s = reader.nextStatement();
+		Assert.assertEquals(3, s.size());
+		Assert.assertEquals("phenotypic-variation", s.getValue(ANNOTATION_CATEGORY));
+		Assert.assertEquals("618c2674745cea56a67cfd6a9fb5718e", s.getValue(SUBJECT_STATEMENT_IDS));
+		Assert.assertNull(s.getValue(EVIDENCE_NOTE));
+		Assert.assertFalse(reader.hasStatement());
+	}
+
+	@Test
+	public void projectedStatementsShouldKeepTheirIds() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatement()));
+		reader.setProjection(ANNOTATION_CATEGORY);
+
+		Statement s = reader.nextStatement();
+		Assert.assertEquals(2, s.size());
+		Assert.assertEquals("variant", s.getValue(ANNOTATION_CATEGORY));
+		Assert.assertEquals("792d509b2d452da2cf4a74faa2773c15", s.getValue(STATEMENT_ID));
+	}
+
+	@Test
+	public void shouldSkipNestedValues() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(
+				"[{\"ENTRY_ACCESSION\": \"NX_P1\", \"DEBUG_INFO\": {\"a\": [1, {\"b\": 2}]}, \"GENE_NAME\": \"G1\"}," +
+				"{\"ENTRY_ACCESSION\": \"NX_P2\"}]"));
+
+		List<Statement> statements = reader.readStatements();
+		Assert.assertEquals(2, statements.size());
+		Assert.assertEquals("G1", statements.get(0).getValue(GENE_NAME));
+		Assert.assertNull(statements.get(0).getValue(DEBUG_INFO));
+		Assert.assertEquals("NX_P2", statements.get(1).getValue(ENTRY_ACCESSION));
+	}
+
+	@Test
+	public void readStatementWithTrustedIds() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatement()));
+		reader.setStatementIdPolicy(StatementIdPolicy.trust());
+
+		Statement s = reader.nextStatement();
+		Assert.assertEquals(13, s.size());
+		Assert.assertEquals("792d509b2d452da2cf4a74faa2773c15", s.getValue(STATEMENT_ID));
+	}
+
+	@Test
+	public void shouldComputeMissingIdsWhenTrusted() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setStatementIdPolicy(StatementIdPolicy.trust());
+
+		Assert.assertEquals("618c2674745cea56a67cfd6a9fb5718e", reader.nextStatement().getValue(STATEMENT_ID));
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldFailToVerifyInvalidIds() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatement()));
+		reader.setStatementIdPolicy(StatementIdPolicy.verify(1));
+
+		reader.nextStatement();
+	}
+
+	@Test
+	public void shouldVerifyValidIds() throws IOException {
+
+		List<Statement> statements = new BufferedJsonStatementReader(new StringReader(getStatement())).readStatements();
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(Statement.toJsonString(statements)));
+		reader.setStatementIdPolicy(StatementIdPolicy.verify(0.5));
+
+		Assert.assertEquals(statements, reader.readStatements());
+	}
+
+	@Test
+	public void readFilteredStatements() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setFilter(new StatementFieldFilter.Builder()
+				.withValues(ENTRY_ACCESSION, "NX_Q15858", "NX_P12345")
+				.withValues(ANNOTATION_CATEGORY, "phenotypic-variation")
+				.build());
+
+		List<Statement> statements = reader.readStatements();
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals(24, statements.get(0).size());
+		Assert.assertEquals("phenotypic-variation", statements.get(0).getValue(ANNOTATION_CATEGORY));
+		Assert.assertFalse(reader.hasStatement());
+	}
+
+	@Test
+	public void readFilteredStatementsOnMissingField() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setFilter(new StatementFieldFilter.Builder().with(SUBJECT_STATEMENT_IDS, Objects::isNull).build());
+
+		Statement s = reader.nextStatement();
+		Assert.assertEquals("variant", s.getValue(ANNOTATION_CATEGORY));
+		Assert.assertNull(reader.nextStatement());
+		Assert.assertFalse(reader.hasStatement());
+	}
+
+	@Test
+	public void hasStatementShouldSkipRejectedStatements() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setFilter(new StatementFieldFilter.Builder().with(SUBJECT_STATEMENT_IDS, Objects::isNull).build());
+
+		List<Statement> statements = new ArrayList<>();
+		while (reader.hasStatement()) {
+			statements.add(reader.nextStatement());
+		}
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals("variant", statements.get(0).getValue(ANNOTATION_CATEGORY));
+	}
+
+	@Test
+	public void hasStatementShouldNotMoveCheckpoint() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatements().getBytes(StandardCharsets.UTF_8));
+
+		BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path);
+		reader.nextStatement();
+		StatementReaderCheckpoint checkpoint = reader.getCheckpoint();
+
+		Assert.assertTrue(reader.hasStatement());
+		Assert.assertEquals(checkpoint.getByteOffset(), reader.getCheckpoint().getByteOffset());
+		Assert.assertEquals(checkpoint.getStatementCount(), reader.getCheckpoint().getStatementCount());
+		reader.close();
+	}
+
+	@Test
+	public void readFilteredAndProjectedStatements() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader(getStatements()));
+		reader.setFilter(new StatementFieldFilter.Builder().withValues(EVIDENCE_CODE, "ECO:0000006").build());
+		reader.setProjection(GENE_NAME);
+
+		List<Statement> statements = reader.readStatements();
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals(1, statements.get(0).size());
+		Assert.assertEquals("SCN9A", statements.get(0).getValue(GENE_NAME));
+	}
+
+	@Test
+	public void resumeReadingFromCheckpoint() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatements().getBytes(StandardCharsets.UTF_8));
+		List<Statement> expected = new BufferedJsonStatementReader(new StringReader(getStatements())).readStatements();
+
+		BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path);
+		Assert.assertEquals(2, reader.getCheckpoint().getByteOffset());
+		Assert.assertEquals(expected.get(0), reader.nextStatement());
+
+		String checkpoint = reader.getCheckpoint().serializeToJsonString();
+		reader.close();
+
+		StatementReaderCheckpoint restored = StatementReaderCheckpoint.deSerializeFromJsonString(checkpoint);
+		Assert.assertEquals(1, restored.getStatementCount());
+		Assert.assertFalse(restored.isCompleted());
+
+		reader = BufferedJsonStatementReader.resume(path, restored, new Specifications.Builder().build(), 10, 8);
+		Assert.assertEquals(restored.getByteOffset(), reader.getCheckpoint().getByteOffset());
+		Assert.assertEquals(expected.get(1), reader.nextStatement());
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertTrue(reader.getCheckpoint().isCompleted());
+		Assert.assertEquals(2, reader.getCheckpoint().getStatementCount());
+		reader.close();
+	}
+
+	@Test
+	public void resumeReadingFromCompletedCheckpoint() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatement().getBytes(StandardCharsets.UTF_8));
+
+		BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(path);
+		Assert.assertEquals(0, reader.getCheckpoint().getByteOffset());
+		Assert.assertNotNull(reader.nextStatement());
+		StatementReaderCheckpoint checkpoint = reader.getCheckpoint();
+		Assert.assertTrue(checkpoint.isCompleted());
+
+		reader = BufferedJsonStatementReader.resume(path, checkpoint, new Specifications.Builder().build(), 10, 8);
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertTrue(reader.readStatements().isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void shouldNotCheckpointCharContent() throws IOException {
+
+		new BufferedJsonStatementReader(new StringReader(getStatements())).getCheckpoint();
+	}
+
+	@Test
+	public void shouldNotCheckpointOrResumeCompressedContent() throws IOException {
+
+		Path gzip = folder.newFile().toPath();
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+			out.write(getStatements().getBytes(StandardCharsets.UTF_8));
+		}
+
+		try (BufferedJsonStatementReader reader = BufferedJsonStatementReader.fromPath(gzip)) {
+			reader.nextStatement();
+			reader.getCheckpoint();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("checkpoints are not available on compressed content", e.getMessage());
+		}
+
+		try {
+			BufferedJsonStatementReader.resume(Files.newByteChannel(gzip), new StatementReaderCheckpoint(2, 1, true, false),
+					new Specifications.Builder().build(), 10, 8);
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("cannot seek a compressed content", e.getMessage());
+		}
+	}
+
+	@Test
+	public void emptyArrayShouldHaveNoStatement() throws IOException {
+
+		BufferedJsonStatementReader reader = new BufferedJsonStatementReader(new StringReader("[ ]"));
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertNull(reader.nextStatement());
+	}
+}
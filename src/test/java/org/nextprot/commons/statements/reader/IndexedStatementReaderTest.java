@@ -0,0 +1,149 @@
+package org.nextprot.commons.statements.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class IndexedStatementReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readStatementsByEntryAccession() throws IOException {
+
+		Path dump = newDump();
+		StatementOffsetIndex.buildSidecar(dump, ENTRY_ACCESSION, STATEMENT_ID);
+
+		List<Statement> expected = new JsonStatementReader(getStatements(), new Specifications.Builder().build()).readStatements();
+
+		try (IndexedStatementReader reader = new IndexedStatementReader(dump)) {
+
+			Assert.assertEquals(expected, reader.readStatements(ENTRY_ACCESSION, "NX_Q15858"));
+			Assert.assertEquals(Collections.emptyList(), reader.readStatements(ENTRY_ACCESSION, "NX_P01308"));
+		}
+	}
+
+	@Test
+	public void readStatementById() throws IOException {
+
+		Path dump = folder.newFile().toPath();
+		Files.write(dump, ("[" + getStatement() + "]").getBytes(StandardCharsets.UTF_8));
+		StatementOffsetIndex index = StatementOffsetIndex.build(dump, STATEMENT_ID);
+
+		try (IndexedStatementReader reader = new IndexedStatementReader(dump, index, new Specifications.Builder().build())) {
+
+			reader.setStatementIdPolicy(StatementIdPolicy.trust());
+
+			List<Statement> statements = reader.readStatements(STATEMENT_ID, "792d509b2d452da2cf4a74faa2773c15");
+			Assert.assertEquals(1, statements.size());
+			Assert.assertEquals("POTEH-p.Trp34Ter", statements.get(0).getValue(ANNOTATION_NAME));
+			Assert.assertEquals(statements, reader.readStatements());
+		}
+	}
+
+	@Test
+	public void writeAndReadIndex() throws IOException {
+
+		Path dump = newDump();
+		StatementOffsetIndex index = StatementOffsetIndex.build(dump, ENTRY_ACCESSION);
+
+		Path sidecar = folder.newFile().toPath();
+		index.write(sidecar);
+		StatementOffsetIndex read = StatementOffsetIndex.read(sidecar);
+
+		Assert.assertEquals(index.getIndexedFieldNames(), read.getIndexedFieldNames());
+		Assert.assertEquals(index.getValues(ENTRY_ACCESSION), read.getValues(ENTRY_ACCESSION));
+		Assert.assertEquals(2, read.getByteRanges(ENTRY_ACCESSION, "NX_Q15858").size());
+		Assert.assertEquals(index.getByteRanges(ENTRY_ACCESSION, "NX_Q15858").toString(),
+				read.getByteRanges(ENTRY_ACCESSION, "NX_Q15858").toString());
+		Assert.assertTrue(read.isUpToDate(dump));
+	}
+
+	@Test
+	public void indexScalarValuesOnly() throws IOException {
+
+		Path dump = folder.newFile().toPath();
+		Files.write(dump, "[{\"ENTRY_ACCESSION\": [\"a\", \"b\"], \"GENE_NAME\": \"G1\"}, {\"ENTRY_ACCESSION\": \"c\"}]"
+				.getBytes(StandardCharsets.UTF_8));
+
+		StatementOffsetIndex index = StatementOffsetIndex.build(dump, ENTRY_ACCESSION, GENE_NAME);
+
+		Assert.assertEquals(Collections.singletonList("c"), index.getValues(ENTRY_ACCESSION));
+		Assert.assertEquals(Collections.singletonList("G1"), index.getValues(GENE_NAME));
+	}
+
+	@Test
+	public void writeAndReadIndexOfLongValues() throws IOException {
+
+		StringBuilder value = new StringBuilder();
+		while (value.length() <= 70000) {
+			value.append("\u00e9value");
+		}
+
+		Path dump = folder.newFile().toPath();
+		Files.write(dump, ("[{\"ANNOT_DESCRIPTION\": \"" + value + "\"}]").getBytes(StandardCharsets.UTF_8));
+
+		Path sidecar = folder.newFile().toPath();
+		StatementOffsetIndex.build(dump, ANNOT_DESCRIPTION).write(sidecar);
+
+		Assert.assertEquals(Collections.singletonList(value.toString()), StatementOffsetIndex.read(sidecar).getValues(ANNOT_DESCRIPTION));
+	}
+
+	@Test
+	public void readStatementsTwiceNotAllowed() throws IOException {
+
+		Path dump = newDump();
+		StatementOffsetIndex.buildSidecar(dump, ENTRY_ACCESSION);
+
+		try (IndexedStatementReader reader = new IndexedStatementReader(dump)) {
+
+			Assert.assertEquals(2, reader.readStatements().size());
+
+			try {
+				reader.readStatements();
+				Assert.fail("the exhausted reader should be closed");
+			} catch (IOException e) {
+				Assert.assertEquals("Stream closed", e.getMessage());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldNotReadByNonIndexedField() throws IOException {
+
+		Path dump = newDump();
+		StatementOffsetIndex.build(dump, ENTRY_ACCESSION).getByteRanges(GENE_NAME, "SCN9A");
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldNotReadOutOfDateIndex() throws IOException {
+
+		Path dump = newDump();
+		StatementOffsetIndex index = StatementOffsetIndex.build(dump, ENTRY_ACCESSION);
+		Files.write(dump, "[]".getBytes(StandardCharsets.UTF_8));
+
+		new IndexedStatementReader(dump, index, new Specifications.Builder().build());
+	}
+
+	private Path newDump() throws IOException {
+
+		Path dump = folder.newFile().toPath();
+		Files.write(dump, getStatements().getBytes(StandardCharsets.UTF_8));
+		return dump;
+	}
+}
@@ -0,0 +1,157 @@
+package org.nextprot.commons.statements.reader;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.constants.StatementTableNames;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+import org.nextprot.commons.statements.writer.JdbcStatementWriter;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class JdbcStatementReaderTest {
+
+	private JdbcDataSource dataSource;
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:jdbc-reader;DB_CLOSE_DELAY=-1");
+
+		connection = dataSource.getConnection();
+		connection.createStatement().execute("CREATE SCHEMA IF NOT EXISTS nxflat");
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+
+		connection.createStatement().execute("DROP ALL OBJECTS");
+		connection.close();
+	}
+
+	@Test
+	public void readShouldGiveBackWrittenStatements() throws IOException, SQLException {
+
+		List<Statement> statements = write(new NXFlatTableSchema(), 25);
+
+		JdbcStatementReader reader = new JdbcStatementReader.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withFetchSize(4)
+				.withMaxBufferSize(10)
+				.build();
+
+		List<Statement> read = new ArrayList<>();
+		Assert.assertEquals(10, reader.readStatements(read));
+		Assert.assertEquals(10, reader.readStatements(read));
+		Assert.assertEquals(5, reader.readStatements(read));
+		Assert.assertEquals(-1, reader.readStatements(read));
+		Assert.assertFalse(reader.hasStatement());
+
+		read.sort(Comparator.comparing(Statement::getEntryAccession));
+		Assert.assertEquals(statements, read);
+		Assert.assertEquals("3", read.get(3).getValue(new CustomStatementField("PROPERTY")));
+	}
+
+	@Test
+	public void readProjectedAndFilteredStatements() throws IOException, SQLException {
+
+		write(NXFlatTableSchema.typed(0), 25);
+
+		JdbcStatementReader reader = new JdbcStatementReader.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withTableSchema(NXFlatTableSchema.typed(0))
+				.withCondition("LOCATION_BEGIN >= ?", 10)
+				.build();
+		reader.setProjection(ENTRY_ACCESSION);
+		reader.setFilter(new StatementFieldFilter.Builder().with(new CustomStatementField("PROPERTY"), value -> Integer.parseInt(value) % 2 == 0).build());
+
+		Assert.assertTrue(reader.getQuery().startsWith("SELECT ANNOTATION_ID, ENTRY_ACCESSION, STATEMENT_ID, EXTRA_FIELDS FROM nxflat.RAW_STATEMENTS WHERE"));
+
+		List<Statement> read = new ArrayList<>();
+		Statement statement;
+		while ((statement = reader.nextStatement()) != null) {
+			read.add(statement);
+		}
+
+		Assert.assertEquals(8, read.size());
+		for (Statement s : read) {
+			Assert.assertNotNull(s.getEntryAccession());
+			Assert.assertNotNull(s.getStatementId());
+			Assert.assertNull(s.getValue(LOCATION_BEGIN));
+			Assert.assertNull(s.getValue(new CustomStatementField("PROPERTY")));
+		}
+	}
+
+	@Test
+	public void hasStatementShouldSkipRejectedRows() throws IOException, SQLException {
+
+		write(NXFlatTableSchema.typed(0), 25);
+
+		JdbcStatementReader reader = new JdbcStatementReader.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withTableSchema(NXFlatTableSchema.typed(0))
+				.build();
+		reader.setFilter(new StatementFieldFilter.Builder().with(new CustomStatementField("PROPERTY"), value -> Integer.parseInt(value) < 2).build());
+
+		List<Statement> read = new ArrayList<>();
+		while (reader.hasStatement()) {
+			read.add(reader.nextStatement());
+		}
+
+		Assert.assertEquals(2, read.size());
+		Assert.assertFalse(read.contains(null));
+		Assert.assertNull(reader.nextStatement());
+	}
+
+	@Test
+	public void readEmptyTable() throws IOException, SQLException {
+
+		write(new NXFlatTableSchema(), 0);
+
+		JdbcStatementReader reader = new JdbcStatementReader.Builder(dataSource, StatementTableNames.RAW_TABLE).build();
+
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertNull(reader.nextStatement());
+		Assert.assertTrue(reader.readStatements().isEmpty());
+	}
+
+	@Test(expected = IOException.class)
+	public void readMissingTableShouldFail() throws IOException {
+
+		new JdbcStatementReader.Builder(dataSource, "MISSING_TABLE").build().nextStatement();
+	}
+
+	private List<Statement> write(NXFlatTableSchema schema, int count) throws IOException, SQLException {
+
+		connection.createStatement().execute(schema.generateCreateTableInSQL(StatementTableNames.RAW_TABLE));
+
+		List<Statement> statements = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			statements.add(new StatementBuilder()
+					.addField(ENTRY_ACCESSION, String.format("NX_P%05d", i))
+					.addField(LOCATION_BEGIN, String.valueOf(i))
+					.addField(EVIDENCE_NOTE, "line 1\nline 2")
+					.addField(new CustomStatementField("PROPERTY"), String.valueOf(i))
+					.build());
+		}
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withTableSchema(schema)
+				.insertingOnly()
+				.build()) {
+			writer.write(statements);
+		}
+		return statements;
+	}
+}
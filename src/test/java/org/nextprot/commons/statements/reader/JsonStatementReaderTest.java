@@ -1,14 +1,25 @@
 package org.nextprot.commons.statements.reader;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.nextprot.commons.statements.Statement;
 import org.nextprot.commons.statements.specs.CoreStatementField;
 import org.nextprot.commons.statements.specs.CustomStatementField;
 import org.nextprot.commons.statements.specs.Specifications;
 import org.nextprot.commons.statements.specs.StatementField;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -18,6 +29,9 @@ import static org.nextprot.commons.statements.specs.CoreStatementField.*;
 
 public class JsonStatementReaderTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void readStatementAsMap() throws IOException {
 
@@ -216,6 +230,63 @@ public class JsonStatementReaderTest {
 		reader.close();
 	}
 
+	@Test
+	public void readStatementsFromBytes() throws IOException {
+
+		byte[] content = getStatements().getBytes(StandardCharsets.UTF_8);
+		List<Statement> expected = new JsonStatementReader(getStatements(), new Specifications.Builder().build()).readStatements();
+
+		Assert.assertEquals(expected, new JsonStatementReader(content, new Specifications.Builder().build()).readStatements());
+		Assert.assertEquals(expected, new JsonStatementReader(new ByteArrayInputStream(content), new Specifications.Builder().build()).readStatements());
+		Assert.assertEquals(expected, new JsonStatementReader(ByteBuffer.wrap(content), new Specifications.Builder().build()).readStatements());
+	}
+
+	@Test
+	public void readNonAsciiStatementFromPath() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getStatement().replace("POTEH-p.Trp34Ter", "POTEH-\u03b1-\u00e9").getBytes(StandardCharsets.UTF_8));
+
+		Statement statement = JsonStatementReader.fromPath(path, new Specifications.Builder().build(), 8).readStatements().get(0);
+
+		Assert.assertEquals("POTEH-\u03b1-\u00e9", statement.getValue(ANNOTATION_NAME));
+	}
+
+	@Test
+	public void parserShouldReadTheStreamByIoBufferSize() throws IOException {
+
+		int[] maxReadLength = new int[1];
+
+		InputStream inputStream = new FilterInputStream(new ByteArrayInputStream(getStatements().getBytes(StandardCharsets.UTF_8))) {
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+
+				maxReadLength[0] = Math.max(maxReadLength[0], len);
+				return super.read(b, off, len);
+			}
+		};
+
+		try (JsonParser parser = JsonParserSource.createParser(new JsonFactory(), inputStream, 16)) {
+			while (parser.nextToken() != null) { }
+		}
+		Assert.assertEquals(16, maxReadLength[0]);
+	}
+
+	@Test
+	public void readProjectedStatements() throws IOException {
+
+		JsonStatementReader reader = new JsonStatementReader(getStatementWithExtra(), new Specifications.Builder().build());
+		reader.setProjection(GENE_NAME, new CustomStatementField("PSIMI_ID"));
+
+		Statement statement = reader.readStatements().get(0);
+
+		Assert.assertEquals(3, statement.size());
+		Assert.assertEquals("POTEH", statement.getValue(GENE_NAME));
+		Assert.assertEquals("MI:2222", statement.getValue(new CustomStatementField("PSIMI_ID")));
+		Assert.assertEquals("792d509b2d452da2cf4a74faa2773c15", statement.getValue(STATEMENT_ID));
+	}
+
 	public static String getStatementWithExtra() {
 
 		return "{\n" +
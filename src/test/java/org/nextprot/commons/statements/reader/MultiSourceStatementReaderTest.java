@@ -0,0 +1,152 @@
+package org.nextprot.commons.statements.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class MultiSourceStatementReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readUnorderedFromPaths() throws IOException {
+
+		List<Path> paths = Arrays.asList(newFile(getStatements()), newFile(getStatement()), newFile(getStatements()));
+
+		List<Statement> expected = new ArrayList<>();
+		expected.addAll(new JsonStatementReader(getStatements(), new Specifications.Builder().build()).readStatements());
+		expected.addAll(new JsonStatementReader(getStatement(), new Specifications.Builder().build()).readStatements());
+		expected.addAll(new JsonStatementReader(getStatements(), new Specifications.Builder().build()).readStatements());
+
+		try (MultiSourceStatementReader reader = new MultiSourceStatementReader.Builder()
+				.addSources(paths)
+				.withThreads(2)
+				.withBatchSize(1)
+				.build()) {
+
+			List<Statement> statements = new ArrayList<>();
+			while (reader.hasStatement()) {
+				statements.add(reader.nextStatement());
+			}
+
+			Assert.assertEquals(5, statements.size());
+			Assert.assertEquals(ids(expected).stream().sorted().collect(Collectors.toList()),
+					ids(statements).stream().sorted().collect(Collectors.toList()));
+			Assert.assertNull(reader.nextStatement());
+		}
+	}
+
+	@Test
+	public void readMergedByKey() throws IOException {
+
+		try (MultiSourceStatementReader reader = new MultiSourceStatementReader.Builder()
+				.addSource(newReader("a", "c", "f"))
+				.addSource(newReader("b", "d"))
+				.addSource(newReader("e"))
+				.withBatchSize(1)
+				.mergedBy(ANNOTATION_NAME)
+				.build()) {
+
+			List<String> names = new ArrayList<>();
+			List<Statement> buffer = new ArrayList<>();
+			while (reader.readStatements(buffer) > 0) {
+				buffer.forEach(statement -> names.add(statement.getValue(ANNOTATION_NAME)));
+				buffer.clear();
+			}
+
+			Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), names);
+			Assert.assertFalse(reader.hasStatement());
+		}
+	}
+
+	@Test
+	public void readStatementsUntilExhausted() throws IOException {
+
+		try (MultiSourceStatementReader reader = new MultiSourceStatementReader.Builder()
+				.addSource(newReader("a", "c"))
+				.addSource(newReader("b"))
+				.withBatchSize(2)
+				.build()) {
+
+			List<Statement> buffer = new ArrayList<>();
+			while (reader.readStatements(buffer) != -1) {
+				// until exhausted
+			}
+
+			Assert.assertEquals(3, buffer.size());
+			Assert.assertEquals(-1, reader.readStatements(buffer));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldNotMergeUnsortedSources() throws IOException {
+
+		try (MultiSourceStatementReader reader = new MultiSourceStatementReader.Builder()
+				.addSource(newReader("a", "c"))
+				.addSource(newReader("d", "b"))
+				.mergedBy(ANNOTATION_NAME)
+				.build()) {
+
+			reader.readStatements();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldFailOnInvalidSource() throws IOException {
+
+		try (MultiSourceStatementReader reader = new MultiSourceStatementReader.Builder()
+				.addSource(newFile(getStatements()))
+				.addSource(newFile("not json"))
+				.build()) {
+
+			while (reader.hasStatement()) {
+				reader.nextStatement();
+			}
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void shouldNotBuildWithoutSources() {
+
+		new MultiSourceStatementReader.Builder().build();
+	}
+
+	private Path newFile(String content) throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	private static BufferedJsonStatementReader newReader(String... annotationNames) throws IOException {
+
+		String content = Arrays.stream(annotationNames)
+				.map(name -> getStatement().replace("POTEH-p.Trp34Ter", name))
+				.collect(Collectors.joining(",", "[", "]"));
+
+		return new BufferedJsonStatementReader(new StringReader(content), 1);
+	}
+
+	private static List<String> ids(List<Statement> statements) {
+
+		return statements.stream().map(statement -> statement.getValue(STATEMENT_ID)).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,162 @@
+package org.nextprot.commons.statements.reader;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.nextprot.commons.statements.reader.JsonStatementReaderTest.getStatement;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class NdJsonStatementReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readStatementsOnePerLine() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader(getLines(3)));
+
+		Assert.assertTrue(reader.hasStatement());
+
+		List<Statement> statements = reader.readStatements();
+		Assert.assertEquals(3, statements.size());
+		Assert.assertEquals("POTEH-p.Trp0Ter", statements.get(0).getValue(ANNOTATION_NAME));
+		Assert.assertEquals("POTEH-p.Trp2Ter", statements.get(2).getValue(ANNOTATION_NAME));
+		Assert.assertEquals(13, statements.get(2).size());
+
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertEquals(-1, reader.readStatements(new ArrayList<>()));
+	}
+
+	@Test
+	public void readEmptyContent() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader("\n"));
+
+		Assert.assertFalse(reader.hasStatement());
+		Assert.assertNull(reader.nextStatement());
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldNotReadJsonArray() throws IOException {
+
+		new NdJsonStatementReader(new StringReader("[" + getStatement() + "]"));
+	}
+
+	@Test
+	public void shouldNotReadSeveralObjectsPerLine() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader(getStatement().replace("\n", "") + " " + getStatement().replace("\n", "") + "\n"));
+
+		try {
+			reader.readStatements();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("not a valid json lines content (line 1 holds several json objects)", e.getMessage());
+		}
+	}
+
+	@Test
+	public void shouldNotReadObjectsSpanningLines() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader(getLines(1) + getStatement().replace(",", ",\n") + "\n"));
+
+		Assert.assertNotNull(reader.nextStatement());
+		try {
+			reader.nextStatement();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("not a valid json lines content (the json object of line 2 spans several lines)", e.getMessage());
+		}
+	}
+
+	@Test
+	public void readFilteredStatements() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader(getLines(5)));
+		reader.setFilter(new StatementFieldFilter.Builder().withValues(ANNOTATION_NAME, "POTEH-p.Trp3Ter").build());
+
+		List<Statement> statements = reader.readStatements();
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals("POTEH-p.Trp3Ter", statements.get(0).getValue(ANNOTATION_NAME));
+	}
+
+	@Test
+	public void hasStatementShouldSkipRejectedStatements() throws IOException {
+
+		NdJsonStatementReader reader = new NdJsonStatementReader(new StringReader(getLines(5)));
+		reader.setFilter(new StatementFieldFilter.Builder().withValues(ANNOTATION_NAME, "POTEH-p.Trp1Ter").build());
+
+		List<Statement> statements = new ArrayList<>();
+		while (reader.hasStatement()) {
+			statements.add(reader.nextStatement());
+		}
+		Assert.assertEquals(1, statements.size());
+		Assert.assertEquals("POTEH-p.Trp1Ter", statements.get(0).getValue(ANNOTATION_NAME));
+	}
+
+	@Test
+	public void readChunksInParallel() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getLines(10).getBytes(StandardCharsets.UTF_8));
+
+		List<Statement> expected = NdJsonStatementReader.fromPath(path).readStatements();
+		Assert.assertEquals(10, expected.size());
+
+		List<NdJsonStatementReader.Chunk> chunks = NdJsonStatementReader.split(path, 3);
+		Assert.assertEquals(3, chunks.size());
+		Assert.assertEquals(0, chunks.get(0).getOffset());
+		Assert.assertEquals(Files.size(path), chunks.get(2).getOffset() + chunks.get(2).getLength());
+
+		List<Statement> statements = new ArrayList<>();
+		for (NdJsonStatementReader.Chunk chunk : chunks) {
+			try (NdJsonStatementReader reader = NdJsonStatementReader.fromChunk(path, chunk, new Specifications.Builder().build(), 100, 1024)) {
+				statements.addAll(reader.readStatements());
+			}
+		}
+		Assert.assertEquals(expected, statements);
+	}
+
+	@Test
+	public void splitShouldNotCreateEmptyChunks() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		Files.write(path, getLines(2).getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertEquals(2, NdJsonStatementReader.split(path, 10).size());
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldNotReadChunkOfCompressedFile() throws IOException {
+
+		Path path = folder.newFile().toPath();
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+			out.write(getLines(10).getBytes(StandardCharsets.UTF_8));
+		}
+		NdJsonStatementReader.fromChunk(path, new NdJsonStatementReader.Chunk(0, 100), new Specifications.Builder().build(), 10, 64);
+	}
+
+	static String getLines(int count) {
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(getStatement().replace("\n", "").replace("POTEH-p.Trp34Ter", "POTEH-p.Trp" + i + "Ter")).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,156 @@
+package org.nextprot.commons.statements.sort;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.reader.JsonStatementReader;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.Specifications;
+import org.nextprot.commons.statements.writer.NdJsonStatementWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.nextprot.commons.statements.StatementFixtures.newStatementBuilders;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class ExternalStatementSorterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sortInMemory() throws IOException {
+
+		List<Statement> statements = newStatements(500);
+
+		ExternalStatementSorter sorter = new ExternalStatementSorter.Builder(ENTRY_ACCESSION, ANNOTATION_ID)
+				.withTempDirectory(folder.getRoot().toPath())
+				.build();
+
+		List<Statement> sorted = readAll(sorter.sort(asReader(statements)));
+
+		Assert.assertEquals(expected(statements, sorter.getSortKey()), sorted);
+		Assert.assertEquals(0, countFiles(folder.getRoot().toPath()));
+	}
+
+	@Test
+	public void sortSpilledRuns() throws IOException {
+
+		List<Statement> statements = newStatements(2000);
+		Path tempDirectory = folder.newFolder().toPath();
+
+		ExternalStatementSorter sorter = new ExternalStatementSorter.Builder(ENTRY_ACCESSION, ANNOTATION_ID)
+				.withMemoryBudget(100 * 1024)
+				.withThreads(3)
+				.withTempDirectory(tempDirectory)
+				.build();
+
+		BufferableStatementReader reader = sorter.sort(asReader(statements));
+		Assert.assertTrue(countFiles(tempDirectory) > 1);
+
+		List<Statement> sorted = readAll(reader);
+
+		Assert.assertEquals(expected(statements, sorter.getSortKey()), sorted);
+		Assert.assertEquals(0, countFiles(tempDirectory));
+	}
+
+	@Test
+	public void sortWithManyMergePasses() throws IOException {
+
+		List<Statement> statements = newStatements(1000);
+		Path tempDirectory = folder.newFolder().toPath();
+
+		// about one statement per run
+		ExternalStatementSorter sorter = new ExternalStatementSorter.Builder(StatementSortKey.of(new CustomStatementField("GROUP")))
+				.withMemoryBudget(500)
+				.withThreads(1)
+				.withTempDirectory(tempDirectory)
+				.build();
+
+		List<Statement> sorted = readAll(sorter.sort(asReader(statements)));
+
+		// stable
+		Assert.assertEquals(expected(statements, sorter.getSortKey()), sorted);
+		Assert.assertEquals(0, countFiles(tempDirectory));
+	}
+
+	@Test
+	public void sortNonBufferableReader() throws IOException {
+
+		StringWriter json = new StringWriter();
+		json.write("[");
+		List<Statement> statements = newStatements(10);
+		for (int i = 0; i < statements.size(); i++) {
+			StringWriter line = new StringWriter();
+			try (NdJsonStatementWriter writer = new NdJsonStatementWriter(line)) {
+				writer.write(statements.get(i));
+			}
+			json.write(((i > 0) ? "," : "") + line);
+		}
+		json.write("]");
+
+		ExternalStatementSorter sorter = new ExternalStatementSorter.Builder(ENTRY_ACCESSION).build();
+		List<Statement> sorted = readAll(sorter.sort(new JsonStatementReader(json.toString(), new Specifications.Builder().build())));
+
+		Assert.assertEquals(10, sorted.size());
+		for (int i = 1; i < sorted.size(); i++) {
+			Assert.assertTrue(sorted.get(i - 1).getEntryAccession().compareTo(sorted.get(i).getEntryAccession()) <= 0);
+		}
+	}
+
+	private static List<Statement> expected(List<Statement> statements, StatementSortKey sortKey) {
+
+		List<Statement> expected = new ArrayList<>(statements);
+		// stable
+		expected.sort(sortKey);
+		return expected;
+	}
+
+	private static List<Statement> readAll(BufferableStatementReader reader) throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+		while (reader.readStatements(statements) >= 0) {
+			// until closed
+		}
+		return statements;
+	}
+
+	private static BufferableStatementReader asReader(List<Statement> statements) {
+
+		return new SortedListReader(new ArrayList<>(statements), new Specifications.Builder().build());
+	}
+
+	private static long countFiles(Path directory) throws IOException {
+
+		return Files.list(directory).count();
+	}
+
+	private static List<Statement> newStatements(int count) {
+
+		Random random = new Random(42);
+		List<Statement> statements = new ArrayList<>();
+		List<StatementBuilder> builders = newStatementBuilders(count, count / 4 + 1);
+
+		for (int i = 0; i < count; i++) {
+			StatementBuilder builder = builders.get(i)
+					.addField(new CustomStatementField("GROUP"), String.valueOf(random.nextInt(5)));
+			if (i % 3 != 0) {
+				builder.addField(ANNOTATION_ID, String.format("%032x", random.nextLong()));
+			}
+			statements.add(builder.withTrustedIds().build());
+		}
+		Collections.shuffle(statements, random);
+		return statements;
+	}
+}
@@ -0,0 +1,86 @@
+package org.nextprot.commons.statements.sort;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.StatementSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class StatementSortKeyTest {
+
+	private static final String[] VALUES = { null, "", "a", "a\u0000", "a\u0001", "ab", "b", "\u00e9", "\uffff", "\ud83d\ude00", "NX_P12345", "NX_P1234" };
+
+	@Test
+	public void encodedKeysShouldHaveTheOrderOfKeys() {
+
+		StatementSortKey sortKey = StatementSortKey.of(ENTRY_ACCESSION, ANNOTATION_NAME);
+
+		List<Statement> statements = new ArrayList<>();
+		for (String accession : VALUES) {
+			for (String name : VALUES) {
+				statements.add(newStatement(accession, name));
+			}
+		}
+
+		for (Statement statement1 : statements) {
+			for (Statement statement2 : statements) {
+				Assert.assertEquals(statement1 + " vs " + statement2,
+						Integer.signum(sortKey.compare(statement1, statement2)),
+						Integer.signum(sortKey.encode(statement1).compareTo(sortKey.encode(statement2))));
+			}
+		}
+	}
+
+	@Test
+	public void missingValuesShouldComeFirst() {
+
+		StatementSortKey sortKey = StatementSortKey.of(ANNOTATION_NAME);
+
+		Assert.assertTrue(sortKey.compare(newStatement("NX_1", null), newStatement("NX_1", "")) < 0);
+		Assert.assertTrue(sortKey.encode(newStatement("NX_1", null)).compareTo(sortKey.encode(newStatement("NX_1", ""))) < 0);
+		// code point order
+		Assert.assertTrue(sortKey.compare(newStatement("NX_1", "\uffff"), newStatement("NX_1", "\ud83d\ude00")) < 0);
+	}
+
+	@Test
+	public void encodedKeyPrefix() {
+
+		EncodedSortKey key = StatementSortKey.of(ENTRY_ACCESSION).encode(newStatement("NX", null));
+
+		Assert.assertArrayEquals(new byte[] { 2, 'N', 'X', 0, 0 }, key.getBytes());
+		Assert.assertEquals(0x024e580000000000L, key.getPrefix());
+	}
+
+	@Test
+	public void sortShouldBeStable() {
+
+		Random random = new Random(7);
+		List<Statement> statements = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			statements.add(newStatement(VALUES[random.nextInt(VALUES.length)], String.valueOf(i)));
+		}
+
+		StatementSortKey sortKey = StatementSortKey.of(ENTRY_ACCESSION);
+		List<Statement> expected = new ArrayList<>(statements);
+		expected.sort(sortKey);
+
+		Assert.assertEquals(expected, Arrays.asList(sortKey.sort(statements)));
+		Assert.assertEquals(expected, new ArrayList<>(new StatementSet(statements).sort(ENTRY_ACCESSION).getStatements()));
+	}
+
+	private static Statement newStatement(String accession, String name) {
+
+		StatementBuilder builder = new StatementBuilder().addField(EVIDENCE_NOTE, "note");
+		if (accession != null) builder.addField(ENTRY_ACCESSION, accession);
+		if (name != null) builder.addField(ANNOTATION_NAME, name);
+
+		return builder.withTrustedIds().build();
+	}
+}
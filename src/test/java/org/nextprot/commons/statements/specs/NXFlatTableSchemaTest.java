@@ -81,6 +81,95 @@ public class NXFlatTableSchemaTest {
 
 
 
+	@Test
+	public void testCreateTypedTable() {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		String sql = schema.generateCreateTableInSQL(StatementTableNames.ENTRY_TABLE);
+
+		Assert.assertTrue(schema.isTyped());
+		Assert.assertTrue(sql.contains("\tLOCATION_BEGIN INTEGER,\n"));
+		Assert.assertTrue(sql.contains("\tSTATEMENT_ID CHAR(32),\n"));
+		Assert.assertTrue(sql.contains("\tENTRY_ACCESSION VARCHAR(32),\n"));
+		Assert.assertTrue(sql.contains("\tANNOTATION_CATEGORY VARCHAR(64),\n"));
+		Assert.assertTrue(sql.contains("\tEVIDENCE_NOTE VARCHAR,\n"));
+		Assert.assertTrue(sql.contains("\t" + EXTRA_FIELDS + " VARCHAR\n);\n"));
+		Assert.assertFalse(sql.contains("PARTITION"));
+		Assert.assertTrue(sql.contains("CREATE INDEX ENTRY_MAPP_ENTRY_LOC_IDX ON nxflat.ENTRY_MAPPED_STATEMENTS ( ENTRY_ACCESSION, LOCATION_BEGIN, LOCATION_END );\n"));
+		Assert.assertEquals(6, schema.generateCreateIndexesInSQL(StatementTableNames.ENTRY_TABLE).size());
+		Assert.assertTrue(schema.isIntegerColumn("LOCATION_END_MASTER"));
+		Assert.assertFalse(schema.isIntegerColumn(EXTRA_FIELDS));
+		Assert.assertFalse(new NXFlatTableSchema().isIntegerColumn("LOCATION_BEGIN"));
+	}
+
+	@Test
+	public void testCreateHashPartitionedTable() {
+
+		String sql = NXFlatTableSchema.typed(2).generateCreateTableInSQL("RAW");
+
+		Assert.assertTrue(sql.contains("\n) PARTITION BY HASH (ENTRY_ACCESSION);\n" +
+				"CREATE TABLE nxflat.RAW_P0 PARTITION OF nxflat.RAW FOR VALUES WITH (MODULUS 2, REMAINDER 0);\n" +
+				"CREATE TABLE nxflat.RAW_P1 PARTITION OF nxflat.RAW FOR VALUES WITH (MODULUS 2, REMAINDER 1);\n" +
+				"CREATE INDEX RAW_ENTRY_AC_IDX ON nxflat.RAW ( ENTRY_ACCESSION );\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateTypedTableWithNegativePartitions() {
+
+		NXFlatTableSchema.typed(-1);
+	}
+
+	@Test
+	public void testLoadPlan() {
+
+		NXFlatLoadPlan plan = NXFlatTableSchema.typed(2).generateLoadPlan("RAW", true);
+
+		Assert.assertEquals("RAW_STAGING", plan.getStagingTableName());
+		Assert.assertEquals(Arrays.asList("DROP TABLE IF EXISTS nxflat.RAW_STAGING",
+				"CREATE UNLOGGED TABLE nxflat.RAW_STAGING_P0 PARTITION OF nxflat.RAW_STAGING FOR VALUES WITH (MODULUS 2, REMAINDER 0)",
+				"CREATE UNLOGGED TABLE nxflat.RAW_STAGING_P1 PARTITION OF nxflat.RAW_STAGING FOR VALUES WITH (MODULUS 2, REMAINDER 1)"),
+				Arrays.asList(plan.getCreateStagingTableSQL().get(0), plan.getCreateStagingTableSQL().get(2), plan.getCreateStagingTableSQL().get(3)));
+		Assert.assertTrue(plan.getCreateStagingTableSQL().get(1).startsWith("CREATE TABLE nxflat.RAW_STAGING (\n"));
+		Assert.assertFalse(plan.getCreateStagingTableSQL().stream().anyMatch(sql -> sql.contains("INDEX")));
+		Assert.assertTrue(plan.getCopyFromStdinSQL(true).startsWith("COPY nxflat.RAW_STAGING ("));
+		Assert.assertEquals(Arrays.asList("ALTER TABLE nxflat.RAW_STAGING_P0 SET LOGGED", "ALTER TABLE nxflat.RAW_STAGING_P1 SET LOGGED"), plan.getSetLoggedSQL());
+		Assert.assertEquals(Arrays.asList("CREATE INDEX RAW_ENTRY_AC_IDX_STG ON ONLY nxflat.RAW_STAGING ( ENTRY_ACCESSION )",
+				"CREATE INDEX RAW_ENTRY_AC_IDX_P0_STG ON nxflat.RAW_STAGING_P0 ( ENTRY_ACCESSION )",
+				"CREATE INDEX RAW_ENTRY_AC_IDX_P1_STG ON nxflat.RAW_STAGING_P1 ( ENTRY_ACCESSION )"), plan.getCreateIndexesSQL().subList(0, 3));
+		Assert.assertEquals(18, plan.getCreateIndexesSQL().size());
+		Assert.assertEquals(Arrays.asList("ALTER INDEX nxflat.RAW_ENTRY_AC_IDX_STG ATTACH PARTITION nxflat.RAW_ENTRY_AC_IDX_P0_STG",
+				"ALTER INDEX nxflat.RAW_ENTRY_AC_IDX_STG ATTACH PARTITION nxflat.RAW_ENTRY_AC_IDX_P1_STG"), plan.getAttachIndexesSQL().subList(0, 2));
+		Assert.assertEquals(12, plan.getAttachIndexesSQL().size());
+		Assert.assertEquals(Arrays.asList("DROP TABLE IF EXISTS nxflat.RAW",
+				"ALTER TABLE nxflat.RAW_STAGING RENAME TO RAW",
+				"ALTER TABLE nxflat.RAW_STAGING_P0 RENAME TO RAW_P0",
+				"ALTER TABLE nxflat.RAW_STAGING_P1 RENAME TO RAW_P1",
+				"ALTER INDEX nxflat.RAW_ENTRY_AC_IDX_STG RENAME TO RAW_ENTRY_AC_IDX"), plan.getSwapSQL().subList(0, 5));
+		// no partition index keeps a staging name
+		Assert.assertTrue(plan.getSwapSQL().contains("ALTER INDEX nxflat.RAW_CATEGORY_IDX_P1_STG RENAME TO RAW_CATEGORY_IDX_P1"));
+		Assert.assertEquals(4 + 6 + 12, plan.getSwapSQL().size());
+
+		Assert.assertTrue(NXFlatTableSchema.typed(0).generateLoadPlan("RAW", false).getAttachIndexesSQL().isEmpty());
+
+		String script = new NXFlatTableSchema().generateLoadPlan(StatementTableNames.RAW_TABLE, false).toSQL(false);
+		Assert.assertTrue(script.startsWith("-- phase 1: staging table\nDROP TABLE IF EXISTS nxflat.RAW_STATEMENTS_STAGING;\nCREATE TABLE nxflat.RAW_STATEMENTS_STAGING (\n"));
+		Assert.assertTrue(script.endsWith("BEGIN;\nDROP TABLE IF EXISTS nxflat.RAW_STATEMENTS;\nALTER TABLE nxflat.RAW_STATEMENTS_STAGING RENAME TO RAW_STATEMENTS;\n" +
+				"ALTER INDEX nxflat.RAW_STATEM_ENTRY_AC_IDX_STG RENAME TO RAW_STATEM_ENTRY_AC_IDX;\n" +
+				"ALTER INDEX nxflat.RAW_STATEM_ANNOT_ID_IDX_STG RENAME TO RAW_STATEM_ANNOT_ID_IDX;\nCOMMIT;\n"));
+	}
+
+	@Test
+	public void testCopyFromStdin() {
+
+		NXFlatTableSchema schema = new NXFlatTableSchema();
+		String sql = schema.generateCopyFromStdinSQL(StatementTableNames.ENTRY_TABLE, false);
+
+		Assert.assertTrue(sql.startsWith("COPY nxflat.ENTRY_MAPPED_STATEMENTS (ANNOTATION_CATEGORY, ANNOTATION_ID, "));
+		Assert.assertTrue(sql.endsWith(", VARIANT_VARIATION_AMINO_ACID, EXTRA_FIELDS) FROM STDIN;\n"));
+		Assert.assertEquals(schema.countColumns() + 1, schema.getColumnNames().size());
+		Assert.assertTrue(schema.generateCopyFromStdinSQL(StatementTableNames.ENTRY_TABLE, true).endsWith(" FROM STDIN WITH (FORMAT binary);\n"));
+	}
+
 	private List<String> getNxFlatColumns() {
 		return Arrays.asList("statement_id",
 				"nextprot_accession",
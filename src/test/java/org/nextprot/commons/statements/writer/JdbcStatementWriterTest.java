@@ -0,0 +1,181 @@
+package org.nextprot.commons.statements.writer;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.constants.StatementTableNames;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.nextprot.commons.statements.StatementFixtures.INDEX;
+import static org.nextprot.commons.statements.StatementFixtures.newStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class JdbcStatementWriterTest {
+
+	private JdbcDataSource dataSource;
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:jdbc-writer;DB_CLOSE_DELAY=-1");
+
+		connection = dataSource.getConnection();
+		connection.createStatement().execute("CREATE SCHEMA IF NOT EXISTS nxflat");
+		connection.createStatement().execute(new NXFlatTableSchema().generateCreateTableInSQL(StatementTableNames.RAW_TABLE));
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+
+		connection.createStatement().execute("DROP ALL OBJECTS");
+		connection.close();
+	}
+
+	@Test
+	public void writeStatementsOnManyConnections() throws IOException, SQLException {
+
+		List<Statement> statements = newStatements(50, 50);
+
+		JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withBatchSize(7)
+				.withConnections(3)
+				.insertingOnly()
+				.build();
+		writer.write(statements);
+		writer.close();
+
+		Assert.assertEquals(50, writer.getRowCount());
+		Assert.assertTrue(writer.getRowsPerSecond() > 0);
+		Assert.assertEquals(50, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS"));
+		Assert.assertEquals(1, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS WHERE ENTRY_ACCESSION = 'NX_P00007' AND EXTRA_FIELDS = '{\"INDEX\":\"7\"}'"));
+	}
+
+	@Test
+	public void writeStatementsAgainShouldNotDuplicateRows() throws IOException, SQLException {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		// with an index on STATEMENT_ID
+		connection.createStatement().execute(schema.generateCreateTableInSQL("TYPED_STATEMENTS"));
+
+		List<Statement> statements = newStatements(20, 20);
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, "TYPED_STATEMENTS")
+				.withTableSchema(schema)
+				.withBatchSize(3)
+				.build()) {
+			writer.write(statements);
+			writer.flush();
+			Assert.assertEquals(20, count("SELECT COUNT(*) FROM nxflat.TYPED_STATEMENTS"));
+
+			writer.write(statements);
+			writer.write(statements.get(0));
+		}
+		Assert.assertEquals(20, count("SELECT COUNT(*) FROM nxflat.TYPED_STATEMENTS"));
+	}
+
+	@Test
+	public void writeSameBatchTwiceShouldNotDuplicateRows() throws IOException, SQLException {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		connection.createStatement().execute(schema.generateCreateTableInSQL("TYPED_STATEMENTS"));
+
+		List<Statement> batch = newStatements(10, 10);
+		batch.add(batch.get(0));
+
+		// as a batch committed without acknowledgement then retried by another writer
+		for (int i = 0; i < 2; i++) {
+			try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, "TYPED_STATEMENTS")
+					.withTableSchema(schema)
+					.withBatchSize(batch.size())
+					.withConnections(1)
+					.build()) {
+				writer.write(batch);
+			}
+			Assert.assertEquals(10, count("SELECT COUNT(*) FROM nxflat.TYPED_STATEMENTS"));
+		}
+	}
+
+	@Test
+	public void writeStatementsAgainShouldInsertRowsWhenInsertingOnly() throws IOException, SQLException {
+
+		List<Statement> statements = newStatements(20, 20);
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, StatementTableNames.RAW_TABLE)
+				.withBatchSize(3)
+				.insertingOnly()
+				.build()) {
+			writer.write(statements);
+			writer.write(statements);
+		}
+		Assert.assertEquals(40, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void cannotReplaceRowsOfUnindexedStatementIds() {
+
+		new JdbcStatementWriter.Builder(dataSource, StatementTableNames.RAW_TABLE).build();
+	}
+
+	@Test
+	public void writeStatementsIntoTypedTable() throws IOException, SQLException {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		connection.createStatement().execute(schema.generateCreateTableInSQL("TYPED_STATEMENTS"));
+
+		List<Statement> statements = new ArrayList<>();
+		for (Statement statement : newStatements(10, 10)) {
+			statements.add(new StatementBuilder(statement)
+					.addField(LOCATION_BEGIN, String.valueOf(statement.getValue(INDEX)))
+					.build());
+		}
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, "TYPED_STATEMENTS").withTableSchema(schema).build()) {
+			writer.write(statements);
+		}
+		Assert.assertEquals(10, count("SELECT COUNT(*) FROM nxflat.TYPED_STATEMENTS WHERE LOCATION_END IS NULL"));
+		Assert.assertEquals(4, count("SELECT COUNT(*) FROM nxflat.TYPED_STATEMENTS WHERE LOCATION_BEGIN > 5"));
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldFailOnInvalidInteger() throws IOException, SQLException {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		connection.createStatement().execute(schema.generateCreateTableInSQL("TYPED_STATEMENTS"));
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, "TYPED_STATEMENTS").withTableSchema(schema).build()) {
+			writer.write(new StatementBuilder().addField(ENTRY_ACCESSION, "NX_P00001").addField(LOCATION_BEGIN, "first").build());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldFailAfterRetries() throws IOException {
+
+		try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, "MISSING_TABLE")
+				.withRetries(2, 1)
+				.insertingOnly()
+				.build()) {
+			writer.write(newStatements(1, 1));
+		}
+	}
+
+	private int count(String sql) throws SQLException {
+
+		try (ResultSet rs = connection.createStatement().executeQuery(sql)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+}
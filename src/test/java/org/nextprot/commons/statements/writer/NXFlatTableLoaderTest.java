@@ -0,0 +1,96 @@
+package org.nextprot.commons.statements.writer;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.nextprot.commons.statements.constants.StatementTableNames;
+import org.nextprot.commons.statements.specs.NXFlatLoadPlan;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.nextprot.commons.statements.StatementFixtures.newStatements;
+
+public class NXFlatTableLoaderTest {
+
+	private JdbcDataSource dataSource;
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:table-loader;DB_CLOSE_DELAY=-1");
+
+		connection = dataSource.getConnection();
+		connection.createStatement().execute("CREATE SCHEMA IF NOT EXISTS nxflat");
+		connection.createStatement().execute(new NXFlatTableSchema().generateCreateTableInSQL(StatementTableNames.RAW_TABLE));
+		connection.createStatement().execute("INSERT INTO nxflat.RAW_STATEMENTS (ENTRY_ACCESSION) VALUES ('NX_OLD')");
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+
+		connection.createStatement().execute("DROP ALL OBJECTS");
+		connection.close();
+	}
+
+	@Test
+	public void loadShouldReplaceTable() throws IOException, SQLException {
+
+		NXFlatTableSchema schema = NXFlatTableSchema.typed(0);
+		NXFlatLoadPlan plan = schema.generateLoadPlan(StatementTableNames.RAW_TABLE, false);
+
+		new NXFlatTableLoader(dataSource, 3).load(plan, stagingTableName -> {
+
+			// the current table is still readable while loading
+			Assert.assertEquals(1, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS"));
+			Assert.assertEquals(0, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = '" + stagingTableName + "'"));
+
+			// rows are only inserted, not replaced by STATEMENT_ID which is not indexed yet
+			try (JdbcStatementWriter writer = new JdbcStatementWriter.Builder(dataSource, stagingTableName).withTableSchema(schema)
+					.insertingOnly().build()) {
+				writer.write(newStatements(30, 30));
+			}
+		});
+
+		Assert.assertEquals(30, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS"));
+		Assert.assertEquals(0, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS WHERE ENTRY_ACCESSION = 'NX_OLD'"));
+		Assert.assertEquals(0, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = '" + plan.getStagingTableName() + "'"));
+		for (String index : schema.generateCreateIndexesInSQL(StatementTableNames.RAW_TABLE)) {
+			String indexName = index.split(" ")[2];
+			Assert.assertEquals(indexName, 1, count("SELECT COUNT(DISTINCT INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = '" + indexName + "'"));
+		}
+	}
+
+	@Test
+	public void failedLoadShouldKeepTable() throws SQLException {
+
+		NXFlatLoadPlan plan = new NXFlatTableSchema().generateLoadPlan(StatementTableNames.RAW_TABLE, false);
+
+		try {
+			new NXFlatTableLoader(dataSource, 2).load(plan, stagingTableName -> {
+				throw new IOException("broken input");
+			});
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("broken input", e.getMessage());
+		}
+
+		Assert.assertEquals(1, count("SELECT COUNT(*) FROM nxflat.RAW_STATEMENTS WHERE ENTRY_ACCESSION = 'NX_OLD'"));
+		Assert.assertEquals(0, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = '" + plan.getStagingTableName() + "'"));
+	}
+
+	private int count(String sql) throws SQLException {
+
+		try (ResultSet rs = connection.createStatement().executeQuery(sql)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+}
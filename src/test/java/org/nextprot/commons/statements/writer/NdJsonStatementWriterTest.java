@@ -0,0 +1,69 @@
+package org.nextprot.commons.statements.writer;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.JsonStatementReader;
+import org.nextprot.commons.statements.reader.JsonStatementReaderTest;
+import org.nextprot.commons.statements.reader.NdJsonStatementReader;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NdJsonStatementWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writeOneStatementPerLine() throws IOException {
+
+		List<Statement> statements = getStatements();
+
+		StringWriter out = new StringWriter();
+		try (NdJsonStatementWriter writer = new NdJsonStatementWriter(out)) {
+			writer.write(statements);
+		}
+
+		String[] lines = out.toString().split("\n");
+		Assert.assertEquals(2, lines.length);
+		Assert.assertTrue(out.toString().endsWith("\n"));
+		// newlines in values are escaped
+		Assert.assertTrue(lines[1].contains("\\n"));
+	}
+
+	@Test
+	public void appendStatements() throws IOException {
+
+		List<Statement> statements = getStatements();
+		Path path = folder.getRoot().toPath().resolve("statements.ndjson");
+
+		try (NdJsonStatementWriter writer = NdJsonStatementWriter.append(path)) {
+			writer.write(statements);
+		}
+		try (NdJsonStatementWriter writer = NdJsonStatementWriter.append(path)) {
+			writer.write(statements.get(0));
+		}
+
+		Assert.assertEquals(3, Files.readAllLines(path).size());
+
+		List<Statement> expected = new ArrayList<>(statements);
+		expected.add(statements.get(0));
+
+		try (NdJsonStatementReader reader = NdJsonStatementReader.fromPath(path)) {
+			Assert.assertEquals(expected, reader.readStatements());
+		}
+	}
+
+	private static List<Statement> getStatements() throws IOException {
+
+		return new JsonStatementReader(JsonStatementReaderTest.getStatements(), new Specifications.Builder().build()).readStatements();
+	}
+}
@@ -0,0 +1,128 @@
+package org.nextprot.commons.statements.writer;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.reader.BufferableStatementReader;
+import org.nextprot.commons.statements.specs.Specifications;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.nextprot.commons.statements.StatementFixtures.INDEX;
+import static org.nextprot.commons.statements.StatementFixtures.newStatements;
+import static org.nextprot.commons.statements.specs.CoreStatementField.ENTRY_ACCESSION;
+import static org.nextprot.commons.statements.specs.CoreStatementField.GENE_NAME;
+
+public class PartitionedStatementWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void routeStatementsByEntryAccession() throws IOException {
+
+		List<Statement> statements = newStatements(1000, 37);
+		Path directory = folder.getRoot().toPath().resolve("partitions");
+
+		try (PartitionedStatementWriter writer = new PartitionedStatementWriter.Builder(directory)
+				.withPartitions(4)
+				.withBatchSize(10)
+				.withQueueCapacity(2)
+				.build()) {
+			writer.write(statements);
+		}
+
+		PartitionManifest manifest = PartitionManifest.read(directory);
+		Assert.assertEquals("ENTRY_ACCESSION", manifest.getPartitionedBy());
+		Assert.assertEquals(PartitionManifest.Format.NDJSON, manifest.getFormat());
+		Assert.assertEquals(4, manifest.getPartitions().size());
+		Assert.assertEquals(1000, manifest.getStatementCount());
+
+		Set<String> indexes = new HashSet<>();
+
+		for (int i = 0; i < 4; i++) {
+
+			List<Statement> partition = readAll(manifest.openReader(directory, i, new Specifications.Builder().build(), 100));
+			Assert.assertEquals(manifest.getPartitions().get(i).getStatementCount(), partition.size());
+
+			for (Statement statement : partition) {
+				Assert.assertEquals(i, PartitionedStatementWriter.getPartition(statement.getValue(ENTRY_ACCESSION), 4));
+				Assert.assertTrue(indexes.add(statement.getValue(INDEX)));
+			}
+		}
+		Assert.assertEquals(1000, indexes.size());
+	}
+
+	@Test
+	public void writeBinaryPartitionsByCustomField() throws IOException {
+
+		List<Statement> statements = newStatements(100, 37);
+		Path directory = folder.getRoot().toPath();
+
+		try (PartitionedStatementWriter writer = new PartitionedStatementWriter.Builder(directory)
+				.partitionedBy(GENE_NAME)
+				.withFormat(PartitionManifest.Format.BINARY)
+				.withPartitions(3)
+				.build()) {
+			writer.write(statements);
+		}
+
+		PartitionManifest manifest = PartitionManifest.read(directory);
+		Assert.assertEquals("GENE_NAME", manifest.getPartitionedBy());
+		Assert.assertEquals("part-00002.bin", manifest.getPartitions().get(2).getFile());
+
+		int count = 0;
+		for (int i = 0; i < 3; i++) {
+			for (Statement statement : readAll(manifest.openReader(directory, i, new Specifications.Builder().build(), 10))) {
+				Assert.assertEquals(i, PartitionedStatementWriter.getPartition(statement.getValue(GENE_NAME), 3));
+				count++;
+			}
+		}
+		Assert.assertEquals(100, count);
+	}
+
+	@Test
+	public void writeNoStatement() throws IOException {
+
+		Path directory = folder.getRoot().toPath();
+
+		new PartitionedStatementWriter.Builder(directory).withPartitions(2).build().close();
+
+		PartitionManifest manifest = PartitionManifest.read(directory);
+		Assert.assertEquals(0, manifest.getStatementCount());
+		Assert.assertEquals(0, Files.size(directory.resolve("part-00001.ndjson")));
+	}
+
+	@Test(expected = IOException.class)
+	public void cannotWriteAfterClose() throws IOException {
+
+		PartitionedStatementWriter writer = new PartitionedStatementWriter.Builder(folder.getRoot().toPath()).build();
+		writer.close();
+		writer.write(newStatements(1, 37).get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void cannotDefineZeroPartitions() {
+
+		new PartitionedStatementWriter.Builder(folder.getRoot().toPath()).withPartitions(0);
+	}
+
+	private static List<Statement> readAll(BufferableStatementReader reader) throws IOException {
+
+		List<Statement> statements = new ArrayList<>();
+		try (BufferableStatementReader r = reader) {
+			while (r.readStatements(statements) != -1) {
+				// reading
+			}
+		}
+		return statements;
+	}
+}
@@ -0,0 +1,122 @@
+package org.nextprot.commons.statements.writer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.nextprot.commons.statements.Statement;
+import org.nextprot.commons.statements.StatementBuilder;
+import org.nextprot.commons.statements.reader.JsonStatementReader;
+import org.nextprot.commons.statements.specs.CustomStatementField;
+import org.nextprot.commons.statements.specs.NXFlatTableSchema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.nextprot.commons.statements.specs.CoreStatementField.*;
+
+public class PgCopyStatementWriterTest {
+
+	private final NXFlatTableSchema schema = new NXFlatTableSchema();
+
+	@Test
+	public void writeTextRows() throws IOException {
+
+		Statement statement = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P01308")
+				.addField(EVIDENCE_NOTE, "a\tb\nc\\d\re")
+				.addField(GENE_NAME, "INS-\u03b1")
+				.build();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (PgCopyStatementWriter writer = new PgCopyStatementWriter(out, schema)) {
+			writer.write(statement);
+			writer.write(statement);
+			Assert.assertEquals(2, writer.getRowCount());
+		}
+
+		String[] rows = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+		Assert.assertEquals(3, rows.length);
+		Assert.assertEquals("", rows[2]);
+
+		List<String> columns = schema.getColumnNames();
+		String[] values = rows[0].split("\t", -1);
+		Assert.assertEquals(columns.size(), values.length);
+
+		Assert.assertEquals("NX_P01308", values[columns.indexOf("ENTRY_ACCESSION")]);
+		Assert.assertEquals("a\\tb\\nc\\\\d\\re", values[columns.indexOf("EVIDENCE_NOTE")]);
+		Assert.assertEquals("INS-\u03b1", values[columns.indexOf("GENE_NAME")]);
+		Assert.assertEquals(statement.getStatementId(), values[columns.indexOf("STATEMENT_ID")]);
+		Assert.assertEquals("\\N", values[columns.indexOf("ANNOTATION_NAME")]);
+		Assert.assertEquals("\\N", values[columns.indexOf("EXTRA_FIELDS")]);
+	}
+
+	@Test
+	public void packCustomFieldsIntoExtraFields() throws IOException {
+
+		Statement statement = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P01308")
+				.addField(new CustomStatementField("PROPERTY"), "tab\there")
+				.addField(new CustomStatementField("ANOTHER"), "\"quoted\"")
+				.build();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (PgCopyStatementWriter writer = new PgCopyStatementWriter(out, schema)) {
+			writer.write(statement);
+		}
+
+		String[] values = new String(out.toByteArray(), StandardCharsets.UTF_8).trim().split("\t", -1);
+		String extraFields = values[schema.getColumnNames().indexOf("EXTRA_FIELDS")];
+
+		// json escapes the tab before copy escaping
+		Assert.assertEquals("{\"ANOTHER\":\"\\\\\"quoted\\\\\"\",\"PROPERTY\":\"tab\\\\there\"}", extraFields);
+
+		Map<String, String> map = JsonStatementReader.readStringMap(extraFields.replace("\\\\", "\\"));
+		Assert.assertEquals("tab\there", map.get("PROPERTY"));
+		Assert.assertEquals("\"quoted\"", map.get("ANOTHER"));
+	}
+
+	@Test
+	public void writeBinaryRows() throws IOException {
+
+		Statement statement = new StatementBuilder()
+				.addField(ENTRY_ACCESSION, "NX_P01308")
+				.addField(EVIDENCE_NOTE, "a\tb")
+				.build();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (PgCopyStatementWriter writer = new PgCopyStatementWriter(out, schema, PgCopyStatementWriter.Format.BINARY)) {
+			writer.write(statement);
+		}
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+		byte[] signature = new byte[11];
+		in.readFully(signature);
+		Assert.assertEquals("PGCOPY\n", new String(signature, 0, 7, StandardCharsets.US_ASCII));
+		Assert.assertEquals(0, in.readInt());
+		Assert.assertEquals(0, in.readInt());
+
+		List<String> columns = schema.getColumnNames();
+		Assert.assertEquals(columns.size(), in.readShort());
+
+		for (String column : columns) {
+
+			int length = in.readInt();
+			String value = null;
+			if (length >= 0) {
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				value = new String(bytes, StandardCharsets.UTF_8);
+			}
+			Assert.assertEquals(column, statement.entrySet().stream()
+					.filter(e -> e.getKey().getName().equals(column))
+					.map(Map.Entry::getValue).findFirst().orElse(null), value);
+		}
+		Assert.assertEquals(-1, in.readShort());
+		Assert.assertEquals(-1, in.read());
+	}
+}